@@ -0,0 +1,71 @@
+package pos.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pos.model.Product;
+import pos.model.SaleItem;
+import pos.ui.table.CartTableModel;
+import pos.ui.table.LineItemTableModel;
+
+import javax.swing.event.TableModelListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carrito: escanear una venta completa (cada producto varias veces) y leer
+ * el total. CartTableModel (carrito de CajeroPanel: mapa código → fila,
+ * total acumulado) contra LineItemTableModel (búsqueda lineal,
+ * fireTableDataChanged).
+ * Cada modelo tiene un listener, como cuando está en un JTable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+public class CartBenchmark {
+
+    @Param({"20", "200"})
+    int distinct;
+
+    @Param({"3"})
+    int scansPerProduct;
+
+    List<Product> products;
+    CartTableModel items;
+    LineItemTableModel lineItems;
+    long events;
+
+    @Setup
+    public void setup() {
+        products = new ArrayList<>(distinct);
+        for (int i = 1; i <= distinct; i++) {
+            products.add(new Product(i, String.format("78%010d", i), "Producto " + i, "CAT",
+                    500 + i * 37, 1_000_000, null));
+        }
+        TableModelListener l = e -> events++;
+        items = new CartTableModel();
+        items.addTableModelListener(l);
+        lineItems = new LineItemTableModel();
+        lineItems.addTableModelListener(l);
+    }
+
+    @Benchmark
+    public int cartTableModel() {
+        items.clear();
+        for (int s = 0; s < scansPerProduct; s++) {
+            for (Product p : products) items.addOrInc(p, 1);
+        }
+        return items.total();
+    }
+
+    @Benchmark
+    public int lineItemTableModel() {
+        lineItems.clear();
+        for (int s = 0; s < scansPerProduct; s++) {
+            for (Product p : products) lineItems.addOrIncrement(new SaleItem(p, 1));
+        }
+        return lineItems.subtotal();
+    }
+}
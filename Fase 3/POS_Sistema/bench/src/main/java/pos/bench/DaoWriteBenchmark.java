@@ -0,0 +1,83 @@
+package pos.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pos.dao.CatalogDao;
+import pos.dao.SaleOutboxDao;
+import pos.db.Database;
+import pos.db.DatabaseInit;
+import pos.model.Product;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Escrituras de los DAOs contra un SQLite temporal (WAL + WriteQueue):
+ * - venta al outbox (espera el commit; con 8 hilos se ve el group commit)
+ * - upsert de un producto
+ * - lote del sync de catálogo (1000 productos en una transacción)
+ *
+ * La base se crea en un directorio temporal por fork (pos.db.url) y se
+ * borra al terminar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoWriteBenchmark {
+
+    Path dir;
+    List<Product> batch;
+    Product single;
+    final AtomicLong seq = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("pos-bench");
+        System.setProperty("pos.db.url", "jdbc:sqlite:" + dir.resolve("bench.db"));
+        DatabaseInit.initialize();
+
+        batch = Fixtures.products(1000);
+        single = batch.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Database.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void outboxInsert() throws Exception {
+        long n = seq.incrementAndGet();
+        SaleOutboxDao.insert("bench-" + n, "{\"items\":[]}", n);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void outboxInsertConcurrent() throws Exception {
+        long n = seq.incrementAndGet();
+        SaleOutboxDao.insert("bench-" + n, "{\"items\":[]}", n);
+    }
+
+    @Benchmark
+    public void catalogUpsert() {
+        single.setStock(single.getStock() + 1);
+        CatalogDao.upsert(single);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void catalogApplyBatch() throws Exception {
+        CatalogDao.apply(batch, List.of(), "bench-" + seq.incrementAndGet(), false);
+    }
+}
@@ -0,0 +1,55 @@
+package pos.bench;
+
+import pos.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Datos sintéticos compartidos por los benchmarks (deterministas). */
+final class Fixtures {
+
+    private static final String[] WORDS = {
+            "Café", "Azúcar", "Leche", "Pan", "Harina", "Aceite", "Arroz", "Fideos",
+            "Tornillo", "Martillo", "Pintura", "Brocha", "Cemento", "Manguera", "Clavo", "Lija"
+    };
+
+    /** Catálogo de n productos con código, nombre de 3 palabras y categoría. */
+    static List<Product> products(int n) {
+        List<Product> list = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            String name = WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length] + " " + i;
+            list.add(new Product(i, code(i), name, "CAT-" + i % 12,
+                    500 + (i * 37) % 9500, 1_000_000, i % 5 == 0 ? LocalDate.of(2027, 1, 15) : null));
+        }
+        return list;
+    }
+
+    static String code(int i) {
+        return String.format("78%010d", i);
+    }
+
+    /** Catálogo con la misma forma que /v1/inventory/products. */
+    static byte[] inventoryJson(int n) {
+        StringBuilder sb = new StringBuilder(n * 220).append('[');
+        for (int i = 1; i <= n; i++) {
+            if (i > 1) sb.append(',');
+            sb.append("{\"id\":").append(i)
+              .append(",\"code\":\"").append(code(i)).append('"')
+              .append(",\"name\":\"Producto de prueba número ").append(i).append('"')
+              .append(",\"description\":\"CAT-").append(i % 12).append('"')
+              .append(",\"sale_price\":").append(500 + (i * 37) % 9500).append(".0")
+              .append(",\"cost_price\":").append(300 + (i * 17) % 5000).append(".0")
+              .append(",\"stock\":").append(20 + i % 80)
+              .append(",\"reorder_threshold\":5")
+              .append(",\"is_active\":true")
+              .append(",\"expiry_date\":").append(i % 5 == 0 ? "\"2027-01-15\"" : "null")
+              .append(",\"updated_at\":\"2026-10-01T12:00:00.").append(String.format("%06d", i % 1_000_000)).append('"')
+              .append('}');
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Fixtures() {}
+}
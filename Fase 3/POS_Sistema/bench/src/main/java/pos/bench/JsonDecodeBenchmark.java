@@ -0,0 +1,136 @@
+package pos.bench;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import pos.model.Product;
+import pos.services.JsonStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parseo del catálogo (/v1/inventory/products): org.json sobre el cuerpo
+ * completo contra JsonStreams (JsonReader sobre el flujo).
+ * Con -prof gc se ve además lo asignado por operación.
+ *
+ * orgJsonPeak / jsonStreamsPeak hacen UNA pasada por iteración, partiendo
+ * de un heap recién recolectado, e informan el peak de heap de esa pasada
+ * (contador peakHeapMb, ver Heap).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class JsonDecodeBenchmark {
+
+    @Param({"1000", "50000"})
+    int products;
+
+    byte[] payload;
+
+    @Setup
+    public void setup() {
+        payload = Fixtures.inventoryJson(products);
+    }
+
+    @Benchmark
+    public List<Product> orgJson() {
+        String raw = new String(payload, StandardCharsets.UTF_8);
+        JSONArray arr = new JSONArray(raw);
+        List<Product> list = new ArrayList<>(arr.length());
+        for (int i = 0; i < arr.length(); i++) {
+            JSONObject o = arr.getJSONObject(i);
+            String exp = o.isNull("expiry_date") ? null : o.getString("expiry_date");
+            Product p = new Product(
+                    o.getInt("id"),
+                    o.getString("code"),
+                    o.getString("name"),
+                    o.isNull("description") ? "" : o.getString("description"),
+                    o.isNull("sale_price") ? 0 : (int) Math.round(o.getDouble("sale_price")),
+                    o.isNull("stock") ? 0 : o.getInt("stock"),
+                    exp == null ? null : LocalDate.parse(exp));
+            p.setActive(o.getBoolean("is_active"));
+            list.add(p);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Product> jsonStreams() throws Exception {
+        return JsonStreams.readProducts(
+                new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8));
+    }
+
+    // ============================================================
+    // PEAK DE HEAP (una pasada por iteración)
+    // ============================================================
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public List<Product> orgJsonPeak(Heap heap) {
+        return orgJson();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public List<Product> jsonStreamsPeak(Heap heap) throws Exception {
+        return jsonStreams();
+    }
+
+    /**
+     * Peak de heap (suma de los pools de heap) sobre lo que quedó vivo
+     * después de un GC, medido con los MemoryPoolMXBean.
+     * JMH suma los contadores EVENTS de todas las iteraciones medidas: cada
+     * una aporta su peak dividido por la cantidad, y el total es el promedio.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+
+        public double peakHeapMb;
+        private long base;
+        private int iterations;
+
+        @Setup(Level.Iteration)
+        public void start(IterationParams params) {
+            iterations = params.getCount();
+            System.gc();
+            base = used(false);
+            for (MemoryPoolMXBean p : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (p.getType() == MemoryType.HEAP) p.resetPeakUsage();
+            }
+            peakHeapMb = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop() {
+            peakHeapMb = (used(true) - base) / 1048576.0 / iterations;
+        }
+
+        private static long used(boolean peak) {
+            long sum = 0;
+            for (MemoryPoolMXBean p : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (p.getType() == MemoryType.HEAP) {
+                    sum += (peak ? p.getPeakUsage() : p.getUsage()).getUsed();
+                }
+            }
+            return sum;
+        }
+    }
+}
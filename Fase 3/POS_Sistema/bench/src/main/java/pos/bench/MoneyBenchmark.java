@@ -0,0 +1,62 @@
+package pos.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pos.util.Money;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formato CLP: Money contra NumberFormat (una instancia reutilizada y una
+ * nueva por celda, como hacía ReportesPanel) y parseo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final Locale CL = Locale.forLanguageTag("es-CL");
+
+    NumberFormat shared;
+    StringBuilder sb;
+    int amount;
+    String text;
+
+    @Setup
+    public void setup() {
+        shared = NumberFormat.getCurrencyInstance(CL);
+        sb = new StringBuilder(64);
+        amount = 1_234_567;
+        text = "$1.234.567";
+    }
+
+    @Benchmark
+    public String formatNumberFormatPerCell() {
+        return NumberFormat.getCurrencyInstance(CL).format(amount);
+    }
+
+    @Benchmark
+    public String formatNumberFormatShared() {
+        return shared.format(amount);
+    }
+
+    @Benchmark
+    public String formatMoney() {
+        return Money.format(amount);
+    }
+
+    @Benchmark
+    public int appendToBuffer() {
+        sb.setLength(0);
+        return Money.appendTo(sb, amount).length();
+    }
+
+    @Benchmark
+    public long parseMoney() {
+        return Money.parse(text);
+    }
+}
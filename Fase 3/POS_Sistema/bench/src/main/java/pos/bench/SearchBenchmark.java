@@ -0,0 +1,68 @@
+package pos.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pos.model.Product;
+import pos.util.SearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de productos: SearchIndex (trigramas + prefijo de código)
+ * contra el recorrido con contains() que reemplazó, y el costo de armar
+ * el índice cuando llega un catálogo nuevo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"100000"})
+    int products;
+
+    @Param({"cafe leche", "7800000123", "mart"})
+    String query;
+
+    List<Product> catalog;
+    SearchIndex<Product> index;
+
+    @Setup
+    public void setup() {
+        catalog = Fixtures.products(products);
+        index = new SearchIndex<>(catalog, Product::getCode, Product::getName);
+    }
+
+    @Benchmark
+    public List<Product> indexed() {
+        return index.search(query, SearchIndex.LIMIT);
+    }
+
+    @Benchmark
+    public List<Product> linearScan() {
+        String[] words = query.toLowerCase(Locale.ROOT).split("\\s+");
+        List<Product> out = new ArrayList<>();
+        for (Product p : catalog) {
+            String hay = (p.getCode() + " " + SearchIndex.fold(p.getName()));
+            boolean ok = true;
+            for (String w : words) {
+                if (!hay.contains(w)) { ok = false; break; }
+            }
+            if (ok && out.size() < SearchIndex.LIMIT) out.add(p);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public SearchIndex<Product> buildIndex() {
+        return new SearchIndex<>(catalog, Product::getCode, Product::getName);
+    }
+}
@@ -0,0 +1,82 @@
+package pos.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pos.util.Tax;
+import pos.util.TaxEngine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IVA: BigDecimal (implementación anterior de Tax) contra TaxEngine.
+ * Sueltos (un monto) y un carrito completo con IVA incluido.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxBenchmark {
+
+    private static final BigDecimal IVA_RATE = new BigDecimal("0.19");
+
+    @Param({"30"})
+    int lines;
+
+    int[] prices;
+    int[] qtys;
+    int amount;
+    TaxEngine.Cart cart;
+
+    @Setup
+    public void setup() {
+        prices = new int[lines];
+        qtys = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = 490 + (i * 7919) % 25_000;
+            qtys[i] = 1 + i % 4;
+        }
+        amount = 12_345;
+        cart = new TaxEngine.Cart(TaxEngine.Prices.BRUTO, TaxEngine.Rounding.LINE);
+    }
+
+    // ---------- sueltos ----------
+
+    @Benchmark
+    public void singleBigDecimal(Blackhole bh) {
+        BigDecimal t = new BigDecimal(amount);
+        bh.consume(t.divide(BigDecimal.ONE.add(IVA_RATE), 0, RoundingMode.HALF_UP).intValue());
+        bh.consume(new BigDecimal(amount).multiply(IVA_RATE).setScale(0, RoundingMode.HALF_UP).intValue());
+    }
+
+    @Benchmark
+    public void singleTax(Blackhole bh) {
+        bh.consume(Tax.netoFromTotal(amount));
+        bh.consume(Tax.ivaFromNeto(amount));
+    }
+
+    // ---------- carrito ----------
+
+    @Benchmark
+    public long cartBigDecimal() {
+        BigDecimal factor = BigDecimal.ONE.add(IVA_RATE);
+        long neto = 0, iva = 0;
+        for (int k = 0; k < lines; k++) {
+            int line = prices[k] * qtys[k];
+            int n = new BigDecimal(line).divide(factor, 0, RoundingMode.HALF_UP).intValue();
+            neto += n;
+            iva += line - n;
+        }
+        return neto + iva;
+    }
+
+    @Benchmark
+    public long cartTaxEngine() {
+        cart.reset();
+        for (int k = 0; k < lines; k++) cart.add(prices[k], qtys[k], TaxEngine.IVA_BP, 0);
+        return cart.neto() + cart.iva();
+    }
+}
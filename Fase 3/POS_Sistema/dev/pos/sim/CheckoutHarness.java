@@ -0,0 +1,228 @@
+package pos.sim;
+
+import pos.db.Database;
+import pos.db.DatabaseInit;
+import pos.model.Product;
+import pos.model.SaleItem;
+import pos.services.AuthService;
+import pos.services.CashService;
+import pos.services.InventoryMirror;
+import pos.services.SaleOutbox;
+import pos.services.SaleService;
+import pos.ui.dialogs.CheckoutDialog;
+import pos.ui.table.CartTableModel;
+import pos.util.ApiClient;
+import pos.util.ApiMetrics;
+import pos.util.Money;
+import pos.util.TicketPrinter;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Simulador de caja sin Swing: mide cuántas ventas por segundo sostiene un
+ * terminal contra StandInServer (no toca la API real).
+ *
+ * Uso:
+ *   java pos.sim.CheckoutHarness [cajeros] [ventas por cajero] [ítems por venta] [latencia ms] [productos]
+ *   (por defecto: 4 200 8 20 2000)
+ *
+ * Recorre el mismo camino que CajeroPanel, con los servicios reales:
+ *   login → abrir caja → sincronizar inventario (espejo local) →
+ *   por cada venta: escanear (InventoryMirror.findByCode) → carrito
+ *   (CartTableModel, el modelo de CajeroPanel) → total del cobro
+ *   (CheckoutDialog.taxFor) → cobro (SaleService.registrar: sesión de caja
+ *   + SaleOutbox) → ticket (TicketPrinter) → al final espera que el outbox
+ *   envíe todo.
+ *
+ * Build: mvn -B package -pl sim -am → java -jar sim/target/pos-sim.jar
+ *
+ * Cada cajero es un hilo virtual; todos comparten el proceso (como varias
+ * ventanas de un mismo terminal: misma caja, misma base SQLite temporal).
+ * Informa ventas/s y percentiles (p50 / p90 / p99 / máx) por etapa, y al
+ * final las métricas de la API por endpoint (ApiMetrics.report()).
+ */
+public class CheckoutHarness {
+
+    public static void main(String[] args) throws Exception {
+        int cashiers = arg(args, 0, 4);
+        int salesPerCashier = arg(args, 1, 200);
+        int itemsPerSale = arg(args, 2, 8);
+        int latencyMs = arg(args, 3, 20);
+        int products = arg(args, 4, 2000);
+
+        Path dir = Files.createTempDirectory("pos-harness");
+        System.setProperty("pos.db.url", "jdbc:sqlite:" + dir.resolve("harness.db"));
+
+        StandInServer server = new StandInServer(0);
+        server.seed(products);
+        server.setLatencyMs(latencyMs);
+        server.start();
+        ApiClient.BASE_URL = server.baseUrl();
+
+        System.out.printf("[CheckoutHarness] %d cajeros × %d ventas × %d ítems, latencia %d ms, %d productos%n",
+                cashiers, salesPerCashier, itemsPerSale, latencyMs, products);
+
+        try {
+            DatabaseInit.initialize();
+
+            // ---------- arranque (una vez) ----------
+            Stats setup = new Stats();
+            setup.time("login", () -> AuthService.loginAndGetToken("caja1", "caja1"));
+            int session = setup.time("abrir caja", () -> CashService.openCash(1, 0));
+            setup.time("inventario", InventoryMirror::sync);
+            SaleOutbox.start();
+            setup.print("Arranque");
+
+            List<String> codes = new ArrayList<>();
+            for (Product p : InventoryMirror.getAll()) codes.add(p.getCode());
+
+            // ---------- ventas ----------
+            Stats stats = new Stats();
+            long t0 = System.nanoTime();
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> all = new ArrayList<>();
+                for (int c = 0; c < cashiers; c++) {
+                    int id = c + 1;
+                    all.add(pool.submit(() -> {
+                        cashier(id, codes, salesPerCashier, itemsPerSale, stats);
+                        return null;
+                    }));
+                }
+                for (Future<?> f : all) f.get();
+            }
+            long sold = System.nanoTime() - t0;
+
+            // ---------- envío a la API ----------
+            long d0 = System.nanoTime();
+            int total = cashiers * salesPerCashier;
+            while ((server.getSalesCount() < total || SaleOutbox.pending() > 0) && SaleOutbox.failed() == 0
+                    && System.nanoTime() - d0 < 120_000_000_000L) {
+                Thread.sleep(20);
+            }
+            long drained = System.nanoTime() - t0;
+
+            stats.print("Por venta");
+            System.out.printf("%n  %d ventas en %.2f s → %.1f ventas/s en caja (%.1f por cajero)%n",
+                    total, sold / 1e9, total / (sold / 1e9), total / (sold / 1e9) / cashiers);
+            System.out.printf("  API: %d/%d recibidas, todo enviado a los %.2f s → %.1f ventas/s extremo a extremo%n",
+                    server.getSalesCount(), total, drained / 1e9, server.getSalesCount() / (drained / 1e9));
+            System.out.printf("  Outbox: %d pendientes, %d fallidas · %d peticiones HTTP%n",
+                    SaleOutbox.pending(), SaleOutbox.failed(), server.getRequests());
+            System.out.println();
+            System.out.print(ApiMetrics.report());
+
+            CashService.closeCash(session);
+
+        } finally {
+            Database.shutdown();
+            server.stop();
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+        System.exit(0);   // hilos de fondo (outbox, OkHttp)
+    }
+
+    // Un cajero: N ventas seguidas, cada una con sus etapas medidas.
+    // Mismos pasos que CajeroPanel: agregarPorCodigo → actualizarTotal →
+    // abrirModalCobro (CheckoutDialog) → cobrarVenta, sin la parte Swing
+    private static void cashier(int id, List<String> codes, int sales, int items, Stats stats) throws Exception {
+        SplittableRandom rnd = new SplittableRandom(id);
+        TicketPrinter printer = new TicketPrinter();
+        CartTableModel cart = new CartTableModel();
+        cart.addTableModelListener(e -> {});   // como si estuviera en un JTable
+
+        for (int s = 0; s < sales; s++) {
+            long start = System.nanoTime();
+            int ticketNo = id * 100_000 + s;
+
+            for (int i = 0; i < items; i++) {
+                // Escaneo: código → producto del espejo local
+                String code = codes.get(rnd.nextInt(codes.size()));
+                Product p = stats.time("escaneo", () -> InventoryMirror.findByCode(code));
+                if (p == null) throw new IllegalStateException("Código no encontrado: " + code);
+
+                // Carrito: suma cantidad si ya estaba + etiqueta del total
+                stats.time("carrito", () -> {
+                    if (!cart.addOrInc(p, 1)) throw new IllegalStateException("Stock insuficiente: " + code);
+                    return Money.format(cart.total());
+                });
+            }
+
+            // Total del cobro: el panel pasa el total con IVA incluido y tasa 0
+            long total = stats.time("total", () -> {
+                long subtotal = cart.total();
+                return subtotal + CheckoutDialog.taxFor(subtotal, BigDecimal.ZERO);
+            });
+
+            // Cobro: sesión de caja + venta guardada en el outbox (en disco)
+            List<SaleItem> lines = cart.saleItems();
+            stats.time("cobro", () -> SaleService.registrar(lines, rnd.nextBoolean() ? "Efectivo" : "Tarjeta"));
+
+            stats.time("ticket", () -> printer.generarTicket(lines, (int) total, "Caja " + id, ticketNo));
+            cart.clear();
+
+            stats.record("venta completa", System.nanoTime() - start);
+        }
+    }
+
+    private static int arg(String[] args, int i, int def) {
+        return args.length > i ? Integer.parseInt(args[i]) : def;
+    }
+
+    // ============================================================
+    // MEDICIÓN
+    // ============================================================
+    interface Step<T> { T run() throws Exception; }
+
+    /** Duraciones por etapa (ns), en orden de aparición. */
+    static final class Stats {
+        private final Map<String, long[]> samples = new LinkedHashMap<>();
+        private final Map<String, Integer> sizes = new LinkedHashMap<>();
+
+        <T> T time(String stage, Step<T> step) throws Exception {
+            long t = System.nanoTime();
+            T r = step.run();
+            record(stage, System.nanoTime() - t);
+            return r;
+        }
+
+        synchronized void record(String stage, long nanos) {
+            long[] a = samples.computeIfAbsent(stage, k -> new long[1024]);
+            int n = sizes.getOrDefault(stage, 0);
+            if (n == a.length) samples.put(stage, a = Arrays.copyOf(a, n * 2));
+            a[n] = nanos;
+            sizes.put(stage, n + 1);
+        }
+
+        synchronized void print(String title) {
+            System.out.printf("%n  %-16s %8s %10s %10s %10s %10s%n", title, "n", "p50 ms", "p90 ms", "p99 ms", "máx ms");
+            for (Map.Entry<String, long[]> e : samples.entrySet()) {
+                int n = sizes.get(e.getKey());
+                long[] a = Arrays.copyOf(e.getValue(), n);
+                Arrays.sort(a);
+                System.out.printf("  %-16s %8d %10.3f %10.3f %10.3f %10.3f%n", e.getKey(), n,
+                        pct(a, 50), pct(a, 90), pct(a, 99), a[n - 1] / 1e6);
+            }
+        }
+
+        // Percentil por rango más cercano, en ms
+        private static double pct(long[] sorted, int p) {
+            int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, i)] / 1e6;
+        }
+    }
+}
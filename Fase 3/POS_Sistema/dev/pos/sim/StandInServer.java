@@ -0,0 +1,414 @@
+package pos.sim;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de prueba que imita los endpoints /v1 de la API real.
+ * Solo para desarrollo / pruebas locales (no se distribuye con el POS).
+ *
+ * Uso:
+ *   java pos.sim.StandInServer [puerto] [productos]
+ *   java -Dpos.api.url=http://localhost:8099 pos.ui.MainFrame ...
+ *
+ * Inventario:
+ *   GET    /v1/inventory/products[?updated_since=...&code=...]
+ *   POST   /v1/inventory/products
+ *   PUT    /v1/inventory/products/{id}
+ *   DELETE /v1/inventory/products/{id}
+ *   POST   /v1/inventory/stock/add | /v1/inventory/stock/remove
+ *
+ * Ventas:
+ *   POST   /v1/sales   (respeta Idempotency-Key: un reenvío devuelve la misma venta)
+ *
+ * Caja:
+ *   GET    /v1/cash/active
+ *   POST   /v1/cash/open | /v1/cash/close
+ *
+ * Sesión y administración (respuestas fijas, para el arranque):
+ *   POST   /v1/auth/login      GET /v1/auth/whoami
+ *   GET    /v1/reports/dashboard
+ *   GET    /v1/admin/users
+ *
+ * setLatencyMs() agrega una demora a cada petición para simular la WAN.
+ *
+ * Los GET responden con ETag y contestan 304 a If-None-Match, como lo
+ * haría un servidor con caché HTTP.
+ *
+ * updated_at usa ancho fijo (microsegundos) para que se pueda comparar como
+ * texto, igual que lo hace InventoryService al calcular la marca de agua.
+ */
+public class StandInServer {
+
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+
+    private final HttpServer http;
+
+    // id → producto (los borrados quedan como "lápida" con deleted=true)
+    private final Map<Integer, JSONObject> products = new TreeMap<>();
+    private int nextId = 1;
+    private LocalDateTime lastTs = LocalDateTime.MIN;
+
+    // Ventas recibidas: Idempotency-Key → venta registrada
+    private final Map<String, JSONObject> sales = new HashMap<>();
+    private int nextSaleId = 1;
+    private volatile boolean salesDown = false;
+
+    // Sesión de caja abierta (0 = ninguna)
+    private int cashSession = 0;
+    private int nextSession = 1;
+    private final AtomicLong cashActiveHits = new AtomicLong();
+
+    // Demora artificial por petición (ms)
+    private volatile int latencyMs = 0;
+
+    // Estadísticas para comparar descargas completas vs delta
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    public StandInServer(int port) throws IOException {
+        http = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        http.setExecutor(Executors.newCachedThreadPool());   // peticiones en paralelo
+        http.createContext("/v1/inventory", delayed(this::inventory));
+        http.createContext("/v1/sales", delayed(this::sales));
+        http.createContext("/v1/cash", delayed(this::cash));
+        http.createContext("/v1/auth", delayed(this::auth));
+        http.createContext("/v1/reports/dashboard", delayed(this::dashboard));
+        http.createContext("/v1/admin/users", delayed(this::users));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8099;
+        int seed = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        StandInServer s = new StandInServer(port);
+        s.seed(seed);
+        s.start();
+        System.out.println("[StandInServer] http://localhost:" + port + " con " + seed + " productos");
+    }
+
+    public void start() { http.start(); }
+
+    public void stop() { http.stop(0); }
+
+    public int port() { return http.getAddress().getPort(); }
+
+    public String baseUrl() { return "http://localhost:" + port(); }
+
+    public long getRequests() { return requests.get(); }
+
+    public long getBytesSent() { return bytesSent.get(); }
+
+    public long getNotModified() { return notModified.get(); }
+
+    /** Ventas distintas registradas (los reenvíos con la misma clave no cuentan). */
+    public synchronized int getSalesCount() { return sales.size(); }
+
+    /** Cuántas veces se consultó GET /v1/cash/active. */
+    public long getCashActiveHits() { return cashActiveHits.get(); }
+
+    /** Demora que se agrega a cada petición (simula la latencia de la WAN). */
+    public void setLatencyMs(int ms) { latencyMs = ms; }
+
+    /** Simula una caída de /v1/sales (responde 503). */
+    public void setSalesDown(boolean down) { salesDown = down; }
+
+    /** Crea n productos de ejemplo (códigos 780000000001...). */
+    public synchronized void seed(int n) {
+        for (int i = 0; i < n; i++) {
+            JSONObject o = new JSONObject();
+            o.put("code", String.format("78%010d", nextId));
+            o.put("name", "Producto " + nextId);
+            o.put("description", "CAT-" + (nextId % 12));
+            o.put("sale_price", 500 + (nextId * 37) % 9500);
+            o.put("stock", 20 + nextId % 80);
+            o.put("is_active", true);
+            o.put("expiry_date", JSONObject.NULL);
+            create(o);
+        }
+    }
+
+    /** Modifica el precio de un producto (simula un cambio hecho desde otra caja). */
+    public synchronized void touch(int id, int newPrice) {
+        JSONObject o = products.get(id);
+        if (o == null) return;
+        o.put("sale_price", newPrice);
+        o.put("updated_at", nextTs());
+    }
+
+    // ============================================================
+    // /v1/inventory
+    // ============================================================
+    private void inventory(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String method = ex.getRequestMethod();
+
+        synchronized (this) {
+            try {
+                if (path.equals("/v1/inventory/products") && method.equals("GET")) {
+                    Map<String, String> q = query(ex);
+                    String since = q.get("updated_since");
+                    String code = q.get("code");
+
+                    JSONArray arr = new JSONArray();
+                    for (JSONObject o : products.values()) {
+                        boolean deleted = o.optBoolean("deleted", false);
+                        if (code != null && !code.equals(o.getString("code"))) continue;
+                        if (since == null && deleted) continue;                         // completo: sin lápidas
+                        if (since != null && o.getString("updated_at").compareTo(since) < 0) continue;
+                        arr.put(o);
+                    }
+                    send(ex, 200, arr.toString());
+
+                } else if (path.equals("/v1/inventory/products") && method.equals("POST")) {
+                    send(ex, 201, create(body(ex)).toString());
+
+                } else if (path.startsWith("/v1/inventory/products/")) {
+                    int id = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+                    JSONObject o = products.get(id);
+                    if (o == null || o.optBoolean("deleted", false)) { send(ex, 404, "{}"); return; }
+
+                    if (method.equals("PUT")) {
+                        JSONObject b = body(ex);
+                        for (String k : b.keySet()) o.put(k, b.get(k));
+                        o.put("updated_at", nextTs());
+                        send(ex, 200, o.toString());
+                    } else if (method.equals("DELETE")) {
+                        o.put("deleted", true);
+                        o.put("updated_at", nextTs());
+                        send(ex, 204, "");
+                    } else {
+                        send(ex, 405, "{}");
+                    }
+
+                } else if (path.startsWith("/v1/inventory/stock/") && method.equals("POST")) {
+                    JSONObject b = body(ex);
+                    JSONObject o = products.get(b.getInt("product_id"));
+                    if (o == null) { send(ex, 404, "{}"); return; }
+
+                    int qty = b.getInt("qty") * (path.endsWith("/remove") ? -1 : 1);
+                    o.put("stock", Math.max(0, o.getInt("stock") + qty));
+                    o.put("updated_at", nextTs());
+                    send(ex, 200, o.toString());
+
+                } else {
+                    send(ex, 404, "{}");
+                }
+            } catch (Exception e) {
+                send(ex, 400, new JSONObject().put("detail", String.valueOf(e.getMessage())).toString());
+            }
+        }
+    }
+
+    // ============================================================
+    // /v1/sales
+    // ============================================================
+    private void sales(HttpExchange ex) throws IOException {
+        if (!ex.getRequestMethod().equals("POST")) { send(ex, 405, "{}"); return; }
+        if (salesDown) { send(ex, 503, "{\"detail\":\"service unavailable\"}"); return; }
+
+        synchronized (this) {
+            try {
+                JSONObject b = body(ex);
+                if (!b.has("session_id") || b.optJSONArray("items") == null) {
+                    send(ex, 422, "{\"detail\":\"session_id e items son obligatorios\"}");
+                    return;
+                }
+
+                String key = ex.getRequestHeaders().getFirst("Idempotency-Key");
+                JSONObject prev = key == null ? null : sales.get(key);
+                if (prev != null) { send(ex, 200, prev.toString()); return; }   // reenvío
+
+                b.put("id", nextSaleId++);
+                sales.put(key == null ? "sin-clave-" + b.getInt("id") : key, b);
+                send(ex, 201, b.toString());
+
+            } catch (Exception e) {
+                send(ex, 400, new JSONObject().put("detail", String.valueOf(e.getMessage())).toString());
+            }
+        }
+    }
+
+    // ============================================================
+    // /v1/cash
+    // ============================================================
+    private void cash(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String method = ex.getRequestMethod();
+
+        synchronized (this) {
+            if (path.equals("/v1/cash/active") && method.equals("GET")) {
+                cashActiveHits.incrementAndGet();
+                if (cashSession == 0) send(ex, 404, "{\"detail\":\"no active session\"}");
+                else send(ex, 200, new JSONObject().put("id", cashSession).toString());
+
+            } else if (path.equals("/v1/cash/open") && method.equals("POST")) {
+                body(ex);
+                if (cashSession != 0) { send(ex, 409, "{\"detail\":\"session already open\"}"); return; }
+                cashSession = nextSession++;
+                send(ex, 201, new JSONObject().put("id", cashSession).toString());
+
+            } else if (path.equals("/v1/cash/close") && method.equals("POST")) {
+                JSONObject b = body(ex);
+                if (cashSession == 0 || b.optInt("session_id") != cashSession) {
+                    send(ex, 404, "{\"detail\":\"session not found\"}");
+                    return;
+                }
+                cashSession = 0;
+                send(ex, 200, "{}");
+
+            } else {
+                send(ex, 404, "{}");
+            }
+        }
+    }
+
+    // ============================================================
+    // /v1/auth, /v1/reports/dashboard, /v1/admin/users
+    // ============================================================
+    private void auth(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+
+        if (path.equals("/v1/auth/login") && ex.getRequestMethod().equals("POST")) {
+            JSONObject b = body(ex);
+            send(ex, 200, new JSONObject()
+                    .put("access_token", "dev-" + b.optString("username", "admin"))
+                    .put("token_type", "bearer").toString());
+
+        } else if (path.equals("/v1/auth/whoami")) {
+            send(ex, 200, new JSONObject()
+                    .put("id", 1).put("username", "admin").put("role", "admin").put("store_id", 1)
+                    .toString());
+
+        } else {
+            send(ex, 404, "{}");
+        }
+    }
+
+    private void dashboard(HttpExchange ex) throws IOException {
+        JSONArray low = new JSONArray();
+        synchronized (this) {
+            for (JSONObject o : products.values()) {
+                if (!o.optBoolean("deleted", false) && o.getInt("stock") <= 3) {
+                    low.put(new JSONObject().put("id", o.getInt("id")).put("code", o.getString("code"))
+                            .put("name", o.getString("name")).put("stock", o.getInt("stock")));
+                }
+            }
+        }
+        JSONObject kpis = new JSONObject()
+                .put("sales_today", 0).put("sales_7d", 0).put("sales_30d", 0)
+                .put("products_in_inventory", products.size());
+
+        send(ex, 200, new JSONObject()
+                .put("kpis", kpis)
+                .put("low_stock", low)
+                .put("expiring_soon", new JSONArray())
+                .put("recent_sales", new JSONArray())
+                .toString());
+    }
+
+    private void users(HttpExchange ex) throws IOException {
+        JSONArray items = new JSONArray()
+                .put(new JSONObject().put("id", 1).put("username", "admin").put("full_name", "Administrador")
+                        .put("role", "admin").put("is_active", true))
+                .put(new JSONObject().put("id", 2).put("username", "caja1").put("full_name", "Caja 1")
+                        .put("role", "cashier").put("is_active", true));
+        send(ex, 200, new JSONObject().put("items", items).toString());
+    }
+
+    // Envuelve un handler con la demora configurada (fuera de cualquier lock)
+    private HttpHandler delayed(HttpHandler h) {
+        return ex -> {
+            int ms = latencyMs;
+            if (ms > 0) {
+                try {
+                    Thread.sleep(ms);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            h.handle(ex);
+        };
+    }
+
+    private JSONObject create(JSONObject o) {
+        int id = nextId++;
+        o.put("id", id);
+        o.put("updated_at", nextTs());
+        products.put(id, o);
+        return o;
+    }
+
+    // Marca de tiempo estrictamente creciente (dos cambios nunca comparten updated_at)
+    private String nextTs() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!now.isAfter(lastTs)) now = lastTs.plusNanos(1000);
+        lastTs = now;
+        return TS.format(now);
+    }
+
+    // ============================================================
+    // HTTP helpers
+    // ============================================================
+    protected void send(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+
+        // GET con ETag: si el cliente ya tiene esta versión → 304 sin cuerpo
+        if (status == 200 && ex.getRequestMethod().equals("GET")) {
+            String etag = "\"" + Integer.toHexString(body.hashCode()) + "-" + bytes.length + "\"";
+            ex.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+                ex.sendResponseHeaders(304, -1);
+                ex.close();
+                requests.incrementAndGet();
+                notModified.incrementAndGet();
+                return;
+            }
+        }
+
+        ex.sendResponseHeaders(status, status == 204 ? -1 : bytes.length);
+        if (status != 204) {
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(bytes);
+            }
+        }
+        ex.close();
+        requests.incrementAndGet();
+        bytesSent.addAndGet(bytes.length);
+    }
+
+    protected JSONObject body(HttpExchange ex) throws IOException {
+        String raw = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        return raw.isBlank() ? new JSONObject() : new JSONObject(raw);
+    }
+
+    protected Map<String, String> query(HttpExchange ex) {
+        Map<String, String> map = new HashMap<>();
+        String q = ex.getRequestURI().getRawQuery();
+        if (q == null) return map;
+        for (String kv : q.split("&")) {
+            int i = kv.indexOf('=');
+            if (i <= 0) continue;
+            map.put(kv.substring(0, i), URLDecoder.decode(kv.substring(i + 1), StandardCharsets.UTF_8));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,196 @@
+package pos.dao;
+
+import pos.db.Database;
+import pos.db.WriteQueue;
+import pos.model.Product;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistencia del espejo local del catálogo (tablas catalog + sync_state).
+ * La lógica de sincronización con la API está en InventoryMirror.
+ */
+public final class CatalogDao {
+
+    private static final String SYNC_NAME = "catalog";
+
+    /** Estado de la última sincronización. */
+    public static final class SyncState {
+        private final String watermark;   // último updated_at recibido (null = nunca)
+        private final String fullAt;      // fecha/hora de la última sincronización completa
+
+        SyncState(String watermark, String fullAt) {
+            this.watermark = watermark;
+            this.fullAt = fullAt;
+        }
+
+        public String getWatermark() { return watermark; }
+        public String getFullAt() { return fullAt; }
+    }
+
+    /** Todos los productos del espejo, ordenados por nombre. */
+    public static List<Product> loadAll() {
+        List<Product> list = new ArrayList<>();
+        String sql = """
+            SELECT id, code, name, category, price, stock, active, expiry, barcodes
+              FROM catalog
+             ORDER BY name COLLATE NOCASE
+        """;
+
+        try (Connection cn = Database.read();
+             Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+
+            while (rs.next()) {
+                String exp = rs.getString("expiry");
+                Product p = new Product(
+                        rs.getInt("id"),
+                        rs.getString("code"),
+                        rs.getString("name"),
+                        rs.getString("category"),
+                        rs.getInt("price"),
+                        rs.getInt("stock"),
+                        exp == null ? null : LocalDate.parse(exp)
+                );
+                p.setActive(rs.getInt("active") == 1);
+                String alt = rs.getString("barcodes");
+                if (alt != null && !alt.isEmpty()) p.setBarcodes(List.of(alt.split(",")));
+                list.add(p);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[CatalogDao.loadAll] " + e.getMessage());
+        }
+        return list;
+    }
+
+    /** Estado de sincronización (watermark vacío si nunca se sincronizó). */
+    public static SyncState state() {
+        String sql = "SELECT watermark, full_at FROM sync_state WHERE name = ?";
+
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+
+            ps.setString(1, SYNC_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return new SyncState(rs.getString("watermark"), rs.getString("full_at"));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[CatalogDao.state] " + e.getMessage());
+        }
+        return new SyncState(null, null);
+    }
+
+    /**
+     * Aplica un lote de cambios en una sola transacción:
+     * upserts + eliminados + nueva marca de agua.
+     *
+     * @param full si es true, el lote es el catálogo completo y reemplaza al espejo
+     */
+    public static void apply(Collection<Product> upserts, Collection<Integer> deletedIds,
+                             String watermark, boolean full) throws SQLException {
+
+        WriteQueue.execute(cn -> {
+
+            if (full) {
+                try (Statement st = cn.createStatement()) {
+                    st.execute("DELETE FROM catalog");
+                }
+            }
+
+            upsertRows(cn, upserts);
+
+            if (!deletedIds.isEmpty()) {
+                try (PreparedStatement ps = cn.prepareStatement("DELETE FROM catalog WHERE id = ?")) {
+                    for (int id : deletedIds) {
+                        ps.setInt(1, id);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+
+            String now = LocalDateTime.now().toString();
+            try (PreparedStatement ps = cn.prepareStatement("""
+                INSERT INTO sync_state (name, watermark, full_at, synced_at) VALUES (?, ?, ?, ?)
+                ON CONFLICT(name) DO UPDATE SET
+                    watermark = excluded.watermark,
+                    full_at   = COALESCE(excluded.full_at, full_at),
+                    synced_at = excluded.synced_at
+            """)) {
+                ps.setString(1, SYNC_NAME);
+                ps.setString(2, watermark);
+                ps.setString(3, full ? now : null);
+                ps.setString(4, now);
+                ps.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Upsert de un solo producto (cambio hecho desde este POS).
+     * No toca la marca de agua: la próxima sincronización traerá la versión del servidor.
+     */
+    public static void upsert(Product p) {
+        try {
+            WriteQueue.execute(cn -> {
+                upsertRows(cn, List.of(p));
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("[CatalogDao.upsert] " + e.getMessage());
+        }
+    }
+
+    /** Elimina un producto del espejo (borrado hecho desde este POS). */
+    public static void delete(int id) {
+        try {
+            WriteQueue.execute(cn -> {
+                try (PreparedStatement ps = cn.prepareStatement("DELETE FROM catalog WHERE id = ?")) {
+                    ps.setInt(1, id);
+                    return ps.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("[CatalogDao.delete] " + e.getMessage());
+        }
+    }
+
+    private static void upsertRows(Connection cn, Collection<Product> rows) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement("""
+            INSERT INTO catalog (id, code, name, category, price, stock, active, expiry, barcodes)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT(id) DO UPDATE SET
+                code = excluded.code, name = excluded.name, category = excluded.category,
+                price = excluded.price, stock = excluded.stock, active = excluded.active,
+                expiry = excluded.expiry, barcodes = excluded.barcodes
+        """)) {
+            for (Product p : rows) {
+                bind(ps, p);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Product p) throws SQLException {
+        ps.setInt(1, p.getId());
+        ps.setString(2, p.getCode());
+        ps.setString(3, p.getName());
+        ps.setString(4, p.getCategory());
+        ps.setInt(5, p.getPrice());
+        ps.setInt(6, p.getStock());
+        ps.setInt(7, p.isActive() ? 1 : 0);
+        ps.setString(8, p.getExpiry() == null ? null : p.getExpiry().toString());
+        ps.setString(9, p.getBarcodes().isEmpty() ? null : String.join(",", p.getBarcodes()));
+    }
+
+    private CatalogDao() {}
+}
@@ -1,8 +1,5 @@
 package pos.dao;
 
-import pos.db.Database;                 // Acceso a la BD SQLite
-
-import java.sql.*;                      // JDBC para consultas SQL
 import java.time.LocalDate;             // Fechas sin hora
 
 /**
@@ -13,7 +10,7 @@ import java.time.LocalDate;             // Fechas sin hora
  *   - Semana actual
  *   - Mes actual
  *
- * Todos los cálculos se realizan consultando la tabla 'sales'.
+ * Todos los cálculos se realizan consultando el resumen diario 'sales_daily'.
  */
 public class DashboardDao {
 
@@ -65,36 +62,11 @@ public class DashboardDao {
      *   - desde: fecha inicial
      *   - hasta: fecha final
      *
-     * SQL:
-     *   SUM(total) → suma el campo 'total' de cada venta
-     *   date(ts)   → extrae solo la fecha del timestamp 'ts'
-     *   BETWEEN    → filtra ventas entre las dos fechas
+     * Lee el resumen diario (sales_daily), que VentasDao.save mantiene al día
+     * en la misma transacción de cada venta: el mes completo son ~30 días ×
+     * métodos × usuarios filas, no todas las ventas del período.
      */
     private static int totalEntre(LocalDate desde, LocalDate hasta) {
-
-        final String sql = """
-            SELECT SUM(total) AS total
-            FROM sales
-            WHERE date(ts) BETWEEN ? AND ?
-        """; 
-        // Consulta SQL que suma las ventas dentro del rango
-
-        try (Connection cn = Database.get();               // obtiene conexión
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setString(1, desde.toString());             // fecha inicio (AAAA-MM-DD)
-            ps.setString(2, hasta.toString());             // fecha fin    (AAAA-MM-DD)
-
-            try (ResultSet rs = ps.executeQuery()) {
-
-                // Si hay resultado, devuelve el total; si no, devuelve 0
-                return rs.next() ? rs.getInt("total") : 0;
-            }
-
-        } catch (SQLException e) {
-            System.err.println("[DashboardDao] Error al calcular totales: " + e.getMessage());
-            return 0;                                       // valor por defecto
-        }
+        return SalesRollupDao.total(desde, hasta);
     }
 }
-
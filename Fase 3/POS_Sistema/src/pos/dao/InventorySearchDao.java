@@ -0,0 +1,104 @@
+package pos.dao;
+
+import pos.db.Database;
+import pos.model.Product;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Búsqueda de texto sobre la tabla local inventory (índice FTS5 inventory_fts,
+ * migración V9). Reemplaza los LIKE '%...%' que recorrían la tabla completa.
+ *
+ * - Cada palabra escrita se busca como prefijo: "cafe nes" → café Nestlé
+ * - No distingue mayúsculas ni tildes
+ * - Orden por relevancia (bm25): pesa más calzar en el código que en el
+ *   nombre, y en el nombre más que en la categoría
+ */
+public final class InventorySearchDao {
+
+    /**
+     * Productos que calzan con el texto, los más relevantes primero.
+     * @return lista vacía si el texto no tiene letras ni números
+     */
+    public static List<Product> search(String text, int limit) {
+        List<Product> list = new ArrayList<>();
+        String match = toMatch(text);
+        if (match.isEmpty()) return list;
+
+        // El código exacto (índice ux_inventory_code) va siempre primero.
+        // Del índice de texto se eligen las N mejores (rank = bm25 con los
+        // pesos de la migración V9) y recién ahí se leen sus filas de inventory.
+        String sql = """
+            SELECT id, code, name, category, price, stock, expiry, 0 AS k, 0.0 AS r
+              FROM inventory
+             WHERE code = ?
+            UNION ALL
+            SELECT i.id, i.code, i.name, i.category, i.price, i.stock, i.expiry, 1, f.rank
+              FROM (SELECT rowid, rank
+                      FROM inventory_fts
+                     WHERE inventory_fts MATCH ?
+                     ORDER BY rank
+                     LIMIT ?) f
+              JOIN inventory i ON i.id = f.rowid
+             WHERE i.code IS NOT ?
+             ORDER BY k, r
+             LIMIT ?
+        """;
+
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+
+            String code = text.trim();
+            ps.setString(1, code);
+            ps.setString(2, match);
+            ps.setInt(3, limit);
+            ps.setString(4, code);
+            ps.setInt(5, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(map(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[InventorySearchDao.search] " + e.getMessage());
+        }
+        return list;
+    }
+
+    // Texto libre → expresión MATCH: cada palabra entre comillas y como prefijo.
+    // Se descarta todo lo que no sea letra o número, así la entrada del usuario
+    // nunca se interpreta como sintaxis FTS5 (AND, OR, NEAR, comillas, "-").
+    static String toMatch(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder();
+        for (String w : text.split("[^\\p{L}\\p{N}]+")) {
+            if (w.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('"').append(w).append("\"*");
+        }
+        return sb.toString();
+    }
+
+    private static Product map(ResultSet rs) throws SQLException {
+        String exp = rs.getString("expiry");
+        LocalDate expiry = null;
+        if (exp != null && !exp.isBlank()) {
+            try {
+                expiry = LocalDate.parse(exp);
+            } catch (Exception ignored) {}
+        }
+        return new Product(
+                rs.getInt("id"),
+                rs.getString("code"),
+                rs.getString("name"),
+                rs.getString("category"),
+                rs.getInt("price"),
+                rs.getInt("stock"),
+                expiry
+        );
+    }
+
+    private InventorySearchDao() {}
+}
@@ -26,7 +26,7 @@ public class InventoryStatsDao {
 
 		String sql = "SELECT * FROM inventory WHERE stock <= ? ORDER BY stock ASC"; // ordenado por menor stock
 
-		try (Connection c = Database.get(); // abre conexión
+		try (Connection c = Database.read(); // conexión de solo lectura del pool
 				PreparedStatement ps = c.prepareStatement(sql)) { // prepara SQL
 
 			ps.setInt(1, threshold); // establece límite (ej: 5)
@@ -53,7 +53,7 @@ public class InventoryStatsDao {
 		// expiry <= fecha actual + días
 		String sql = "SELECT * FROM inventory WHERE expiry IS NOT NULL AND expiry <= date('now', ? || ' days')";
 
-		try (Connection c = Database.get(); PreparedStatement ps = c.prepareStatement(sql)) {
+		try (Connection c = Database.read(); PreparedStatement ps = c.prepareStatement(sql)) {
 
 			ps.setInt(1, days); // cuántos días hacia adelante
 
@@ -1,16 +1,22 @@
 package pos.dao;
 
 import pos.db.Database;
+import pos.db.WriteQueue;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MovementDao {
 
-    /** Inserta un movimiento en el historial de inventario. */
-    public void insert(String code, String type, int qty, int prev, int now,
-                       String reason, String user, LocalDateTime ts) {
+    /**
+     * Inserta un movimiento en el historial de inventario.
+     * Va por la cola de escritura (no bloquea al llamador): en ráfagas de
+     * movimientos, varios se confirman en un mismo commit.
+     */
+    public CompletableFuture<Void> insert(String code, String type, int qty, int prev, int now,
+                                          String reason, String user, LocalDateTime ts) {
 
         final String sql = """
             INSERT INTO inventory_movements
@@ -18,69 +24,72 @@ public class MovementDao {
             VALUES (?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
+        return WriteQueue.<Void>submit(cn -> {
+            try (PreparedStatement ps = cn.prepareStatement(sql)) {
 
-            ps.setString(1, code);
-            ps.setString(2, type);
-            ps.setInt(3, qty);
-            ps.setString(4, reason == null ? "" : reason);
-            ps.setInt(5, prev);
-            ps.setInt(6, now);
-            ps.setString(7, user);
+                ps.setString(1, code);
+                ps.setString(2, type);
+                ps.setInt(3, qty);
+                ps.setString(4, reason == null ? "" : reason);
+                ps.setInt(5, prev);
+                ps.setInt(6, now);
+                ps.setString(7, user);
 
-            // Guardamos fecha en formato ISO → orden perfecto
-            ps.setString(8, ts.toString());
+                // Guardamos fecha en formato ISO → orden perfecto
+                ps.setString(8, ts.toString());
 
-            ps.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("[MovementDao] Error al insertar movimiento: " + e.getMessage());
-        }
+                ps.executeUpdate();
+            }
+            return null;
+        }).whenComplete((v, e) -> {
+            if (e != null) {
+                System.err.println("[MovementDao] Error al insertar movimiento: " + e.getMessage());
+            }
+        });
     }
 
-    /** Lista los últimos movimientos globales. */
-    public List<String[]> listRecent(int limit) {
-
-        final String sql = """
-            SELECT m.code,
-                   COALESCE(i.name, '') AS product_name,
-                   m.type,
-                   m.qty,
-                   m.reason,
-                   m.prev_stock,
-                   m.new_stock,
-                   m.user,
-                   m.created_at
-              FROM inventory_movements m
-              LEFT JOIN inventory i ON i.code = m.code
-             ORDER BY datetime(m.created_at) DESC
-             LIMIT ?
-        """;
-
-        List<String[]> out = new ArrayList<>();
-
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
+    // ==================================================================
+    // PAGINACIÓN POR CURSOR (keyset)
+    // En vez de OFFSET (que relee todo lo anterior) cada página sigue
+    // desde la última fila vista: (created_at, id) < (cursor).
+    // El orden es exactamente el de los índices, así SQLite no ordena nada:
+    //   - sin filtros      → ix_mov_created
+    //   - por código       → ix_mov_code_date
+    //   - por tipo         → ix_mov_type_created
+    // ==================================================================
+
+    /** Posición de la última fila leída (created_at + id como desempate). */
+    public static final class Cursor {
+        private final String createdAt;
+        private final long id;
+
+        public Cursor(String createdAt, long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
 
-            ps.setInt(1, limit);
+        public String getCreatedAt() { return createdAt; }
+        public long getId() { return id; }
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    out.add(rowToArray(rs));
-                }
-            }
+    /** Una página de movimientos + cursor para pedir la siguiente (null si no hay más). */
+    public static final class Page {
+        private final List<String[]> rows;
+        private final Cursor next;
 
-        } catch (SQLException e) {
-            System.err.println("[MovementDao] Error al listar movimientos: " + e.getMessage());
+        Page(List<String[]> rows, Cursor next) {
+            this.rows = rows;
+            this.next = next;
         }
 
-        return out;
+        public List<String[]> getRows() { return rows; }
+        public Cursor getNext() { return next; }
+        public boolean hasMore() { return next != null; }
     }
 
-    /** Lista los movimientos de un producto específico. */
-    public List<String[]> listByCode(String code, int limit) {
-
-        final String sql = """
-            SELECT m.code,
+    private static final String SELECT_COLUMNS = """
+            SELECT m.id,
+                   m.code,
                    COALESCE(i.name, '') AS product_name,
                    m.type,
                    m.qty,
@@ -91,67 +100,90 @@ public class MovementDao {
                    m.created_at
               FROM inventory_movements m
               LEFT JOIN inventory i ON i.code = m.code
-             WHERE m.code = ?
-             ORDER BY datetime(m.created_at) DESC
-             LIMIT ?
         """;
 
+    /**
+     * Página de movimientos, más recientes primero.
+     *
+     * @param code   filtra por código de producto (null/vacío = todos)
+     * @param type   filtra por tipo (ENTRY, EXIT, ...) (null/vacío = todos)
+     * @param after  cursor de la página anterior (null = primera página)
+     * @param limit  filas por página
+     */
+    public Page page(String code, String type, Cursor after, int limit) {
+
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        List<Object> params = new ArrayList<>();
+        String glue = " WHERE ";
+
+        if (code != null && !code.isBlank()) {
+            sql.append(glue).append("m.code = ?");
+            params.add(code.trim());
+            glue = " AND ";
+        }
+        if (type != null && !type.isBlank()) {
+            sql.append(glue).append("m.type = ? COLLATE NOCASE");   // como antes: sin distinguir mayúsculas
+            params.add(type.trim());
+            glue = " AND ";
+        }
+        if (after != null) {
+            sql.append(glue).append("(m.created_at, m.id) < (?, ?)");
+            params.add(after.getCreatedAt());
+            params.add(after.getId());
+        }
+
+        // Se pide 1 fila extra solo para saber si hay otra página
+        sql.append(" ORDER BY m.created_at DESC, m.id DESC LIMIT ?");
+        params.add(limit + 1);
+
         List<String[]> out = new ArrayList<>();
+        Cursor next = null;
 
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
+        try (Connection cn = Database.read(); PreparedStatement ps = cn.prepareStatement(sql.toString())) {
 
-            ps.setString(1, code);
-            ps.setInt(2, limit);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
+                    if (out.size() == limit) {
+                        String[] last = out.get(out.size() - 1);
+                        next = new Cursor(last[8], Long.parseLong(last[9]));
+                        break;
+                    }
                     out.add(rowToArray(rs));
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("[MovementDao] Error al listar por código: " + e.getMessage());
+            System.err.println("[MovementDao] Error al paginar movimientos: " + e.getMessage());
         }
 
-        return out;
+        return new Page(out, next);
     }
 
-    /** Obtiene solo el movimiento más reciente de un producto. */
-    public String[] findLatestByCode(String code) {
-
-        final String sql = """
-            SELECT m.code,
-                   COALESCE(i.name, '') AS product_name,
-                   m.type,
-                   m.qty,
-                   m.reason,
-                   m.prev_stock,
-                   m.new_stock,
-                   m.user,
-                   m.created_at
-              FROM inventory_movements m
-              LEFT JOIN inventory i ON i.code = m.code
-             WHERE m.code = ?
-             ORDER BY datetime(m.created_at) DESC
-             LIMIT 1
-        """;
-
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setString(1, code);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return rowToArray(rs);
-            }
+    /** Lista los últimos movimientos globales. */
+    public List<String[]> listRecent(int limit) {
+        return page(null, null, null, limit).getRows();
+    }
 
-        } catch (SQLException e) {
-            System.err.println("[MovementDao] Error al obtener último movimiento: " + e.getMessage());
-        }
+    /** Lista los movimientos de un producto específico. */
+    public List<String[]> listByCode(String code, int limit) {
+        return page(code, null, null, limit).getRows();
+    }
 
-        return null;
+    /** Obtiene solo el movimiento más reciente de un producto. */
+    public String[] findLatestByCode(String code) {
+        List<String[]> rows = page(code, null, null, 1).getRows();
+        return rows.isEmpty() ? null : rows.get(0);
     }
 
-    /** Convierte una fila del ResultSet a arreglo de Strings. */
+    /**
+     * Convierte una fila del ResultSet a arreglo de Strings.
+     * Columnas: code, producto, tipo, qty, motivo, stock antes, stock después,
+     * usuario, fecha, id (el id va al final para no mover los índices existentes).
+     */
     private String[] rowToArray(ResultSet rs) throws SQLException {
 
         return new String[] {
@@ -163,10 +195,8 @@ public class MovementDao {
                 Integer.toString(rs.getInt("prev_stock")),
                 Integer.toString(rs.getInt("new_stock")),
                 rs.getString("user"),
-                rs.getString("created_at")
+                rs.getString("created_at"),
+                Long.toString(rs.getLong("id"))
         };
     }
 }
-
-
-
@@ -1,6 +1,7 @@
 package pos.dao;
 
 import pos.db.Database;
+import pos.db.WriteQueue;
 import pos.model.Provider;
 
 import java.sql.*;
@@ -15,7 +16,7 @@ public class ProviderDao {
         List<Provider> list = new ArrayList<>();
         String sql = "SELECT * FROM providers ORDER BY name"; // consulta ordenada por nombre
 
-        try (Connection conn = Database.get();               // abrir conexión
+        try (Connection conn = Database.read();               // abrir conexión
              Statement st = conn.createStatement();          // crear statement simple
              ResultSet rs = st.executeQuery(sql)) {          // ejecutar consulta
 
@@ -44,20 +45,23 @@ public class ProviderDao {
 
         String sql = "INSERT INTO providers (id, name, phone, email, address, created_at) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = Database.get();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, p.getId());                      // ID P000X
-            ps.setString(2, p.getName());                    // nombre
-            ps.setString(3, p.getPhone());                   // teléfono
-            ps.setString(4, p.getEmail());                   // email
-            ps.setString(5, p.getAddress());                 // dirección
-            ps.setString(6, p.getCreatedAt() != null
-                    ? p.getCreatedAt().toString()            // pasar LocalDate → String
-                    : null);
-
-            ps.executeUpdate();                              // ejecutar insert
-
+        try {
+            WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                    ps.setString(1, p.getId());                      // ID P000X
+                    ps.setString(2, p.getName());                    // nombre
+                    ps.setString(3, p.getPhone());                   // teléfono
+                    ps.setString(4, p.getEmail());                   // email
+                    ps.setString(5, p.getAddress());                 // dirección
+                    ps.setString(6, p.getCreatedAt() != null
+                            ? p.getCreatedAt().toString()            // pasar LocalDate → String
+                            : null);
+
+                    ps.executeUpdate();                              // ejecutar insert
+                }
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -68,20 +72,23 @@ public class ProviderDao {
 
         String sql = "UPDATE providers SET name=?, phone=?, email=?, address=?, created_at=? WHERE id=?";
 
-        try (Connection conn = Database.get();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, p.getName());                    // actualizar campos
-            ps.setString(2, p.getPhone());
-            ps.setString(3, p.getEmail());
-            ps.setString(4, p.getAddress());
-            ps.setString(5, p.getCreatedAt() != null
-                    ? p.getCreatedAt().toString()
-                    : null);
-            ps.setString(6, p.getId());                      // condición WHERE id = ?
-
-            ps.executeUpdate();                              // ejecutar update
-
+        try {
+            WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                    ps.setString(1, p.getName());                    // actualizar campos
+                    ps.setString(2, p.getPhone());
+                    ps.setString(3, p.getEmail());
+                    ps.setString(4, p.getAddress());
+                    ps.setString(5, p.getCreatedAt() != null
+                            ? p.getCreatedAt().toString()
+                            : null);
+                    ps.setString(6, p.getId());                      // condición WHERE id = ?
+
+                    ps.executeUpdate();                              // ejecutar update
+                }
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -92,12 +99,15 @@ public class ProviderDao {
 
         String sql = "DELETE FROM providers WHERE id=?";     // eliminar por ID
 
-        try (Connection conn = Database.get();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, id);                             // ID a eliminar
-            ps.executeUpdate();
+        try {
+            WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
 
+                    ps.setString(1, id);                             // ID a eliminar
+                    ps.executeUpdate();
+                }
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -111,7 +121,7 @@ public class ProviderDao {
 
         String sql = "SELECT id FROM providers ORDER BY id DESC LIMIT 1"; // obtener el último ID
 
-        try (Connection conn = Database.get();
+        try (Connection conn = Database.read();
              Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
 
@@ -0,0 +1,183 @@
+package pos.dao;
+
+import pos.db.Database;
+import pos.db.WriteQueue;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistencia de la bandeja de salida de ventas (tabla sale_outbox).
+ * La lógica de envío y reintentos está en SaleOutbox.
+ *
+ * Una venta queda en la tabla mientras no se confirme en la API:
+ *   PENDING → se reintenta cuando llega next_at
+ *   FAILED  → la API la rechazó (4xx); queda para revisión manual
+ * Al confirmarse se borra.
+ */
+public final class SaleOutboxDao {
+
+    public static final String PENDING = "PENDING";
+    public static final String FAILED = "FAILED";
+
+    /** Venta pendiente de envío. */
+    public static final class Entry {
+        private final long id;
+        private final String idemKey;
+        private final String body;
+        private final int attempts;
+
+        Entry(long id, String idemKey, String body, int attempts) {
+            this.id = id;
+            this.idemKey = idemKey;
+            this.body = body;
+            this.attempts = attempts;
+        }
+
+        public long getId() { return id; }
+        public String getIdemKey() { return idemKey; }
+        public String getBody() { return body; }
+        public int getAttempts() { return attempts; }
+    }
+
+    /**
+     * Guarda una venta y espera a que quede confirmada en disco.
+     * Al volver, la venta ya no se pierde aunque se corte la luz.
+     */
+    public static void insert(String idemKey, String body, long now) throws SQLException {
+        WriteQueue.execute(cn -> {
+            try (PreparedStatement ps = cn.prepareStatement("""
+                INSERT INTO sale_outbox (idem_key, body, status, attempts, next_at, created_at)
+                VALUES (?, ?, 'PENDING', 0, ?, ?)
+            """)) {
+                ps.setString(1, idemKey);
+                ps.setString(2, body);
+                ps.setLong(3, now);
+                ps.setLong(4, now);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    /** Ventas PENDING cuyo próximo intento ya llegó, en orden de llegada. */
+    public static List<Entry> due(long now, int limit) {
+        List<Entry> list = new ArrayList<>();
+        String sql = """
+            SELECT id, idem_key, body, attempts
+              FROM sale_outbox
+             WHERE status = 'PENDING' AND next_at <= ?
+             ORDER BY id
+             LIMIT ?
+        """;
+
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+
+            ps.setLong(1, now);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Entry(rs.getLong("id"), rs.getString("idem_key"),
+                            rs.getString("body"), rs.getInt("attempts")));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[SaleOutboxDao.due] " + e.getMessage());
+        }
+        return list;
+    }
+
+    /** Próximo next_at entre las PENDING (null si no hay ninguna). */
+    public static Long nextDueAt() {
+        try (Connection cn = Database.read();
+             Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT MIN(next_at) FROM sale_outbox WHERE status = 'PENDING'")) {
+
+            if (rs.next()) {
+                long v = rs.getLong(1);
+                return rs.wasNull() ? null : v;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[SaleOutboxDao.nextDueAt] " + e.getMessage());
+        }
+        return null;
+    }
+
+    /** Cantidad de ventas por estado. */
+    public static int count(String status) {
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement("SELECT COUNT(*) FROM sale_outbox WHERE status = ?")) {
+
+            ps.setString(1, status);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[SaleOutboxDao.count] " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Aplica el resultado de una pasada del envío en UNA escritura:
+     * confirmadas se borran, las demás se reprograman o quedan FAILED.
+     *
+     * @param sent      ids confirmados por la API
+     * @param retry     ids a reintentar (con su next_at y error)
+     * @param failed    ids rechazados por la API (con su error)
+     */
+    public static void settle(List<Long> sent, List<Retry> retry, List<Retry> failed) throws SQLException {
+        if (sent.isEmpty() && retry.isEmpty() && failed.isEmpty()) return;
+
+        WriteQueue.execute(cn -> {
+            if (!sent.isEmpty()) {
+                try (PreparedStatement ps = cn.prepareStatement("DELETE FROM sale_outbox WHERE id = ?")) {
+                    for (long id : sent) {
+                        ps.setLong(1, id);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+
+            try (PreparedStatement ps = cn.prepareStatement("""
+                UPDATE sale_outbox
+                   SET status = ?, attempts = attempts + 1, next_at = ?, last_error = ?
+                 WHERE id = ?
+            """)) {
+                for (Retry r : retry) bind(ps, PENDING, r);
+                for (Retry r : failed) bind(ps, FAILED, r);
+                ps.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    /** Intento fallido de una venta. */
+    public static final class Retry {
+        final long id;
+        final long nextAt;
+        final String error;
+
+        public Retry(long id, long nextAt, String error) {
+            this.id = id;
+            this.nextAt = nextAt;
+            this.error = error;
+        }
+    }
+
+    private static void bind(PreparedStatement ps, String status, Retry r) throws SQLException {
+        ps.setString(1, status);
+        ps.setLong(2, r.nextAt);
+        ps.setString(3, r.error);
+        ps.setLong(4, r.id);
+        ps.addBatch();
+    }
+
+    private SaleOutboxDao() {}
+}
@@ -0,0 +1,110 @@
+package pos.dao;
+
+import pos.db.Database;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Acceso al resumen diario de ventas (tabla sales_daily).
+ *
+ * - VentasDao.save() llama a add() dentro de su misma transacción
+ * - Los totales por período leen solo las filas del rango (clave primaria),
+ *   sin recorrer la tabla sales
+ */
+public final class SalesRollupDao {
+
+    /**
+     * Suma una venta al resumen del día (upsert).
+     * Debe llamarse con la conexión de la transacción de la venta:
+     * si la venta se revierte, el resumen también.
+     */
+    static void add(Connection cn, LocalDate day, String metodo, String user, int total) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement("""
+            INSERT INTO sales_daily (day, metodo, user, total, ventas)
+            VALUES (?, ?, ?, ?, 1)
+            ON CONFLICT(day, metodo, user) DO UPDATE SET
+                total  = total + excluded.total,
+                ventas = ventas + 1
+        """)) {
+            ps.setString(1, day.toString());   // AAAA-MM-DD
+            ps.setString(2, metodo);
+            ps.setString(3, user);
+            ps.setInt(4, total);
+            ps.executeUpdate();
+        }
+    }
+
+    /** Total vendido entre dos fechas (ambas inclusive). */
+    public static int total(LocalDate desde, LocalDate hasta) {
+        String sql = "SELECT COALESCE(SUM(total), 0) FROM sales_daily WHERE day BETWEEN ? AND ?";
+
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+
+            ps.setString(1, desde.toString());
+            ps.setString(2, hasta.toString());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[SalesRollupDao.total] " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /** Total vendido por un usuario entre dos fechas (ambas inclusive). */
+    public static int totalPorUsuario(String user, LocalDate desde, LocalDate hasta) {
+        String sql = """
+            SELECT COALESCE(SUM(total), 0) FROM sales_daily
+            WHERE day BETWEEN ? AND ? AND user = ?
+        """;
+
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+
+            ps.setString(1, desde.toString());
+            ps.setString(2, hasta.toString());
+            ps.setString(3, user);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[SalesRollupDao.totalPorUsuario] " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /** Total por método de pago entre dos fechas (para cuadrar caja / reportes). */
+    public static Map<String, Integer> totalPorMetodo(LocalDate desde, LocalDate hasta) {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        String sql = """
+            SELECT metodo, SUM(total) AS total FROM sales_daily
+            WHERE day BETWEEN ? AND ?
+            GROUP BY metodo ORDER BY metodo
+        """;
+
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+
+            ps.setString(1, desde.toString());
+            ps.setString(2, hasta.toString());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) map.put(rs.getString("metodo"), rs.getInt("total"));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[SalesRollupDao.totalPorMetodo] " + e.getMessage());
+        }
+        return map;
+    }
+
+    private SalesRollupDao() {}
+}
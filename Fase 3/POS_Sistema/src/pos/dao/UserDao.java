@@ -1,6 +1,7 @@
 package pos.dao;
 
 import pos.db.Database;
+import pos.db.WriteQueue;
 import pos.model.User;
 
 import java.sql.*;
@@ -14,32 +15,12 @@ import java.util.List;
  */
 public class UserDao {
 
-    // Crear tabla de usuarios si no existe
-    public static void initTable() {
-        final String sql = """
-            CREATE TABLE IF NOT EXISTS users (
-                id TEXT PRIMARY KEY,
-                username TEXT NOT NULL,
-                role TEXT NOT NULL,
-                active INTEGER NOT NULL DEFAULT 1,
-                created_at TEXT,
-                password TEXT NOT NULL
-            )
-        """; // estructura de la tabla
-
-        try (Connection cn = Database.get(); Statement st = cn.createStatement()) {
-            st.execute(sql); // crear tabla si falta
-        } catch (SQLException e) {
-            System.err.println("[UserDao] Error al crear tabla: " + e.getMessage());
-        }
-    }
-
     // Obtener todos los usuarios
     public static List<User> getAll() {
         List<User> list = new ArrayList<>();
         String sql = "SELECT * FROM users ORDER BY username"; // ordenados por nombre
 
-        try (Connection cn = Database.get();
+        try (Connection cn = Database.read();
              Statement st = cn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
 
@@ -59,7 +40,7 @@ public class UserDao {
         List<User> list = new ArrayList<>();
         String sql = "SELECT * FROM users WHERE id LIKE ? OR username LIKE ? OR role LIKE ?";
 
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
+        try (Connection cn = Database.read(); PreparedStatement ps = cn.prepareStatement(sql)) {
 
             String like = "%" + q.trim() + "%";  // patrón de búsqueda
             ps.setString(1, like);               // buscar en id
@@ -86,19 +67,23 @@ public class UserDao {
             VALUES (?, ?, ?, ?, ?, ?)
         """;
 
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setString(1, u.getId());                               // ID del usuario
-            ps.setString(2, u.getUsername());                         // nombre
-            ps.setString(3, u.getRole());                             // rol (admin/cajero)
-            ps.setInt(4, u.isActive() ? 1 : 0);                       // activo 1/0
-            ps.setString(5, u.getCreatedAt() == null
-                    ? null
-                    : u.getCreatedAt().toString());                  // fecha creación
-            ps.setString(6, u.getPassword());                         // contraseña
+        try {
+            WriteQueue.execute(cn -> {
+                try (PreparedStatement ps = cn.prepareStatement(sql)) {
 
-            ps.executeUpdate();
+                    ps.setString(1, u.getId());                               // ID del usuario
+                    ps.setString(2, u.getUsername());                         // nombre
+                    ps.setString(3, u.getRole());                             // rol (admin/cajero)
+                    ps.setInt(4, u.isActive() ? 1 : 0);                       // activo 1/0
+                    ps.setString(5, u.getCreatedAt() == null
+                            ? null
+                            : u.getCreatedAt().toString());                  // fecha creación
+                    ps.setString(6, u.getPassword());                         // contraseña
 
+                    ps.executeUpdate();
+                }
+                return null;
+            });
         } catch (SQLException e) {
             System.err.println("[UserDao] Error al insertar usuario: " + e.getMessage());
         }
@@ -110,18 +95,22 @@ public class UserDao {
             UPDATE users SET username=?, role=?, active=?, created_at=? WHERE id=?
         """;
 
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
+        try {
+            WriteQueue.execute(cn -> {
+                try (PreparedStatement ps = cn.prepareStatement(sql)) {
 
-            ps.setString(1, u.getUsername());                         // nuevo nombre
-            ps.setString(2, u.getRole());                             // nuevo rol
-            ps.setInt(3, u.isActive() ? 1 : 0);                       // estado
-            ps.setString(4, u.getCreatedAt() == null
-                    ? null
-                    : u.getCreatedAt().toString());                  // fecha creación
-            ps.setString(5, u.getId());                               // condición ID
-
-            ps.executeUpdate();
+                    ps.setString(1, u.getUsername());                         // nuevo nombre
+                    ps.setString(2, u.getRole());                             // nuevo rol
+                    ps.setInt(3, u.isActive() ? 1 : 0);                       // estado
+                    ps.setString(4, u.getCreatedAt() == null
+                            ? null
+                            : u.getCreatedAt().toString());                  // fecha creación
+                    ps.setString(5, u.getId());                               // condición ID
 
+                    ps.executeUpdate();
+                }
+                return null;
+            });
         } catch (SQLException e) {
             System.err.println("[UserDao] Error al actualizar usuario: " + e.getMessage());
         }
@@ -132,11 +121,15 @@ public class UserDao {
 
         String sql = "DELETE FROM users WHERE id=?";
 
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setString(1, id);       // ID a eliminar
-            ps.executeUpdate();
+        try {
+            WriteQueue.execute(cn -> {
+                try (PreparedStatement ps = cn.prepareStatement(sql)) {
 
+                    ps.setString(1, id);       // ID a eliminar
+                    ps.executeUpdate();
+                }
+                return null;
+            });
         } catch (SQLException e) {
             System.err.println("[UserDao] Error al eliminar usuario: " + e.getMessage());
         }
@@ -146,13 +139,16 @@ public class UserDao {
     public static boolean resetPassword(String id, String newPass) {
         String sql = "UPDATE users SET password=? WHERE id=?";
 
-        try (Connection cn = Database.get(); PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setString(1, newPass); // colocar nueva contraseña
-            ps.setString(2, id);
+        try {
+            return WriteQueue.execute(cn -> {
+                try (PreparedStatement ps = cn.prepareStatement(sql)) {
 
-            return ps.executeUpdate() > 0; // true si se actualizó
+                    ps.setString(1, newPass); // colocar nueva contraseña
+                    ps.setString(2, id);
 
+                    return ps.executeUpdate() > 0; // true si se actualizó
+                }
+            });
         } catch (SQLException e) {
             System.err.println("[UserDao] Error al resetear contraseña: " + e.getMessage());
             return false;
@@ -163,7 +159,7 @@ public class UserDao {
     public static int nextId() {
         String sql = "SELECT COUNT(*) AS total FROM users";
 
-        try (Connection cn = Database.get();
+        try (Connection cn = Database.read();
              Statement st = cn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
 
@@ -1,98 +1,98 @@
 package pos.dao;
 
 import pos.db.Database;
+import pos.db.WriteQueue;
 import pos.model.Product;
 import pos.model.Sale;
 import pos.model.SaleItem;
 
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 
 public final class VentasDao {
 
-    /** Crea las tablas necesarias si no existen */
-    public static void ensureSchema() {
-        try (Connection cn = Database.get(); Statement st = cn.createStatement()) {
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS sales (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    code TEXT NOT NULL,
-                    name TEXT NOT NULL,
-                    quantity INTEGER NOT NULL,
-                    price INTEGER NOT NULL,
-                    total INTEGER NOT NULL,
-                    fecha TEXT NOT NULL,
-                    user TEXT NOT NULL,
-                    metodo TEXT NOT NULL
-                )
-            """); // tabla que guarda cada ítem vendido (no ventas agrupadas)
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS sale_items (
-                    sale_id INTEGER,
-                    code TEXT,
-                    name TEXT,
-                    qty INTEGER,
-                    price INTEGER,
-                    subtotal INTEGER,
-                    FOREIGN KEY(sale_id) REFERENCES sales(id)
-                )
-            """); // tabla opcional si se quiere agrupar ventas en encabezados
+    /**
+     * Guarda una venta completa: 1 fila en sales (cabecera) + 1 fila por ítem
+     * en sale_items + actualización de sales_daily.
+     * Todo es una sola tarea de la cola de escritura (WriteQueue): corre en su
+     * propio SAVEPOINT, así queda completa o no queda nada.
+     */
+    public static void save(Sale sale) {
+        LocalDateTime fecha = sale.getTs() != null ? sale.getTs() : LocalDateTime.now();
+        String metodo = sale.getPaymentMethod() != null ? sale.getPaymentMethod() : "EFECTIVO";
 
-        } catch (SQLException e) {
-            System.err.println("[VentasDao.ensureSchema] " + e.getMessage());
-        }
-    }
+        int suma = 0;
+        for (SaleItem it : sale.getItems()) suma += it.getSubtotal(); // total real de la venta
+        final int total = suma;
 
-    /** Guarda una venta completa (varios ítems) */
-    public static void save(Sale sale) {
-        ensureSchema(); // asegurar que tabla exista
+        try {
+            WriteQueue.execute(cn -> {
+                long saleId;
+
+                // ===== CABECERA =====
+                try (PreparedStatement ps = cn.prepareStatement("""
+                    INSERT INTO sales (ts, user, metodo, items, total)
+                    VALUES (?, ?, ?, ?, ?)
+                """, Statement.RETURN_GENERATED_KEYS)) {
+
+                    ps.setLong(1, toEpochMillis(fecha));        // fecha/hora de la venta (epoch ms)
+                    ps.setString(2, sale.getUser());            // usuario que vende
+                    ps.setString(3, metodo);                    // método pago
+                    ps.setInt(4, sale.getItems().size());       // cantidad de líneas
+                    ps.setInt(5, total);                        // total venta
+                    ps.executeUpdate();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        keys.next();
+                        saleId = keys.getLong(1);               // id generado
+                    }
+                }
 
-        try (Connection cn = Database.get()) {
-            cn.setAutoCommit(false); // iniciar transacción
+                // ===== DETALLE =====
+                try (PreparedStatement ps = cn.prepareStatement("""
+                    INSERT INTO sale_items (sale_id, code, name, qty, price, subtotal)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                """)) {
 
-            try (PreparedStatement ps = cn.prepareStatement("""
-                INSERT INTO sales (code, name, quantity, price, total, fecha, user, metodo)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-            """)) {
+                    for (SaleItem it : sale.getItems()) {
 
-                for (SaleItem it : sale.getItems()) {
+                        Product p = it.getProduct();       // producto del ítem
 
-                    Product p = it.getProduct();       // producto del ítem
+                        ps.setLong(1, saleId);              // venta a la que pertenece
+                        ps.setString(2, p.getCode());       // code del producto
+                        ps.setString(3, p.getName());       // nombre
+                        ps.setInt(4, it.getQty());          // cantidad vendida
+                        ps.setInt(5, p.getPrice());         // precio unitario
+                        ps.setInt(6, it.getSubtotal());     // precio * cantidad
 
-                    ps.setString(1, p.getCode());       // code del producto
-                    ps.setString(2, p.getName());       // nombre
-                    ps.setInt(3, it.getQty());          // cantidad vendida
-                    ps.setInt(4, p.getPrice());         // precio unitario
-                    ps.setInt(5, it.getSubtotal());     // precio * cantidad
-                    ps.setString(6, LocalDateTime.now().toString()); // fecha de venta
-                    ps.setString(7, sale.getUser());    // usuario que vende
-                    ps.setString(8, sale.getPaymentMethod()); // método pago
+                        ps.addBatch();                       // agregar ítem al batch
+                    }
 
-                    ps.addBatch();                       // agregar ítem al batch
+                    ps.executeBatch();                       // guardar todos los ítems juntos
                 }
 
-                ps.executeBatch();                       // guardar todos los ítems juntos
-            }
+                // ===== RESUMEN DIARIO (misma transacción) =====
+                SalesRollupDao.add(cn, fecha.toLocalDate(), metodo, sale.getUser(), total);
 
-            cn.commit();                                  // confirmar transacción
+                return saleId;
+            });
 
         } catch (SQLException e) {
             System.err.println("[VentasDao.save] Error: " + e.getMessage());
         }
     }
 
-    /** Lista todas las ventas registradas (cada producto contado como fila) */
+    /** Lista todas las ventas registradas (una fila por venta, más recientes primero) */
     public static List<Sale> listAll() {
-        ensureSchema();
         List<Sale> list = new ArrayList<>();
-        String sql = "SELECT * FROM sales ORDER BY fecha DESC"; // orden más recientes primero
+        String sql = "SELECT id, ts, user, metodo, total FROM sales ORDER BY ts DESC"; // usa ix_sales_ts
 
-        try (Connection cn = Database.get();
+        try (Connection cn = Database.read();
              Statement st = cn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
 
@@ -107,18 +107,18 @@ public final class VentasDao {
 
     /** Lista ventas recientes (limit) */
     public static List<Sale> listRecent(int limit) {
-        ensureSchema();
         List<Sale> list = new ArrayList<>();
-        String sql = "SELECT * FROM sales ORDER BY fecha DESC LIMIT ?";
+        String sql = "SELECT id, ts, user, metodo, total FROM sales ORDER BY ts DESC LIMIT ?";
 
-        try (Connection cn = Database.get();
+        try (Connection cn = Database.read();
              PreparedStatement ps = cn.prepareStatement(sql)) {
 
             ps.setInt(1, limit); // límite enviado por parámetro
-            ResultSet rs = ps.executeQuery();
 
-            while (rs.next())
-                list.add(fromRow(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    list.add(fromRow(rs));
+            }
 
         } catch (SQLException e) {
             System.err.println("[VentasDao.listRecent] " + e.getMessage());
@@ -127,29 +127,42 @@ public final class VentasDao {
         return list;
     }
 
-    /** Total vendido entre dos fechas */
+    /**
+     * Total vendido entre dos fechas (ambas inclusive).
+     * Se lee del resumen diario (sales_daily): unas pocas filas por día,
+     * sin importar cuántas ventas haya en el historial.
+     */
     public static int total(LocalDate desde, LocalDate hasta) {
-        ensureSchema();
+        return SalesRollupDao.total(desde, hasta);
+    }
 
-        String sql = """
-            SELECT SUM(total) AS sum FROM sales
-            WHERE DATE(fecha) BETWEEN DATE(?) AND DATE(?)
-        """;
+    /** Total vendido por un usuario entre dos fechas (desde el resumen diario). */
+    public static int totalPorUsuario(String user, LocalDate desde, LocalDate hasta) {
+        return SalesRollupDao.totalPorUsuario(user, desde, hasta);
+    }
 
-        try (Connection cn = Database.get();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
+    /** Detalle (ítems) de una venta. */
+    public static List<SaleItem> items(long saleId) {
+        List<SaleItem> list = new ArrayList<>();
+        String sql = "SELECT code, name, qty, price FROM sale_items WHERE sale_id = ? ORDER BY id";
 
-            ps.setString(1, desde.toString());  // fecha inicio
-            ps.setString(2, hasta.toString());  // fecha fin
+        try (Connection cn = Database.read();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
 
-            ResultSet rs = ps.executeQuery();
+            ps.setLong(1, saleId);
 
-            return rs.next() ? rs.getInt("sum") : 0; // si no hay datos, retorna 0
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Product p = new Product(rs.getString("code"), rs.getString("name"),
+                            null, rs.getInt("price"), 0);
+                    list.add(new SaleItem(p, rs.getInt("qty")));
+                }
+            }
 
         } catch (SQLException e) {
-            System.err.println("[VentasDao.total] " + e.getMessage());
-            return 0;
+            System.err.println("[VentasDao.items] " + e.getMessage());
         }
+        return list;
     }
 
     // Total vendido hoy
@@ -175,34 +188,29 @@ public final class VentasDao {
     // Convierte una fila SQL → objeto Sale
     private static Sale fromRow(ResultSet rs) throws SQLException {
 
-        String rawFecha = rs.getString("fecha"); // string de fecha almacenado
-        LocalDateTime fechaParsed;
-
-        try {
-            if (rawFecha.contains("T")) {
-                fechaParsed = LocalDateTime.parse(rawFecha);  // formato ISO con hora
-            } else {
-                fechaParsed = LocalDate.parse(rawFecha).atStartOfDay(); // solo fecha
-            }
-        } catch (Exception e) {
-            fechaParsed = LocalDateTime.now(); // fallback en caso de error
-        }
+        LocalDateTime fecha = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(rs.getLong("ts")), ZoneId.systemDefault()); // epoch ms → hora local
 
         return new Sale(
-                rs.getString("id"),          // ID de la fila
+                rs.getString("id"),          // ID de la venta
                 "BOLETA",                    // tipo de comprobante (fijo por ahora)
-                fechaParsed,                 // fecha venta
-                List.of(),                   // items no se recuperan aquí
+                fecha,                       // fecha venta
+                List.of(),                   // items se piden aparte con items(id)
                 rs.getString("metodo"),      // método de pago
                 0, 0, 0,                     // campos no utilizados
-                rs.getInt("total"),          // total del ítem
-                0,                           // subtotal no usado
+                rs.getInt("total"),          // neto (no se separa aquí)
+                0,                           // iva no usado
                 rs.getInt("total"),          // total venta
                 null,                        // caja no se asocia aquí
                 rs.getString("user")         // usuario
         );
     }
 
+    // ===== Conversión de fechas a epoch ms (zona horaria del sistema) =====
+    private static long toEpochMillis(LocalDateTime t) {
+        return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     // Constructor privado: evita instanciar clase
     private VentasDao() {}
 }
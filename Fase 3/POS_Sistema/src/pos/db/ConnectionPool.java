@@ -0,0 +1,275 @@
+package pos.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool fijo de conexiones SQLite.
+ *
+ * - 1 conexión de escritura (SQLite solo admite un escritor a la vez)
+ * - N conexiones de solo lectura (WAL permite lectores concurrentes)
+ *
+ * Las conexiones se abren y configuran (PRAGMAs) UNA sola vez.
+ * El close() de la conexión entregada no la cierra: la devuelve al pool.
+ */
+final class ConnectionPool {
+
+    private final String url;
+    private final long timeoutMs;
+
+    private final BlockingQueue<Connection> writers = new ArrayBlockingQueue<>(1);
+    private final BlockingQueue<Connection> readers;
+    private final List<Connection> all = new ArrayList<>();   // para shutdown()
+    private final int readerCount;
+
+    // El escritor es reentrante por hilo: si un DAO abre otra conexión
+    // mientras ya tiene la de escritura, recibe la misma (evita deadlock).
+    private final ThreadLocal<Lease> ownWriter = new ThreadLocal<>();
+
+    // ====== Estadísticas ======
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waits = new LongAdder();          // veces que hubo que esperar
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    // Conexiones perdidas que no se pudieron reabrir: se reintenta abrirlas
+    // en el próximo acquire() en vez de achicar el pool para siempre
+    private final AtomicInteger missingWriters = new AtomicInteger();
+    private final AtomicInteger missingReaders = new AtomicInteger();
+
+    private volatile boolean closed = false;
+
+    ConnectionPool(String url, int readerCount, long timeoutMs) throws SQLException {
+        this.url = url;
+        this.timeoutMs = timeoutMs;
+        this.readerCount = Math.max(1, readerCount);
+        this.readers = new ArrayBlockingQueue<>(this.readerCount);
+
+        // El escritor se abre primero: es quien deja la BD en modo WAL
+        writers.add(open(false));
+        for (int i = 0; i < this.readerCount; i++) readers.add(open(true));
+    }
+
+    // ============================================================
+    // APERTURA Y CONFIGURACIÓN (una sola vez por conexión)
+    // ============================================================
+    private Connection open(boolean readOnly) throws SQLException {
+        Connection cn = DriverManager.getConnection(url);
+
+        // Cada PRAGMA por separado: si uno falla se informa y se siguen aplicando
+        // los demás (sin WAL o sin busy_timeout el pool se comporta distinto)
+        try (Statement st = cn.createStatement()) {
+            pragma(st, "foreign_keys = ON");               // activa llaves foráneas
+            pragma(st, "journal_mode = WAL");              // lectores no bloquean al escritor
+            pragma(st, "synchronous = NORMAL");            // mejor rendimiento con riesgo mínimo
+            pragma(st, "busy_timeout = " + timeoutMs);     // espera en vez de SQLITE_BUSY inmediato
+            if (readOnly) pragma(st, "query_only = ON");   // protege a los lectores de escrituras
+        }
+
+        synchronized (all) { all.add(cn); }
+        return cn;
+    }
+
+    private static void pragma(Statement st, String pragma) {
+        try {
+            st.execute("PRAGMA " + pragma);
+        } catch (SQLException e) {
+            System.err.println("[ConnectionPool] No se pudo aplicar PRAGMA " + pragma + ": " + e.getMessage());
+        }
+    }
+
+    // ============================================================
+    // PRÉSTAMO / DEVOLUCIÓN
+    // ============================================================
+    Connection acquire(boolean write) throws SQLException {
+        if (closed) throw new SQLException("El pool de conexiones está cerrado");
+
+        if (write) {
+            Lease own = ownWriter.get();
+            if (own != null) {              // mismo hilo → reutiliza su conexión
+                own.depth++;
+                acquisitions.increment();
+                return wrap(own);
+            }
+        }
+
+        BlockingQueue<Connection> q = write ? writers : readers;
+
+        Connection raw = q.poll();
+        if (raw == null) raw = replaceMissing(write);
+        if (raw == null) {
+            long t0 = System.nanoTime();
+            try {
+                raw = q.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido esperando conexión", e);
+            }
+            long waited = System.nanoTime() - t0;
+            waits.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+            if (raw == null) {
+                timeouts.increment();
+                throw new SQLException("Timeout esperando conexión "
+                        + (write ? "de escritura" : "de lectura") + " (" + timeoutMs + " ms)");
+            }
+        }
+
+        acquisitions.increment();
+        Lease lease = new Lease(raw, write);
+        if (write) ownWriter.set(lease);
+        return wrap(lease);
+    }
+
+    private void release(Lease lease) {
+        if (--lease.depth > 0) return;      // aún hay un préstamo anidado abierto
+
+        Connection raw = lease.raw;
+        if (lease.write) ownWriter.remove();
+
+        // Deja la conexión limpia para el siguiente usuario
+        try {
+            if (!raw.getAutoCommit()) {
+                raw.rollback();             // transacción olvidada → se descarta
+                raw.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("[ConnectionPool] Conexión inválida, se reabre: " + e.getMessage());
+            raw = reopen(raw, !lease.write);
+            if (raw == null) {
+                (lease.write ? missingWriters : missingReaders).incrementAndGet();
+                return;
+            }
+        }
+
+        (lease.write ? writers : readers).offer(raw);
+    }
+
+    private Connection reopen(Connection broken, boolean readOnly) {
+        try { broken.close(); } catch (SQLException ignore) {}
+        synchronized (all) { all.remove(broken); }
+        try {
+            return open(readOnly);
+        } catch (SQLException e) {
+            System.err.println("[ConnectionPool] No se pudo reabrir conexión: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Reabre una conexión que se perdió. Si vuelve a fallar se informa de
+    // inmediato (en vez de esperar el timeout por una conexión que no existe)
+    private Connection replaceMissing(boolean write) throws SQLException {
+        AtomicInteger missing = write ? missingWriters : missingReaders;
+        int n;
+        do {
+            n = missing.get();
+            if (n == 0) return null;
+        } while (!missing.compareAndSet(n, n - 1));
+
+        try {
+            return open(!write);
+        } catch (SQLException e) {
+            missing.incrementAndGet();
+            if (write || missingReaders.get() >= readerCount) {
+                throw new SQLException("No se pudo reabrir la conexión "
+                        + (write ? "de escritura" : "de lectura") + ": " + e.getMessage(), e);
+            }
+            return null;   // quedan otros lectores: se espera a uno de ellos
+        }
+    }
+
+    // ============================================================
+    // ESTADÍSTICAS
+    // ============================================================
+    PoolStats stats() {
+        int readersIdle = readers.size();
+        int writerIdle = writers.size();
+        return new PoolStats(
+                readerCount,
+                readerCount - readersIdle,
+                readersIdle,
+                writerIdle == 0,
+                acquisitions.sum(),
+                waits.sum(),
+                timeouts.sum(),
+                totalWaitNanos.sum(),
+                maxWaitNanos.get()
+        );
+    }
+
+    void shutdown() {
+        closed = true;
+        synchronized (all) {
+            for (Connection cn : all) {
+                try { cn.close(); } catch (SQLException ignore) {}
+            }
+            all.clear();
+        }
+        writers.clear();
+        readers.clear();
+    }
+
+    // ============================================================
+    // PROXY: el close() devuelve la conexión al pool
+    // ============================================================
+    private Connection wrap(Lease lease) {
+        InvocationHandler h = new InvocationHandler() {
+            private boolean released = false;
+
+            @Override
+            public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+                switch (m.getName()) {
+                    case "close":
+                        if (!released) { released = true; release(lease); }
+                        return null;
+                    case "isClosed":
+                        return released || lease.raw.isClosed();
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(lease.raw)) return lease.raw;
+                        break;
+                    case "toString":
+                        return "Pooled[" + (lease.write ? "W" : "R") + "] " + lease.raw;
+                    default:
+                        break;
+                }
+                if (released) throw new SQLException("Conexión ya devuelta al pool");
+                try {
+                    return m.invoke(lease.raw, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, h);
+    }
+
+    /** Préstamo de una conexión física (depth > 1 cuando el escritor se pide anidado). */
+    private static final class Lease {
+        final Connection raw;
+        final boolean write;
+        int depth = 1;
+
+        Lease(Connection raw, boolean write) {
+            this.raw = raw;
+            this.write = write;
+        }
+    }
+}
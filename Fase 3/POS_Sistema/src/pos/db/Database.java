@@ -1,9 +1,7 @@
 package pos.db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.io.File;
 
 public final class Database {
@@ -16,6 +14,15 @@ public final class Database {
     // URL JDBC para conectar con SQLite usando el archivo anterior
     private static final String DEFAULT_URL = "jdbc:sqlite:" + DEFAULT_PATH;
 
+    // Tamaño del pool: 1 escritor + N lectores (configurable con -Dpos.db.readers=N)
+    private static final int DEFAULT_READERS = 4;
+
+    // Tiempo máximo esperando una conexión libre (-Dpos.db.timeoutMs=...)
+    private static final long DEFAULT_TIMEOUT_MS = 5000;
+
+    // Pool compartido: se crea la primera vez que alguien pide una conexión
+    private static volatile ConnectionPool pool;
+
     // Bloque estático: se ejecuta una sola vez cuando carga la clase
     static {
         try {
@@ -36,39 +43,62 @@ public final class Database {
         return (override != null && !override.isBlank()) ? override : DEFAULT_URL;
     }
 
-    // Método principal: obtiene y retorna una conexión activa a la BD
+    /**
+     * Conexión de ESCRITURA (la única del pool).
+     * Se usa para INSERT/UPDATE/DELETE/DDL o cuando no se sabe qué hará el llamador.
+     * Al cerrarla (try-with-resources) vuelve al pool, no se cierra de verdad.
+     */
     public static Connection get() throws SQLException {
-        String u = url();                                      // obtiene URL final
+        return pool().acquire(true);
+    }
 
-        // Si es SQLite, crear la carpeta si no existe
-        if (u.startsWith("jdbc:sqlite:")) {
-            String path = u.substring("jdbc:sqlite:".length()); // obtiene la ruta del archivo .db
-            File dir = new File(path).getParentFile();          // obtiene carpeta contenedora
-            if (dir != null) dir.mkdirs();                      // crea carpeta si es necesario
-        }
+    /**
+     * Conexión de SOLO LECTURA.
+     * Varias pueden estar prestadas a la vez (WAL), sin bloquear al escritor.
+     */
+    public static Connection read() throws SQLException {
+        return pool().acquire(false);
+    }
+
+    /** Estadísticas del pool (esperas, préstamos, conexiones activas/libres). */
+    public static PoolStats stats() {
+        ConnectionPool p = pool;
+        return p == null ? new PoolStats(0, 0, 0, false, 0, 0, 0, 0, 0) : p.stats();
+    }
 
-        // Conecta con la base de datos
-        Connection cn = DriverManager.getConnection(u);
-
-        // Ajustes recomendados para SQLite
-        try (Statement st = cn.createStatement()) {
-            st.execute("PRAGMA foreign_keys = ON");             // activa llaves foráneas
-            st.execute("PRAGMA journal_mode = WAL");            // mejora concurrencia y velocidad
-            st.execute("PRAGMA synchronous = NORMAL");          // mejor rendimiento con riesgo mínimo
-        } catch (SQLException ignore) {}
-
-        // =======================================================
-        // PARCHE AUTOMÁTICO: Agregar columna "metodo" si no existe
-        // =======================================================
-        try (Statement st = cn.createStatement()) {
-            st.execute("""
-                ALTER TABLE sales ADD COLUMN metodo TEXT DEFAULT 'EFECTIVO'
-            """);                                               // intenta agregar columna
-        } catch (SQLException ignore) {
-            // Si ya existe, el error se ignora → no afecta al sistema
+    /** Cierra todas las conexiones físicas (al salir de la aplicación). */
+    public static synchronized void shutdown() {
+        WriteQueue.shutdown();    // primero se confirman las escrituras pendientes
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
         }
+    }
+
+    // Crea el pool una sola vez (doble verificación)
+    private static ConnectionPool pool() throws SQLException {
+        ConnectionPool p = pool;
+        if (p != null) return p;
+
+        synchronized (Database.class) {
+            if (pool == null) {
+                String u = url();                                      // obtiene URL final
 
-        return cn;                                             // conexión lista para usar
+                // Si es SQLite, crear la carpeta si no existe
+                if (u.startsWith("jdbc:sqlite:")) {
+                    String path = u.substring("jdbc:sqlite:".length()); // obtiene la ruta del archivo .db
+                    File dir = new File(path).getParentFile();          // obtiene carpeta contenedora
+                    if (dir != null) dir.mkdirs();                      // crea carpeta si es necesario
+                }
+
+                pool = new ConnectionPool(u,
+                        Integer.getInteger("pos.db.readers", DEFAULT_READERS),
+                        Long.getLong("pos.db.timeoutMs", DEFAULT_TIMEOUT_MS));
+
+                Runtime.getRuntime().addShutdownHook(new Thread(Database::shutdown, "db-pool-shutdown"));
+            }
+            return pool;
+        }
     }
 
     // Constructor privado: evita que alguien instancie Database
@@ -1,12 +1,173 @@
 package pos.db;
 
 import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public final class DatabaseInit {
 
-    public static void initialize() {
-        // Abre conexión a la BD y un Statement para ejecutar SQL
-        try (Connection cn = Database.get(); Statement st = cn.createStatement()) {
+    // Se migra una sola vez por ejecución del programa
+    private static volatile boolean ready = false;
+
+    /**
+     * Deja el esquema al día. Se llama una vez al arrancar (MainFrame).
+     * Solo ejecuta DDL si hay migraciones pendientes en schema_version;
+     * los DAOs ya no crean ni alteran tablas en cada llamada.
+     */
+    public static synchronized void initialize() {
+        if (ready) return;
+
+        try {
+            int applied = SchemaMigrator.migrate(migrations());
+            ready = true;
+
+            if (applied > 0) {
+                System.out.println("✅ Base de datos actualizada (" + applied + " migraciones aplicadas)");
+            }
+
+        } catch (SQLException e) {
+            // Sin esquema válido no se puede operar → se informa al llamador
+            throw new IllegalStateException("[DatabaseInit] Error al migrar base: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lista ORDENADA de migraciones. Nunca modificar una migración ya publicada:
+     * cualquier cambio de esquema nuevo va en una migración con versión mayor.
+     */
+    static List<Migration> migrations() {
+        return List.of(
+                Migration.of(1, "Esquema base (inventory, movements, cash, providers, sales, users)",
+                        DatabaseInit::baseline),
+
+                // UserDao.map() lee full_name, pero la tabla original no la tenía
+                Migration.of(2, "users.full_name",
+                        cn -> SchemaMigrator.addColumnIfMissing(cn, "users", "full_name", "TEXT")),
+
+                Migration.of(3, "Ventas en cabecera (sales) + detalle (sale_items) con ts numérico",
+                        DatabaseInit::ventasNormalizadas),
+
+                Migration.of(4, "Resumen diario de ventas (sales_daily)",
+                        DatabaseInit::resumenDiario),
+
+                // Historial de movimientos paginado por (created_at, id).
+                // created_at es ISO-8601 (ordena bien como texto) y id es el rowid,
+                // que SQLite agrega al final de todo índice: estos índices sirven
+                // tanto para el ORDER BY como para el "seek" de la página siguiente.
+                Migration.sql(5, "Índices para paginar inventory_movements",
+                        "CREATE INDEX IF NOT EXISTS ix_mov_created ON inventory_movements(created_at)",
+                        "CREATE INDEX IF NOT EXISTS ix_mov_type_created ON inventory_movements(type, created_at)"),
+
+                // Espejo local del catálogo de la API (/v1/inventory/products).
+                // sync_state guarda la marca de agua (updated_at más reciente recibido)
+                // para pedir solo los cambios posteriores.
+                Migration.sql(6, "Espejo local del catálogo (catalog + sync_state)",
+                        """
+                        CREATE TABLE catalog (
+                            id         INTEGER PRIMARY KEY,    -- ID del producto en la API
+                            code       TEXT    NOT NULL,       -- código / barra
+                            name       TEXT    NOT NULL,
+                            category   TEXT,                   -- descripción de la API
+                            price      INTEGER NOT NULL,
+                            stock      INTEGER NOT NULL,
+                            active     INTEGER NOT NULL DEFAULT 1,
+                            expiry     TEXT                    -- AAAA-MM-DD (opcional)
+                        )
+                        """,
+                        "CREATE INDEX ix_catalog_code ON catalog(code)",
+                        """
+                        CREATE TABLE sync_state (
+                            name      TEXT PRIMARY KEY,        -- qué se sincroniza ("catalog")
+                            watermark TEXT,                    -- último updated_at recibido
+                            full_at   TEXT,                    -- última sincronización completa
+                            synced_at TEXT                     -- última sincronización (completa o delta)
+                        )
+                        """),
+
+                // Bandeja de salida de ventas: la venta se guarda aquí antes de
+                // enviarla a la API (SaleOutbox). idem_key viaja como
+                // Idempotency-Key para que un reintento no duplique la venta.
+                Migration.sql(7, "Bandeja de salida de ventas (sale_outbox)",
+                        """
+                        CREATE TABLE sale_outbox (
+                            id         INTEGER PRIMARY KEY AUTOINCREMENT,
+                            idem_key   TEXT    NOT NULL UNIQUE,        -- UUID de la venta
+                            body       TEXT    NOT NULL,               -- JSON para POST /v1/sales
+                            status     TEXT    NOT NULL DEFAULT 'PENDING',  -- PENDING / FAILED
+                            attempts   INTEGER NOT NULL DEFAULT 0,
+                            next_at    INTEGER NOT NULL,               -- próximo intento (epoch ms)
+                            created_at INTEGER NOT NULL,               -- epoch ms
+                            last_error TEXT
+                        )
+                        """,
+                        "CREATE INDEX ix_outbox_due ON sale_outbox(status, next_at)"),
+
+                // Códigos de barra alternativos del producto (pack, caja, proveedor),
+                // separados por coma. El índice en memoria está en ProductIndex.
+                Migration.of(8, "catalog.barcodes (códigos alternativos)",
+                        cn -> SchemaMigrator.addColumnIfMissing(cn, "catalog", "barcodes", "TEXT")),
+
+                // Búsqueda de texto sobre inventory (InventorySearchDao).
+                // FTS5 "de contenido externo": el índice no duplica las filas, las
+                // lee de inventory por rowid; los triggers lo mantienen al día.
+                // remove_diacritics → "cafe" encuentra "Café"; prefix → "caf*" rápido.
+                Migration.sql(9, "Índice de texto inventory_fts (FTS5 + triggers)",
+                        """
+                        CREATE VIRTUAL TABLE inventory_fts USING fts5(
+                            code, name, category,
+                            content='inventory', content_rowid='id',
+                            tokenize='unicode61 remove_diacritics 2',
+                            prefix='2 3'
+                        )
+                        """,
+                        """
+                        CREATE TRIGGER inventory_fts_ai AFTER INSERT ON inventory BEGIN
+                            INSERT INTO inventory_fts(rowid, code, name, category)
+                            VALUES (new.id, new.code, new.name, new.category);
+                        END
+                        """,
+                        """
+                        CREATE TRIGGER inventory_fts_ad AFTER DELETE ON inventory BEGIN
+                            INSERT INTO inventory_fts(inventory_fts, rowid, code, name, category)
+                            VALUES ('delete', old.id, old.code, old.name, old.category);
+                        END
+                        """,
+                        """
+                        CREATE TRIGGER inventory_fts_au AFTER UPDATE OF code, name, category ON inventory BEGIN
+                            INSERT INTO inventory_fts(inventory_fts, rowid, code, name, category)
+                            VALUES ('delete', old.id, old.code, old.name, old.category);
+                            INSERT INTO inventory_fts(rowid, code, name, category)
+                            VALUES (new.id, new.code, new.name, new.category);
+                        END
+                        """,
+                        // Orden por defecto (columna rank): pesa más el código que el
+                        // nombre, y el nombre más que la categoría
+                        "INSERT INTO inventory_fts(inventory_fts, rank) VALUES ('rank', 'bm25(10.0, 5.0, 1.0)')",
+                        // Indexa las filas que ya existían
+                        "INSERT INTO inventory_fts(inventory_fts) VALUES ('rebuild')"),
+
+                // El filtro por tipo del historial no distingue mayúsculas
+                // (MovementDao.page: type = ? COLLATE NOCASE); el índice de la V5
+                // compara en BINARY y esa consulta no lo podía usar.
+                Migration.sql(10, "inventory_movements: índice por tipo sin mayúsculas",
+                        "DROP INDEX IF EXISTS ix_mov_type_created",
+                        "CREATE INDEX ix_mov_type_created ON inventory_movements(type COLLATE NOCASE, created_at)")
+        );
+    }
+
+    // ==================================================================
+    // V1 — ESQUEMA BASE
+    // Crea todo lo que antes se creaba en cada arranque. Es tolerante a BDs
+    // antiguas: agrega columnas/índices faltantes revisando el esquema,
+    // en lugar de lanzar ALTERs y silenciar el error.
+    // ==================================================================
+    private static void baseline(Connection cn) throws SQLException {
+        try (Statement st = cn.createStatement()) {
 
             // ================== INVENTORY ==================
             // Crea la tabla principal del inventario si no existe
@@ -22,15 +183,21 @@ public final class DatabaseInit {
                 )
             """);
 
-            // Migraciones defensivas:
-            // Se ejecutan por si el usuario tiene una base de datos vieja sin estas columnas
-            try { st.execute("ALTER TABLE inventory ADD COLUMN code TEXT"); }     catch (SQLException ignore) {}
-            try { st.execute("ALTER TABLE inventory ADD COLUMN category TEXT"); } catch (SQLException ignore) {}
-            try { st.execute("ALTER TABLE inventory ADD COLUMN expiry TEXT"); }   catch (SQLException ignore) {}
+            // BDs viejas sin estas columnas
+            SchemaMigrator.addColumnIfMissing(cn, "inventory", "code", "TEXT");
+            SchemaMigrator.addColumnIfMissing(cn, "inventory", "category", "TEXT");
+            SchemaMigrator.addColumnIfMissing(cn, "inventory", "expiry", "TEXT");
 
-            // Índice único para asegurar que el código no se repite
-            try { st.execute("CREATE UNIQUE INDEX ux_inventory_code ON inventory(code)"); }
-            catch (SQLException ignore) {}
+            // Índice único para asegurar que el código no se repite.
+            // Si una BD antigua ya tiene códigos duplicados, se crea un índice normal
+            // (la búsqueda sigue siendo rápida) y se avisa para limpiar los datos.
+            if (hasDuplicateCodes(st)) {
+                System.err.println("[DatabaseInit] inventory tiene códigos duplicados: "
+                        + "se crea índice NO único ix_inventory_code");
+                st.execute("CREATE INDEX IF NOT EXISTS ix_inventory_code ON inventory(code)");
+            } else {
+                st.execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_inventory_code ON inventory(code)");
+            }
 
             // ================== INVENTORY_MOVEMENTS ==================
             // Historial de cambios de stock (entradas, salidas, ajustes)
@@ -49,8 +216,7 @@ public final class DatabaseInit {
             """);
 
             // Índice para acelerar búsquedas por código + fecha
-            try { st.execute("CREATE INDEX ix_mov_code_date ON inventory_movements(code, created_at)"); }
-            catch (SQLException ignore) {}
+            st.execute("CREATE INDEX IF NOT EXISTS ix_mov_code_date ON inventory_movements(code, created_at)");
 
             // ================== CASH_SESSIONS ==================
             // Control de apertura/cierre de caja por usuario
@@ -67,8 +233,7 @@ public final class DatabaseInit {
             """);
 
             // Índice para acelerar consultas del tipo “sesión abierta por usuario”
-            try { st.execute("CREATE INDEX ix_cash_user_state ON cash_sessions(user, closed)"); }
-            catch (SQLException ignore) {}
+            st.execute("CREATE INDEX IF NOT EXISTS ix_cash_user_state ON cash_sessions(user, closed)");
 
             // ================== PROVIDERS ==================
             // Tabla de proveedores
@@ -99,22 +264,217 @@ public final class DatabaseInit {
                 )
             """);
 
-            // Agregar columna metodo si el usuario tenía una base antigua
-            try { st.execute("ALTER TABLE sales ADD COLUMN metodo TEXT"); }
-            catch (SQLException ignore) {}
+            // BD antigua sin método de pago (antes se intentaba en cada Database.get())
+            SchemaMigrator.addColumnIfMissing(cn, "sales", "metodo", "TEXT DEFAULT 'EFECTIVO'");
 
             // Índice para búsquedas por fecha + usuario
-            try { st.execute("CREATE INDEX ix_sales_date_user ON sales(fecha, user)"); }
-            catch (SQLException ignore) {}
+            st.execute("CREATE INDEX IF NOT EXISTS ix_sales_date_user ON sales(fecha, user)");
 
-            System.out.println("✅ Base de datos lista (inventory + movements + sessions + providers + sales)");
+            // Detalle opcional de ventas (antes lo creaba VentasDao.ensureSchema)
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS sale_items (
+                    sale_id INTEGER,
+                    code TEXT,
+                    name TEXT,
+                    qty INTEGER,
+                    price INTEGER,
+                    subtotal INTEGER,
+                    FOREIGN KEY(sale_id) REFERENCES sales(id)
+                )
+            """);
 
-        } catch (SQLException e) {
-            System.err.println("[DatabaseInit] Error al inicializar base: " + e.getMessage());
+            // ================== USERS ==================
+            // Usuarios locales (antes lo creaba UserDao.initTable)
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS users (
+                    id TEXT PRIMARY KEY,
+                    username TEXT NOT NULL,
+                    role TEXT NOT NULL,
+                    active INTEGER NOT NULL DEFAULT 1,
+                    created_at TEXT,
+                    password TEXT NOT NULL
+                )
+            """);
+        }
+    }
+
+    // ==================================================================
+    // V3 — VENTAS NORMALIZADAS
+    // Antes: una fila de 'sales' por ítem, repitiendo user/fecha/metodo, y
+    // fecha como TEXT (DATE(fecha) no puede usar índices).
+    // Ahora:
+    //   sales      → una fila por venta, ts = epoch en milisegundos
+    //   sale_items → una fila por producto vendido
+    // Los rangos se consultan con ts >= ? AND ts < ? sobre índices que ya
+    // incluyen 'total', así SUM(total) no necesita leer la tabla.
+    // ==================================================================
+    private static void ventasNormalizadas(Connection cn) throws SQLException {
+        try (Statement st = cn.createStatement()) {
+
+            // sale_items nunca se usó → se recrea con la estructura nueva
+            st.execute("DROP TABLE IF EXISTS sale_items");
+            st.execute("DROP INDEX IF EXISTS ix_sales_date_user");
+            st.execute("ALTER TABLE sales RENAME TO sales_v1");
+
+            st.execute("""
+                CREATE TABLE sales (
+                    id     INTEGER PRIMARY KEY AUTOINCREMENT,
+                    ts     INTEGER NOT NULL,                     -- epoch en milisegundos
+                    user   TEXT    NOT NULL,                     -- usuario que vendió
+                    metodo TEXT    NOT NULL DEFAULT 'EFECTIVO',  -- método de pago
+                    items  INTEGER NOT NULL,                     -- cantidad de líneas
+                    total  INTEGER NOT NULL                      -- total de la venta
+                )
+            """);
+
+            st.execute("""
+                CREATE TABLE sale_items (
+                    id       INTEGER PRIMARY KEY AUTOINCREMENT,
+                    sale_id  INTEGER NOT NULL REFERENCES sales(id) ON DELETE CASCADE,
+                    code     TEXT    NOT NULL,   -- código del producto
+                    name     TEXT    NOT NULL,   -- nombre al momento de la venta
+                    qty      INTEGER NOT NULL,   -- cantidad vendida
+                    price    INTEGER NOT NULL,   -- precio unitario
+                    subtotal INTEGER NOT NULL    -- qty * price
+                )
+            """);
+
+            // Índices "cubrientes": el rango y la suma se resuelven solo con el índice
+            st.execute("CREATE INDEX ix_sales_ts ON sales(ts, total)");
+            st.execute("CREATE INDEX ix_sales_user_ts ON sales(user, ts, total)");
+            st.execute("CREATE INDEX ix_sale_items_sale ON sale_items(sale_id)");
+            st.execute("CREATE INDEX ix_sale_items_code ON sale_items(code)");
+        }
+
+        // Copia de datos antiguos: cada fila vieja pasa a ser una venta de 1 ítem
+        // (las líneas de una misma venta no comparten una fecha exacta, no se pueden
+        // reagrupar con seguridad). Se conserva el id original.
+        // La fecha se convierte en Java para usar la misma zona horaria que la app.
+        int copiadas = 0;
+        try (Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT id, code, name, quantity, price, total, fecha, user, metodo FROM sales_v1");
+             PreparedStatement head = cn.prepareStatement(
+                     "INSERT INTO sales (id, ts, user, metodo, items, total) VALUES (?, ?, ?, ?, 1, ?)");
+             PreparedStatement line = cn.prepareStatement(
+                     "INSERT INTO sale_items (sale_id, code, name, qty, price, subtotal) VALUES (?, ?, ?, ?, ?, ?)")) {
+
+            while (rs.next()) {
+                long id = rs.getLong("id");
+                String metodo = rs.getString("metodo");
+
+                head.setLong(1, id);
+                head.setLong(2, legacyEpochMillis(rs.getString("fecha")));
+                head.setString(3, rs.getString("user"));
+                head.setString(4, metodo == null || metodo.isBlank() ? "EFECTIVO" : metodo);
+                head.setInt(5, rs.getInt("total"));
+                head.addBatch();
+
+                line.setLong(1, id);
+                line.setString(2, rs.getString("code"));
+                line.setString(3, rs.getString("name"));
+                line.setInt(4, rs.getInt("quantity"));
+                line.setInt(5, rs.getInt("price"));
+                line.setInt(6, rs.getInt("total"));
+                line.addBatch();
+
+                // Se envía por bloques para no acumular millones de filas en memoria
+                if (++copiadas % 1000 == 0) {
+                    head.executeBatch();
+                    line.executeBatch();
+                }
+            }
+            head.executeBatch();
+            line.executeBatch();
+        }
+
+        try (Statement st = cn.createStatement()) {
+            st.execute("DROP TABLE sales_v1");
+        }
+
+        if (copiadas > 0) {
+            System.out.println("[DatabaseInit] Ventas antiguas migradas: " + copiadas);
+        }
+    }
+
+    // ==================================================================
+    // V4 — RESUMEN DIARIO (sales_daily)
+    // Una fila por día × método de pago × usuario. VentasDao.save la
+    // actualiza en la misma transacción que la venta, así los totales de
+    // hoy/semana/mes leen unas pocas filas sin importar el historial.
+    // 'day' es la fecha local (AAAA-MM-DD): como texto ISO ordena igual
+    // que la fecha, y el rango usa directamente la clave primaria.
+    // ==================================================================
+    private static void resumenDiario(Connection cn) throws SQLException {
+        try (Statement st = cn.createStatement()) {
+            st.execute("""
+                CREATE TABLE sales_daily (
+                    day    TEXT    NOT NULL,             -- fecha local AAAA-MM-DD
+                    metodo TEXT    NOT NULL,             -- método de pago
+                    user   TEXT    NOT NULL,             -- usuario que vendió
+                    total  INTEGER NOT NULL DEFAULT 0,   -- suma de ventas
+                    ventas INTEGER NOT NULL DEFAULT 0,   -- cantidad de ventas
+                    PRIMARY KEY (day, metodo, user)
+                ) WITHOUT ROWID
+            """);
+        }
+
+        // Carga inicial desde las ventas existentes.
+        // El día se calcula en Java (misma zona horaria que usa VentasDao.save).
+        Map<List<String>, long[]> acum = new HashMap<>();   // [day, metodo, user] → {total, ventas}
+
+        try (Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT ts, metodo, user, total FROM sales")) {
+
+            ZoneId zona = ZoneId.systemDefault();
+            while (rs.next()) {
+                String day = Instant.ofEpochMilli(rs.getLong("ts")).atZone(zona).toLocalDate().toString();
+
+                long[] v = acum.computeIfAbsent(
+                        List.of(day, rs.getString("metodo"), rs.getString("user")), k -> new long[2]);
+                v[0] += rs.getLong("total");
+                v[1]++;
+            }
+        }
+
+        try (PreparedStatement ps = cn.prepareStatement(
+                "INSERT INTO sales_daily (day, metodo, user, total, ventas) VALUES (?, ?, ?, ?, ?)")) {
+            for (Map.Entry<List<String>, long[]> e : acum.entrySet()) {
+                ps.setString(1, e.getKey().get(0));
+                ps.setString(2, e.getKey().get(1));
+                ps.setString(3, e.getKey().get(2));
+                ps.setLong(4, e.getValue()[0]);
+                ps.setLong(5, e.getValue()[1]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // "2025-11-20T14:03:22.123" o "2025-11-20" (hora local) → epoch ms
+    private static long legacyEpochMillis(String fecha) {
+        try {
+            LocalDateTime t = fecha.contains("T")
+                    ? LocalDateTime.parse(fecha)
+                    : LocalDate.parse(fecha).atStartOfDay();
+            return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            System.err.println("[DatabaseInit] Fecha de venta inválida '" + fecha + "', se usa 0");
+            return 0L;
+        }
+    }
+
+    private static boolean hasDuplicateCodes(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("""
+                SELECT 1 FROM inventory
+                 WHERE code IS NOT NULL
+                 GROUP BY code HAVING COUNT(*) > 1
+                 LIMIT 1
+            """)) {
+            return rs.next();
         }
     }
 
     // Constructor privado: evita instanciación de la clase
     private DatabaseInit() { }
 }
-
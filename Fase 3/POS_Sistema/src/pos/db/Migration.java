@@ -0,0 +1,56 @@
+package pos.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Una migración del esquema: número de versión + descripción + pasos a ejecutar.
+ * Cada migración se aplica una sola vez, dentro de su propia transacción,
+ * y queda registrada en la tabla schema_version.
+ */
+public final class Migration {
+
+    /** Paso de migración: recibe la conexión de escritura (ya en transacción). */
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection cn) throws SQLException;
+    }
+
+    private final int version;
+    private final String description;
+    private final Step step;
+
+    private Migration(int version, String description, Step step) {
+        if (version <= 0) throw new IllegalArgumentException("La versión debe ser > 0");
+        this.version = version;
+        this.description = description;
+        this.step = step;
+    }
+
+    /** Migración con lógica propia (revisar columnas, copiar datos, etc.). */
+    public static Migration of(int version, String description, Step step) {
+        return new Migration(version, description, step);
+    }
+
+    /** Migración formada solo por sentencias SQL, ejecutadas en orden. */
+    public static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, cn -> {
+            try (Statement st = cn.createStatement()) {
+                for (String s : statements) st.execute(s);
+            }
+        });
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+
+    void apply(Connection cn) throws SQLException {
+        step.apply(cn);
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " - " + description;
+    }
+}
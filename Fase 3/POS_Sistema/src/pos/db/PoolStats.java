@@ -0,0 +1,58 @@
+package pos.db;
+
+/**
+ * Foto (snapshot) de las estadísticas del pool de conexiones.
+ * Se obtiene con Database.stats() para ver contención bajo carga.
+ */
+public final class PoolStats {
+
+    private final int readersTotal;     // conexiones de lectura configuradas
+    private final int readersActive;    // lectoras prestadas ahora mismo
+    private final int readersIdle;      // lectoras libres
+    private final boolean writerActive; // ¿la conexión de escritura está prestada?
+    private final long acquisitions;    // préstamos totales
+    private final long waits;           // préstamos que tuvieron que esperar
+    private final long timeouts;        // préstamos que fallaron por timeout
+    private final long totalWaitNanos;  // tiempo total esperando
+    private final long maxWaitNanos;    // peor espera observada
+
+    PoolStats(int readersTotal, int readersActive, int readersIdle, boolean writerActive,
+              long acquisitions, long waits, long timeouts,
+              long totalWaitNanos, long maxWaitNanos) {
+        this.readersTotal = readersTotal;
+        this.readersActive = readersActive;
+        this.readersIdle = readersIdle;
+        this.writerActive = writerActive;
+        this.acquisitions = acquisitions;
+        this.waits = waits;
+        this.timeouts = timeouts;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public int getReadersTotal() { return readersTotal; }
+    public int getReadersActive() { return readersActive; }
+    public int getReadersIdle() { return readersIdle; }
+    public boolean isWriterActive() { return writerActive; }
+    public long getAcquisitions() { return acquisitions; }
+    public long getWaits() { return waits; }
+    public long getTimeouts() { return timeouts; }
+    public long getTotalWaitNanos() { return totalWaitNanos; }
+    public long getMaxWaitNanos() { return maxWaitNanos; }
+
+    /** Espera promedio (ms) considerando solo los préstamos que esperaron. */
+    public double getAvgWaitMillis() {
+        return waits == 0 ? 0 : (totalWaitNanos / (double) waits) / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Pool[lectores %d/%d activos, %d libres | escritor %s | préstamos=%d esperas=%d timeouts=%d "
+                        + "espera prom=%.2f ms máx=%.2f ms]",
+                readersActive, readersTotal, readersIdle,
+                writerActive ? "ocupado" : "libre",
+                acquisitions, waits, timeouts,
+                getAvgWaitMillis(), maxWaitNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,111 @@
+package pos.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Motor de migraciones del esquema SQLite.
+ *
+ * - Lleva la versión actual en la tabla schema_version
+ * - Aplica en orden solo las migraciones pendientes (versión > actual)
+ * - Cada migración corre en su propia transacción: o queda completa o no queda
+ */
+public final class SchemaMigrator {
+
+    /**
+     * Aplica las migraciones pendientes.
+     * @return cantidad de migraciones aplicadas (0 si la BD ya estaba al día)
+     */
+    public static int migrate(List<Migration> migrations) throws SQLException {
+        try (Connection cn = Database.get()) {
+
+            try (Statement st = cn.createStatement()) {
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version     INTEGER PRIMARY KEY,   -- número de migración
+                        description TEXT    NOT NULL,      -- qué hace
+                        applied_at  TEXT    NOT NULL       -- cuándo se aplicó
+                    )
+                """);
+            }
+
+            int current = currentVersion(cn);
+            int applied = 0;
+            int last = 0;
+
+            for (Migration m : migrations) {
+                if (m.getVersion() <= last) {
+                    throw new IllegalStateException("Migraciones fuera de orden o duplicadas: " + m);
+                }
+                last = m.getVersion();
+                if (m.getVersion() <= current) continue;   // ya aplicada
+
+                long t0 = System.nanoTime();
+                cn.setAutoCommit(false);
+                try {
+                    m.apply(cn);
+
+                    try (PreparedStatement ps = cn.prepareStatement(
+                            "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                        ps.setInt(1, m.getVersion());
+                        ps.setString(2, m.getDescription());
+                        ps.setString(3, LocalDateTime.now().toString());
+                        ps.executeUpdate();
+                    }
+
+                    cn.commit();
+                } catch (SQLException | RuntimeException e) {
+                    cn.rollback();
+                    throw new SQLException("Falló la migración " + m + ": " + e.getMessage(), e);
+                } finally {
+                    cn.setAutoCommit(true);
+                }
+
+                applied++;
+                System.out.printf("[SchemaMigrator] Aplicada %s (%.1f ms)%n",
+                        m, (System.nanoTime() - t0) / 1_000_000.0);
+            }
+
+            return applied;
+        }
+    }
+
+    /** Versión actual del esquema (0 si nunca se migró). */
+    public static int currentVersion(Connection cn) throws SQLException {
+        try (Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // ============================================================
+    // Helpers para migraciones que deben tolerar BDs antiguas
+    // ============================================================
+
+    /** ¿Existe la columna en la tabla? (usa PRAGMA table_info, sin lanzar errores) */
+    public static boolean columnExists(Connection cn, String table, String column) throws SQLException {
+        try (Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Agrega la columna solo si falta (reemplaza el viejo try { ALTER } catch {}). */
+    public static void addColumnIfMissing(Connection cn, String table, String column, String decl)
+            throws SQLException {
+        if (columnExists(cn, table, column)) return;
+        try (Statement st = cn.createStatement()) {
+            st.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + decl);
+        }
+    }
+
+    private SchemaMigrator() {}
+}
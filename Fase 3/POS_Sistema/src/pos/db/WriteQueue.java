@@ -0,0 +1,223 @@
+package pos.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola de escritura con un único hilo escritor y "group commit".
+ *
+ * - Los DAOs envían tareas de escritura (submit / execute)
+ * - El hilo "db-writer" junta las tareas que llegan dentro de una ventana
+ *   corta (pos.db.groupCommitMs, 2 ms por defecto) y las confirma con UN
+ *   solo COMMIT: en una hora punta, 30 movimientos de stock pagan un commit,
+ *   no 30
+ * - Cada tarea corre dentro de su propio SAVEPOINT: si una falla, se revierte
+ *   solo esa y el resto del grupo se confirma igual
+ * - El futuro de cada tarea se completa recién DESPUÉS del commit, así el
+ *   llamador nunca ve como guardado algo que no quedó en disco
+ *
+ * Las tareas NO deben llamar setAutoCommit/commit/rollback: la transacción
+ * es del escritor.
+ */
+public final class WriteQueue {
+
+    /** Tarea de escritura: recibe la conexión del escritor (ya en transacción). */
+    @FunctionalInterface
+    public interface Task<T> {
+        T run(Connection cn) throws SQLException;
+    }
+
+    // Ventana de agrupación y tamaño máximo de un grupo
+    private static final long WINDOW_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("pos.db.groupCommitMs", 2));
+    private static final int MAX_BATCH = Integer.getInteger("pos.db.groupCommitMax", 64);
+
+    private static final BlockingQueue<Job<?>> queue = new LinkedBlockingQueue<>();
+    private static volatile Thread writer;
+    private static volatile boolean running = false;
+
+    // Estadísticas (para diagnóstico)
+    private static final AtomicLong commits = new AtomicLong();
+    private static final AtomicLong tasks = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Encola una escritura. El futuro se completa cuando el grupo donde cayó
+     * se confirma (o con la excepción si la tarea o el commit fallan).
+     */
+    public static <T> CompletableFuture<T> submit(Task<T> task) {
+        Job<T> job = new Job<>(task);
+
+        // Tarea encolada desde el propio escritor: se ejecuta ahí mismo
+        // (esperar su futuro desde este hilo sería un deadlock)
+        if (Thread.currentThread() == writer) {
+            try {
+                job.future.complete(task.run(currentConnection));
+            } catch (SQLException | RuntimeException e) {
+                job.future.completeExceptionally(e);
+            }
+            return job.future;
+        }
+
+        ensureStarted();
+        queue.add(job);
+        return job.future;
+    }
+
+    /**
+     * Encola una escritura y espera a que quede confirmada.
+     * Para llamadores que necesitan el resultado (ids, filas afectadas).
+     */
+    public static <T> T execute(Task<T> task) throws SQLException {
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof SQLException s) throw s;
+            if (c instanceof RuntimeException r) throw r;
+            throw new SQLException(c);
+        }
+    }
+
+    /** Resumen de actividad: commits, tareas y tamaño promedio de grupo. */
+    public static String stats() {
+        long c = commits.get(), t = tasks.get();
+        return String.format("WriteQueue[commits=%d tareas=%d fallidas=%d promedio/commit=%.1f pendientes=%d]",
+                c, t, failures.get(), c == 0 ? 0.0 : t / (double) c, queue.size());
+    }
+
+    /** Detiene el escritor después de vaciar lo pendiente (al cerrar la aplicación). */
+    public static void shutdown() {
+        Thread w;
+        synchronized (WriteQueue.class) {
+            w = writer;
+            if (w == null) return;
+            running = false;
+        }
+        w.interrupt();
+        try {
+            w.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (WriteQueue.class) {
+            writer = null;
+        }
+    }
+
+    // ============================================================
+    // HILO ESCRITOR
+    // ============================================================
+
+    // Conexión en uso por el escritor (solo se lee desde ese mismo hilo)
+    private static Connection currentConnection;
+
+    private static synchronized void ensureStarted() {
+        if (writer != null) return;
+        running = true;
+        writer = new Thread(WriteQueue::loop, "db-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static void loop() {
+        List<Job<?>> batch = new ArrayList<>(MAX_BATCH);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Job<?> first = running ? queue.take() : queue.poll();
+                if (first == null) break;
+                batch.add(first);
+
+                // Junta lo que llegue dentro de la ventana
+                long deadline = System.nanoTime() + WINDOW_NANOS;
+                while (batch.size() < MAX_BATCH) {
+                    long left = deadline - System.nanoTime();
+                    Job<?> next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // shutdown(): se sigue vaciando la cola sin bloquear
+                if (batch.isEmpty()) continue;
+            }
+
+            runBatch(batch);
+            batch.clear();
+        }
+    }
+
+    // Ejecuta un grupo de tareas en una transacción y confirma una vez
+    private static void runBatch(List<Job<?>> batch) {
+        try (Connection cn = Database.get()) {
+            currentConnection = cn;
+            cn.setAutoCommit(false);
+
+            List<Job<?>> ok = new ArrayList<>(batch.size());
+            try (Statement st = cn.createStatement()) {
+                for (Job<?> job : batch) {
+                    st.execute("SAVEPOINT wq");
+                    try {
+                        job.run(cn);
+                        st.execute("RELEASE SAVEPOINT wq");
+                        ok.add(job);
+                    } catch (SQLException | RuntimeException e) {
+                        st.execute("ROLLBACK TO SAVEPOINT wq");
+                        st.execute("RELEASE SAVEPOINT wq");
+                        failures.incrementAndGet();
+                        job.future.completeExceptionally(e);
+                    }
+                }
+                cn.commit();
+                commits.incrementAndGet();
+            } catch (SQLException e) {
+                // Falló el commit (o el propio savepoint): nada del grupo quedó guardado
+                try { cn.rollback(); } catch (SQLException ignore) {}
+                for (Job<?> job : batch) {
+                    if (!job.future.isDone()) {
+                        failures.incrementAndGet();
+                        job.future.completeExceptionally(e);
+                    }
+                }
+                ok.clear();
+            } finally {
+                cn.setAutoCommit(true);
+                currentConnection = null;
+            }
+
+            tasks.addAndGet(batch.size());
+            for (Job<?> job : ok) job.complete();
+
+        } catch (SQLException e) {
+            // No se pudo obtener la conexión del escritor
+            System.err.println("[WriteQueue] Error de conexión: " + e.getMessage());
+            for (Job<?> job : batch) {
+                if (!job.future.isDone()) job.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Tarea + su futuro + resultado pendiente de confirmar
+    private static final class Job<T> {
+        final Task<T> task;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+
+        Job(Task<T> task) { this.task = task; }
+
+        void run(Connection cn) throws SQLException { result = task.run(cn); }
+
+        void complete() { future.complete(result); }
+    }
+
+    private WriteQueue() {}
+}
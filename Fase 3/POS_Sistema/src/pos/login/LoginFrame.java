@@ -3,10 +3,11 @@ package pos.login;
 import javax.swing.*;
 
 
-import pos.services.AuthService;
+import pos.services.Bootstrap;
 import pos.services.UserService;
 import pos.util.AuthState;
 import pos.util.ApiClient;
+import pos.util.Async;
 
 import java.awt.*;
 import java.awt.event.*;
@@ -162,49 +163,56 @@ public class LoginFrame extends JFrame {
             return;
         }
 
-        try {
-            // 1) LOGIN → obtiene token desde la API
-            AuthService.loginAndGetToken(user, pass);
+        // login en un hilo virtual (la ventana no se congela); con el token
+        // Bootstrap lanza en paralelo whoami, catálogo, dashboard, caja y usuarios
+        btnLogin.setEnabled(false);
+        lblError.setText("Conectando...");
+
+        Async.onEdt(Bootstrap.login(user, pass),
+                this::entrar,
+                ex -> {
+                    btnLogin.setEnabled(true);
+                    lblError.setText("Usuario o contraseña incorrectos.");
+                });
+    }
 
-            // 2) WHOAMI → obtenemos datos reales del usuario
-            JSONObject info = AuthService.whoami();
+    // Login correcto (en el EDT): guarda el estado y abre la ventana principal
+    private void entrar(JSONObject info) {
 
-            // ===== Normalizar rol según POS =====
-            String roleApi = info.getString("role").toUpperCase();
-            String rolePos;
+        // ===== Normalizar rol según POS =====
+        String roleApi = info.getString("role").toUpperCase();
+        String rolePos;
 
-            if (roleApi.equals("CASHIER")) {
-                rolePos = "CAJERO";
-            } else {
-                // ADMIN y SYSADMIN entran como ADMIN en el POS
-                rolePos = "ADMIN";
-            }
+        if (roleApi.equals("CASHIER")) {
+            rolePos = "CAJERO";
+        } else {
+            // ADMIN y SYSADMIN entran como ADMIN en el POS
+            rolePos = "ADMIN";
+        }
 
-            // ===== Guardar estado global =====
-            AuthState.TOKEN    = ApiClient.getToken();
-            AuthState.USERNAME = info.getString("username");  // <--- CAMBIADO
-            AuthState.ROLE     = rolePos;
-            AuthState.USER_ID  = info.getInt("id");           // <--- CAMBIADO
-            AuthState.STORE_ID = info.getInt("store_id"); 
-
-            // Mensaje de bienvenida
-            JOptionPane.showMessageDialog(this,
-                    "Bienvenido " + AuthState.USERNAME + " (" + AuthState.ROLE + ")",
-                    "Login correcto",
-                    JOptionPane.PLAIN_MESSAGE);
-
-            // Pasar token al UserService
-            UserService.TOKEN = AuthState.TOKEN;
-
-            // ===== Abrir ventana principal =====
-            SwingUtilities.invokeLater(() -> {
-                dispose();
-                new MainFrame(AuthState.USERNAME, AuthState.ROLE).setVisible(true);
-            });
+        // ===== Guardar estado global =====
+        AuthState.TOKEN    = ApiClient.getToken();
+        AuthState.USERNAME = info.getString("username");  // <--- CAMBIADO
+        AuthState.ROLE     = rolePos;
+        AuthState.USER_ID  = info.getInt("id");           // <--- CAMBIADO
+        AuthState.STORE_ID = info.getInt("store_id"); 
 
-        } catch (Exception ex) {
-            lblError.setText("Usuario o contraseña incorrectos.");
-        }
+        lblError.setText(" ");
+
+        // Mensaje de bienvenida
+        JOptionPane.showMessageDialog(this,
+                "Bienvenido " + AuthState.USERNAME + " (" + AuthState.ROLE + ")",
+                "Login correcto",
+                JOptionPane.PLAIN_MESSAGE);
+
+        // Pasar token al UserService
+        UserService.TOKEN = AuthState.TOKEN;
+
+        // ===== Abrir ventana principal =====
+        SwingUtilities.invokeLater(() -> {
+            dispose();
+            new MainFrame(AuthState.USERNAME, AuthState.ROLE).setVisible(true);
+        });
     }
 
 
@@ -0,0 +1,24 @@
+package pos.model;
+
+// Movimiento de caja informado por la API (apertura, cierre, etc.)
+public class CashMovement {
+
+    private final String type;     // tipo de movimiento (OPEN, CLOSE, ...)
+    private final String ts;       // fecha/hora tal como la envía la API
+    private final int amount;      // monto en pesos
+
+    public CashMovement(String type, String ts, int amount) {
+        this.type = type;
+        this.ts = ts;
+        this.amount = amount;
+    }
+
+    public String getType() { return type; }
+    public String getTs() { return ts; }
+    public int getAmount() { return amount; }
+
+    @Override
+    public String toString() {
+        return type + " " + ts + " $" + amount;
+    }
+}
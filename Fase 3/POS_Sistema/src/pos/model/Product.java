@@ -1,6 +1,8 @@
 package pos.model;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class Product {
@@ -17,6 +19,7 @@ public class Product {
     private int stock;
     private boolean active;       // API lo usa (true/false)
     private LocalDate expiry;     // POS lo usa (opcional)
+    private List<String> barcodes = List.of();   // códigos de barra alternativos (cajas, pack, etc.)
 
     // ======================================
     // Constructores originales (POS)
@@ -41,6 +44,20 @@ public class Product {
         this(0, code, name, category, price, stock, null);
     }
 
+    // Copia (el espejo de inventario entrega copias para que nadie altere su caché)
+    public Product(Product o) {
+        this.id = o.id;
+        this.code = o.code;
+        this.name = o.name;
+        this.category = o.category;
+        this.categoryId = o.categoryId;
+        this.price = o.price;
+        this.stock = o.stock;
+        this.active = o.active;
+        this.expiry = o.expiry;
+        this.barcodes = o.barcodes;   // lista inmutable: se puede compartir
+    }
+
     // ======================================
     // ✔ NUEVO CONSTRUCTOR PARA LA API
     // ======================================
@@ -90,6 +107,18 @@ public class Product {
     public LocalDate getExpiry() { return expiry; }
     public void setExpiry(LocalDate expiry) { this.expiry = expiry; }
 
+    /** Códigos alternativos (además de getCode()); nunca null. */
+    public List<String> getBarcodes() { return barcodes; }
+    public void setBarcodes(List<String> barcodes) {
+        List<String> list = new ArrayList<>();
+        if (barcodes != null) {
+            for (String b : barcodes) {
+                if (b != null && !b.isBlank()) list.add(b.trim());
+            }
+        }
+        this.barcodes = List.copyOf(list);
+    }
+
     // ======================================
     // Métodos utilitarios
     // ======================================
@@ -0,0 +1,200 @@
+package pos.services;
+
+import org.json.JSONObject;
+import pos.db.DatabaseInit;
+import pos.model.Product;
+import pos.model.User;
+import pos.util.Async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Arranque después del login.
+ *
+ * Antes: login → whoami → MainFrame creaba cada panel y cada uno hacía su
+ * propia llamada a la API, una detrás de otra (el inventario se pedía más
+ * de una vez). Ahora, apenas hay token, se lanzan EN PARALELO todas las
+ * consultas independientes:
+ *
+ *   whoami · catálogo · dashboard · caja activa · usuarios
+ *
+ * La ventana se abre cuando llega whoami (se necesita el rol) y cada panel
+ * toma el resultado ya pedido (catalog(), dashboard(), users()) en vez de
+ * repetir la llamada. Cuando terminaron todas las consultas Y la ventana
+ * quedó armada (mark("ventana")) se imprime el tiempo de cada etapa.
+ *
+ * Los resultados se comparten solo durante pos.boot.shareSec (30 s) después
+ * de llegar: un panel creado más tarde vuelve a consultar.
+ */
+public final class Bootstrap {
+
+    private static final long SHARE_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.getLong("pos.boot.shareSec", 30));
+
+    // Etapas del arranque en curso (en orden de lanzamiento)
+    private static final Map<String, Stage<?>> stages = new ConcurrentHashMap<>();
+    private static volatile long startedAt;
+    private static volatile CompletableFuture<Void> windowReady = new CompletableFuture<>();
+
+    private static final class Stage<T> {
+        final String name;
+        final long launched = System.nanoTime();   // orden en el reporte
+        final long start;
+        final CompletableFuture<T> future;
+        final CompletableFuture<Void> done;   // se completa DESPUÉS de anotar el tiempo
+        volatile long end;             // 0 = en curso
+        volatile boolean failed;
+
+        Stage(String name, CompletableFuture<T> future) {
+            this.name = name;
+            this.start = launched;
+            this.future = future;
+            this.done = future.handle((v, e) -> {
+                end = System.nanoTime();
+                failed = e != null;
+                return null;
+            });
+        }
+
+        // Etapa ya terminada, medida desde 'start' (ej: marcas de la UI)
+        Stage(String name, long start, long end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.future = CompletableFuture.completedFuture(null);
+            this.done = CompletableFuture.completedFuture(null);
+        }
+
+        double millis() {
+            return ((end == 0 ? System.nanoTime() : end) - start) / 1_000_000.0;
+        }
+    }
+
+    // ============================================================
+    // ARRANQUE
+    // ============================================================
+
+    /**
+     * Login y arranque en paralelo.
+     * @return whoami (datos del usuario); el resto sigue cargándose
+     */
+    public static CompletableFuture<JSONObject> login(String username, String password) {
+        startedAt = System.nanoTime();
+        stages.clear();
+        windowReady = new CompletableFuture<>();
+
+        CompletableFuture<String> token = stage("login",
+                () -> Async.supply(() -> AuthService.loginAndGetToken(username, password)));
+
+        return token.thenCompose(t -> start());
+    }
+
+    /**
+     * Lanza todas las consultas de arranque (ya debe haber token).
+     * Corre en el hilo virtual del login, no en el EDT.
+     */
+    private static CompletableFuture<JSONObject> start() {
+        // El catálogo escribe en catalog / sync_state: el esquema debe estar
+        // al día ANTES de lanzar las etapas (MainFrame se crea recién después)
+        try {
+            DatabaseInit.initialize();
+        } catch (IllegalStateException e) {
+            // MainFrame vuelve a intentarlo y muestra el error fatal
+            System.err.println("[Bootstrap] " + e.getMessage());
+        }
+
+        CompletableFuture<JSONObject> who = stage("whoami", () -> Async.supply(AuthService::whoami));
+
+        stage("catálogo", InventoryMirror::refreshAsync);
+        stage("caja", CashService::getActiveSessionIdAsync);
+        stage("dashboard", ReportApi::getDashboardAsync);
+        stage("usuarios", UserService::getAllAsync);   // solo admin: a un cajero le responde 403
+
+        // El reporte espera también a la ventana (tiempo hasta poder vender)
+        CompletableFuture<Void> window = windowReady;
+        CompletableFuture.allOf(stages.values().stream()
+                        .map(s -> s.done)
+                        .toArray(CompletableFuture[]::new))
+                .thenCombine(window, (a, b) -> null)
+                .thenRun(() -> System.out.println(report()));
+
+        return who;
+    }
+
+    /**
+     * Marca una etapa de la UI (ej: "ventana" al terminar de armar MainFrame),
+     * medida desde el inicio del login. La primera marca habilita el reporte.
+     */
+    public static void mark(String name) {
+        long start = startedAt;
+        if (start == 0) return;
+        stages.put(name, new Stage<>(name, start, System.nanoTime()));
+        windowReady.complete(null);
+    }
+
+    // ============================================================
+    // RESULTADOS COMPARTIDOS
+    // ============================================================
+
+    /** Catálogo: copias del espejo recién sincronizado por el arranque. */
+    public static CompletableFuture<List<Product>> catalog() {
+        CompletableFuture<?> boot = sharedStage("catálogo");
+        return boot != null
+                ? boot.thenApply(x -> InventoryMirror.getAll())   // cada panel recibe sus copias
+                : InventoryMirror.refreshAsync();
+    }
+
+    public static CompletableFuture<JSONObject> dashboard() {
+        CompletableFuture<JSONObject> f = shared("dashboard", ReportApi::getDashboardAsync);
+        return f.thenApply(j -> j == null ? null : new JSONObject(j.toString()));   // copia por panel
+    }
+
+    public static CompletableFuture<List<User>> users() {
+        CompletableFuture<List<User>> f = shared("usuarios", UserService::getAllAsync);
+        return f.thenApply(ArrayList::new);
+    }
+
+    /** Tiempos del último arranque, en el orden en que se lanzaron. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("[Bootstrap]");
+        stages.values().stream()
+                .sorted((a, b) -> Long.compare(a.launched, b.launched))
+                .forEach(s -> sb.append(String.format(" %s %.0f ms%s |",
+                        s.name, s.millis(), s.failed ? " (error)" : s.end == 0 ? " (en curso)" : "")));
+
+        long last = stages.values().stream().mapToLong(s -> s.end).max().orElse(startedAt);
+        sb.append(String.format(" total %.0f ms", (Math.max(last, startedAt) - startedAt) / 1_000_000.0));
+        return sb.toString();
+    }
+
+    // ============================================================
+    // INTERNOS
+    // ============================================================
+    private static <T> CompletableFuture<T> stage(String name, Supplier<CompletableFuture<T>> call) {
+        Stage<T> s = new Stage<>(name, call.get());
+        stages.put(name, s);
+        return s.future;
+    }
+
+    // Futuro del arranque si todavía sirve (en curso o recién llegado)
+    private static CompletableFuture<?> sharedStage(String name) {
+        Stage<?> s = stages.get(name);
+        if (s == null || s.failed) return null;
+        long end = s.end;
+        return end == 0 || System.nanoTime() - end < SHARE_NANOS ? s.future : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> shared(String name, Supplier<CompletableFuture<T>> fresh) {
+        CompletableFuture<?> boot = sharedStage(name);
+        return boot != null ? (CompletableFuture<T>) boot : fresh.get();
+    }
+
+    private Bootstrap() {}
+}
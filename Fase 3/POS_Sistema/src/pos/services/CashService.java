@@ -5,19 +5,81 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 import org.json.JSONObject;
 import pos.util.ApiClient;
+import pos.util.Async;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 public class CashService {
 
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
-    // NO vamos a confiar en memoria vieja, pero dejamos la variable
-    private static Integer activeSessionId = null;
+    // =========================================================
+    // CACHÉ DE LA CAJA ACTIVA
+    // La sesión casi nunca cambia durante el día: se guarda por
+    // pos.cash.sessionTtlSec (60 s) y así cada venta no paga un
+    // GET /v1/cash/active. openCash / closeCash la actualizan al
+    // instante; si varias llamadas la piden a la vez mientras está
+    // vencida, comparten UNA sola consulta a la API (inFlight).
+    // Cada apertura / cierre sube 'generation': una consulta que
+    // empezó antes y termina después trae un dato viejo y se descarta
+    // (si no, revivía la caja recién cerrada por todo un TTL).
+    // =========================================================
+    private static final long TTL_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.getLong("pos.cash.sessionTtlSec", 60));
+
+    private static final Object lock = new Object();
+
+    // Última sesión conocida (puede estar vencida: sirve de respaldo sin red)
+    private static volatile Integer activeSessionId = null;
+    private static volatile long fetchedAt = 0;           // System.nanoTime() de la última confirmación
+
+    // Consulta en curso y generación de la sesión (protegidas por lock)
+    private static CompletableFuture<Integer> inFlight = null;
+    private static long generation = 0;
 
     // =========================================================
     // 🔥 RESET (para forzar recargar sesión desde API)
     // =========================================================
     public static void resetSession() {
-        activeSessionId = null;
+        expire();
+    }
+
+    // Marca la sesión como vencida (se conserva como respaldo sin red)
+    private static void expire() {
+        synchronized (lock) {
+            fetchedAt = System.nanoTime() - TTL_NANOS;
+        }
+    }
+
+    // Apertura / cierre desde este POS: nueva sesión conocida y las
+    // consultas en curso quedan viejas
+    private static void replace(Integer sessionId) {
+        synchronized (lock) {
+            generation++;
+            inFlight = null;
+            activeSessionId = sessionId;
+            fetchedAt = System.nanoTime();
+        }
+    }
+
+    // Guarda (o borra) lo que respondió una consulta iniciada en 'gen'.
+    // Si entretanto se abrió o cerró la caja, se descarta y se devuelve
+    // la sesión vigente.
+    private static Integer remember(Integer sessionId, long gen) {
+        synchronized (lock) {
+            if (gen != generation) return activeSessionId;
+            activeSessionId = sessionId;
+            fetchedAt = System.nanoTime();
+            return sessionId;
+        }
+    }
+
+    private static Integer fresh() {
+        Integer id = activeSessionId;
+        return id != null && System.nanoTime() - fetchedAt < TTL_NANOS ? id : null;
     }
 
     // =========================================================
@@ -41,8 +103,8 @@ public class CashService {
         JSONObject json = new JSONObject(raw);
         int sessionId = json.getInt("id");
 
-        // Guardamos la nueva sesión
-        activeSessionId = sessionId;
+        // Guardamos la nueva sesión (no hace falta volver a consultarla)
+        replace(sessionId);
 
         System.out.println("🟢 Caja abierta con éxito. session_id = " + sessionId);
 
@@ -50,27 +112,132 @@ public class CashService {
     }
 
     // =========================================================
-    // 2) OBTENER CAJA ACTIVA (siempre consulta API)
-    // GET /v1/cash/active
+    // 2) OBTENER CAJA ACTIVA (caché con TTL)
+    // GET /v1/cash/active solo si la sesión guardada venció
     // =========================================================
     public static int getActiveSessionId() throws Exception {
+        Integer id = fresh();
+        if (id != null) return id;
 
-        // ❗ Siempre consultamos a la API para evitar usar sesiones antiguas
-        Response res = ApiClient.get("/v1/cash/active");
-        String raw = res.body().string();
+        try {
+            return lookup().join();
+        } catch (CompletionException e) {
+            Throwable cause = Async.unwrap(e);
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
 
-        if (!res.isSuccessful()) {
-            throw new Exception("No hay caja activa (" + raw + ")");
+    /** Ignora la caché y consulta la API (ej: para confirmar antes de cerrar). */
+    public static int refreshActiveSessionId() throws Exception {
+        expire();   // vencida → la próxima lectura consulta
+        return getActiveSessionId();
+    }
+
+    // Una sola consulta en curso: los demás llamadores esperan la misma
+    private static CompletableFuture<Integer> lookup() {
+        synchronized (lock) {
+            if (inFlight != null) return inFlight;
+
+            long gen = generation;
+            CompletableFuture<Integer> f = Async.supply(() -> fetchActiveSession(gen));
+            inFlight = f;
+            f.whenComplete((id, e) -> {
+                synchronized (lock) {
+                    if (inFlight == f) inFlight = null;
+                }
+            });
+            return f;
         }
+    }
 
-        JSONObject json = new JSONObject(raw);
+    private static int fetchActiveSession(long gen) throws Exception {
 
-        int sessionId = json.getInt("id");
-        activeSessionId = sessionId; // actualizamos siempre
+        try (Response res = ApiClient.get("/v1/cash/active")) {
+            String raw = res.body().string();
 
-        System.out.println("🟢 Caja activa API detectada (refrescada). session_id = " + sessionId);
+            int code = res.code();
 
-        return sessionId;
+            // 5xx / 408 / 429: la API no pudo responder → NO se borra la última
+            // sesión conocida (sessionIdForSale la usa como respaldo)
+            if (code >= 500 || code == 408 || code == 429) {
+                throw new ApiUnavailableException("API no disponible (HTTP " + code + ")");
+            }
+
+            // Solo un 404 (o un 200 sin id) confirma que no hay caja abierta
+            if (code == 404) {
+                Integer opened = remember(null, gen);
+                if (opened != null) return opened;   // se abrió una caja mientras tanto
+                throw new Exception("No hay caja activa (" + raw + ")");
+            }
+
+            if (!res.isSuccessful()) {
+                throw new Exception("Error consultando caja activa (HTTP " + code + "): " + raw);
+            }
+
+            JSONObject json = new JSONObject(raw);
+            if (json.isNull("id")) {
+                Integer opened = remember(null, gen);
+                if (opened != null) return opened;
+                throw new Exception("No hay caja activa (" + raw + ")");
+            }
+
+            Integer sessionId = remember(json.getInt("id"), gen);
+            if (sessionId == null) throw new Exception("No hay caja activa (cerrada durante la consulta)");
+
+            System.out.println("🟢 Caja activa API detectada (refrescada). session_id = " + sessionId);
+
+            return sessionId;
+        }
+    }
+
+    // =========================================================
+    // 2.1) SESIÓN PARA REGISTRAR UNA VENTA
+    // El cobro NO espera a la red: si hay una sesión conocida se usa
+    // de inmediato, aunque el TTL haya vencido, y la confirmación se
+    // pide en segundo plano (una sola consulta, ver lookup). La venta
+    // queda en SaleOutbox y la API valida la sesión al recibirla.
+    // Solo si nunca se conoció una sesión hay que consultar; si la API
+    // no responde (error de red, timeout o 5xx) se informa el error.
+    // =========================================================
+
+    /**
+     * Sesión para el cobro sin bloquear: ya completada si hay una sesión
+     * conocida. Los paneles la piden ANTES de abrir el diálogo de cobro.
+     */
+    public static CompletableFuture<Integer> sessionIdForSaleAsync() {
+        Integer last = activeSessionId;
+        if (last == null) return lookup();
+
+        if (fresh() == null) {
+            lookup().exceptionally(e -> {
+                System.err.println("[CashService] No se pudo confirmar la caja activa: "
+                        + Async.unwrap(e).getMessage());
+                return null;
+            });
+        }
+        return CompletableFuture.completedFuture(last);
+    }
+
+    /**
+     * Igual que sessionIdForSaleAsync, esperando la consulta si nunca se
+     * conoció una sesión. No usar en el EDT (la usa el simulador de cajas).
+     */
+    public static int sessionIdForSale() throws Exception {
+        try {
+            return sessionIdForSaleAsync().join();
+        } catch (CompletionException e) {
+            Throwable cause = Async.unwrap(e);
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    /** La API respondió 5xx / 408 / 429: se trata igual que un error de red. */
+    public static class ApiUnavailableException extends IOException {
+        public ApiUnavailableException(String message) {
+            super(message);
+        }
     }
 
     // =========================================================
@@ -91,10 +258,27 @@ public class CashService {
         String raw = res.body().string();
 
         if (!res.isSuccessful()) {
+            expire();   // puede que la sesión guardada ya no sea la activa
             throw new Exception("Error cerrando caja: " + raw);
         }
 
         System.out.println("🔴 Caja cerrada correctamente.");
-        activeSessionId = null; // la caja ya no existe
+        replace(null); // la caja ya no existe
+    }
+
+    // =========================================================
+    // ASÍNCRONO (hilo virtual, ver Async)
+    // =========================================================
+    public static CompletableFuture<Integer> openCashAsync(int registerId, int openingAmount) {
+        return Async.supply(() -> openCash(registerId, openingAmount));
+    }
+
+    public static CompletableFuture<Integer> getActiveSessionIdAsync() {
+        Integer id = fresh();
+        return id != null ? CompletableFuture.completedFuture(id) : lookup();
+    }
+
+    public static CompletableFuture<Void> closeCashAsync(int sessionId) {
+        return Async.supply(() -> { closeCash(sessionId); return null; });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,288 @@
+package pos.services;
+
+import pos.dao.CatalogDao;
+import pos.model.Product;
+import pos.util.Async;
+import pos.util.DataSync;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Espejo local del catálogo de la API.
+ *
+ * - Guarda los productos en SQLite (tabla catalog) y en memoria
+ * - sync() pide a la API solo lo modificado desde la última marca de agua
+ *   (?updated_since=...), en vez de descargar todo el catálogo cada vez
+ * - Cada cierto tiempo (pos.mirror.fullSyncHours, 12 h) hace una sincronización
+ *   completa para limpiar productos borrados físicamente en el servidor
+ * - Los paneles leen de aquí; si la API no responde, siguen funcionando con
+ *   la última copia local
+ *
+ * Siempre entrega COPIAS de los productos: los paneles pueden modificarlas
+ * (stock, precio) sin alterar el espejo.
+ *
+ * Cada cambio aplicado se publica en DataSync como ProductChanged con los IDs
+ * afectados (todos, si fue una sincronización completa).
+ */
+public final class InventoryMirror {
+
+    private static final long FULL_SYNC_HOURS = Long.getLong("pos.mirror.fullSyncHours", 12);
+
+    // Foto inmutable del catálogo: se reemplaza completa en cada cambio
+    private static volatile Snapshot snapshot;
+
+    // Código / código alternativo → producto; se actualiza por producto junto con la foto
+    private static final ProductIndex index = new ProductIndex();
+
+    // Una sola sincronización a la vez.
+    // ReentrantLock y no synchronized: sync() espera la red con el candado
+    // tomado, y un hilo virtual bloqueado dentro de synchronized no suelta
+    // su hilo portador (con 1 CPU frenaría a todos los demás hilos virtuales)
+    private static final ReentrantLock syncLock = new ReentrantLock();
+
+    // ============================================================
+    // LECTURA
+    // ============================================================
+
+    /** Catálogo local (copias), ordenado por nombre. No va a la red. */
+    public static List<Product> getAll() {
+        List<Product> src = snapshot().ordered;
+        List<Product> out = new ArrayList<>(src.size());
+        for (Product p : src) out.add(new Product(p));
+        return out;
+    }
+
+    /** Producto por ID de la API (copia) o null. No va a la red. */
+    public static Product findById(int id) {
+        Product p = snapshot().byId.get(id);
+        return p == null ? null : new Product(p);
+    }
+
+    /**
+     * Producto por código o código alternativo (copia) o null. No va a la red.
+     * No distingue mayúsculas ni espacios alrededor (ver ProductIndex).
+     */
+    public static Product findByCode(String code) {
+        snapshot();                                   // asegura la carga inicial
+        Product p = index.find(code);
+        return p == null ? null : new Product(p);
+    }
+
+    /**
+     * Sincroniza los cambios y devuelve el catálogo.
+     * Si la API falla se usa la copia local; solo lanza la excepción si
+     * no hay nada local que mostrar (primer arranque sin conexión).
+     */
+    public static List<Product> refresh() throws Exception {
+        try {
+            sync();
+        } catch (Exception e) {
+            if (snapshot().ordered.isEmpty()) throw e;
+            System.err.println("[InventoryMirror] Sin conexión, se usa copia local: " + e.getMessage());
+        }
+        return getAll();
+    }
+
+    /** refresh() en un hilo virtual (ver Async): para llamar desde la UI. */
+    public static CompletableFuture<List<Product>> refreshAsync() {
+        return Async.supply(InventoryMirror::refresh);
+    }
+
+    // ============================================================
+    // SINCRONIZACIÓN
+    // ============================================================
+
+    /**
+     * Trae los cambios desde la API y los aplica (SQLite + memoria).
+     * @return cantidad de productos creados/modificados/eliminados
+     */
+    public static int sync() throws Exception {
+        syncLock.lock();
+        try {
+
+            CatalogDao.SyncState st = CatalogDao.state();
+            boolean full = st.getWatermark() == null || fullSyncDue(st.getFullAt());
+
+            long t0 = System.nanoTime();
+            InventoryService.Changes ch = InventoryService.getChangedSince(full ? null : st.getWatermark());
+
+            int changes = ch.getProducts().size() + ch.getDeletedIds().size();
+
+            if (full) {
+                CatalogDao.apply(ch.getProducts(), List.of(), ch.getWatermark(), true);
+                snapshot = new Snapshot(ch.getProducts());
+                index.replaceAll(snapshot.byId.values());
+                DataSync.publish(DataSync.ProductChanged.ALL);
+
+            } else if (changes > 0 || !ch.getWatermark().equals(st.getWatermark())) {
+                CatalogDao.apply(ch.getProducts(), ch.getDeletedIds(), ch.getWatermark(), false);
+                snapshot = snapshot().with(ch.getProducts(), ch.getDeletedIds());
+                index.apply(ch.getProducts(), ch.getDeletedIds());
+                if (changes > 0) DataSync.publish(DataSync.ProductChanged.of(changedIds(ch)));
+            }
+
+            System.out.printf("[InventoryMirror] Sync %s: %d cambios (%.1f ms)%n",
+                    full ? "completo" : "delta", changes, (System.nanoTime() - t0) / 1_000_000.0);
+            return changes;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Refleja un cambio hecho desde este POS (ej: updateProduct) sin esperar al sync. */
+    static void applyLocal(Product p) {
+        if (p == null || p.getId() <= 0) return;   // sin ID de la API no se puede ubicar
+        Product copy = new Product(p);
+        syncLock.lock();
+        try {
+            // Los formularios no editan los códigos alternativos: se conservan
+            Product old = snapshot().byId.get(copy.getId());
+            if (copy.getBarcodes().isEmpty() && old != null) copy.setBarcodes(old.getBarcodes());
+            upsertLocked(copy);
+        } finally {
+            syncLock.unlock();
+        }
+        DataSync.publish(DataSync.ProductChanged.of(List.of(copy.getId())));
+    }
+
+    /** Entrada (+) / salida (−) de stock hecha desde este POS (ver InventoryService). */
+    static void adjustStockLocal(int id, int delta) {
+        syncLock.lock();
+        try {
+            Product old = snapshot().byId.get(id);
+            if (old == null) return;                  // aún no está en el espejo: llega con el sync
+            Product copy = new Product(old);
+            copy.setStock(Math.max(0, old.getStock() + delta));
+            upsertLocked(copy);
+        } finally {
+            syncLock.unlock();
+        }
+        DataSync.publish(DataSync.ProductChanged.of(List.of(id)));
+    }
+
+    // SQLite + foto + índice (con syncLock tomado)
+    private static void upsertLocked(Product copy) {
+        CatalogDao.upsert(copy);
+        snapshot = snapshot().with(List.of(copy), List.of());
+        index.upsert(copy);
+    }
+
+    /** Quita del espejo un producto eliminado desde este POS. */
+    static void removeLocal(int id) {
+        CatalogDao.delete(id);
+        syncLock.lock();
+        try {
+            snapshot = snapshot().with(List.of(), List.of(id));
+            index.remove(id);
+        } finally {
+            syncLock.unlock();
+        }
+        DataSync.publish(DataSync.ProductChanged.of(List.of(id)));
+    }
+
+    private static List<Integer> changedIds(InventoryService.Changes ch) {
+        List<Integer> ids = new ArrayList<>(ch.getDeletedIds());
+        for (Product p : ch.getProducts()) ids.add(p.getId());
+        return ids;
+    }
+
+    // ¿Toca sincronización completa?
+    private static boolean fullSyncDue(String fullAt) {
+        if (fullAt == null) return true;
+        try {
+            return LocalDateTime.parse(fullAt).plusHours(FULL_SYNC_HOURS).isBefore(LocalDateTime.now());
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    // Carga perezosa desde SQLite (la primera vez que alguien lee)
+    private static Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        syncLock.lock();
+        try {
+            if (snapshot == null) {
+                Snapshot loaded = new Snapshot(CatalogDao.loadAll());
+                index.replaceAll(loaded.byId.values());
+                snapshot = loaded;
+            }
+            return snapshot;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // ============================================================
+    // FOTO INMUTABLE DEL CATÁLOGO
+    // ============================================================
+    private static final class Snapshot {
+
+        // Por nombre; el ID desempata para que la búsqueda binaria ubique cada producto
+        static final Comparator<Product> BY_NAME =
+                Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparingInt(Product::getId);
+
+        // Sobre esta cantidad de cambios conviene ordenar de nuevo en vez de
+        // insertar uno por uno (cada inserción corre el resto del arreglo)
+        static final int RESORT_CHANGES = 512;
+
+        final Map<Integer, Product> byId;
+        final List<Product> ordered;
+
+        Snapshot(Collection<Product> products) {
+            byId = new HashMap<>();
+            for (Product p : products) byId.put(p.getId(), p);
+
+            ordered = new ArrayList<>(byId.values());
+            ordered.sort(BY_NAME);
+        }
+
+        private Snapshot(Map<Integer, Product> byId, List<Product> ordered) {
+            this.byId = byId;
+            this.ordered = ordered;
+        }
+
+        // Nueva foto con cambios aplicados (la actual no se modifica).
+        // Solo se quitan / insertan los productos cambiados (búsqueda binaria),
+        // sin volver a ordenar todo el catálogo.
+        Snapshot with(Collection<Product> upserts, Collection<Integer> deletedIds) {
+            if (upserts.size() + deletedIds.size() > RESORT_CHANGES) {
+                Map<Integer, Product> next = new HashMap<>(byId);
+                for (Integer id : deletedIds) next.remove(id);
+                for (Product p : upserts) next.put(p.getId(), p);
+                return new Snapshot(next.values());
+            }
+
+            Map<Integer, Product> nextById = new HashMap<>(byId);
+            List<Product> nextOrdered = new ArrayList<>(ordered);
+
+            for (Integer id : deletedIds) unlink(nextById, nextOrdered, id);
+            for (Product p : upserts) {
+                unlink(nextById, nextOrdered, p.getId());
+                int at = Collections.binarySearch(nextOrdered, p, BY_NAME);
+                nextOrdered.add(at < 0 ? -at - 1 : at, p);
+                nextById.put(p.getId(), p);
+            }
+            return new Snapshot(nextById, nextOrdered);
+        }
+
+        private static void unlink(Map<Integer, Product> byId, List<Product> ordered, int id) {
+            Product old = byId.remove(id);
+            if (old == null) return;
+            int at = Collections.binarySearch(ordered, old, BY_NAME);
+            if (at >= 0) ordered.remove(at);
+        }
+    }
+
+    private InventoryMirror() {}
+}
@@ -3,21 +3,26 @@ package pos.services;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import pos.model.Product;
 import pos.util.ApiClient;
+import pos.util.Async;
+import pos.util.HttpCache;
 
-import java.time.LocalDate;
-import java.util.ArrayList;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class InventoryService {
 
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
     // =========================================================
-    // 1) Obtener todos los productos
+    // 1) Obtener todos los productos (descarga completa)
+    //    Los paneles NO deben llamar esto directamente: usan
+    //    InventoryMirror, que solo pide los cambios.
     // =========================================================
     public static List<Product> getAll() throws Exception {
 
@@ -28,39 +33,67 @@ public class InventoryService {
             throw new Exception("Error API: " + res.code());
         }
 
-        String raw = res.body().string();
-        res.close();
+        // Streaming: los productos se crean mientras llega el cuerpo
+        try (res) {
+            return JsonStreams.readProducts(res.body().charStream());
+        }
+    }
+
+
+    // =========================================================
+    // 1.0) Cambios desde una marca de agua (sincronización delta)
+    // =========================================================
 
-        JSONArray arr = new JSONArray(raw);
-        List<Product> list = new ArrayList<>();
+    /** Resultado de una consulta delta al catálogo. */
+    public static final class Changes {
+        private final List<Product> products;      // creados o modificados
+        private final List<Integer> deletedIds;    // eliminados en la API
+        private final String watermark;            // mayor updated_at recibido
 
-        for (int i = 0; i < arr.length(); i++) {
+        Changes(List<Product> products, List<Integer> deletedIds, String watermark) {
+            this.products = products;
+            this.deletedIds = deletedIds;
+            this.watermark = watermark;
+        }
 
-            JSONObject o = arr.getJSONObject(i);
+        public List<Product> getProducts() { return products; }
+        public List<Integer> getDeletedIds() { return deletedIds; }
+        public String getWatermark() { return watermark; }
+    }
 
-            int price = o.isNull("sale_price") ? 0 : (int) Math.round(o.getDouble("sale_price"));
-            int stock = o.isNull("stock") ? 0 : o.getInt("stock");
-            String desc = o.isNull("description") ? "" : o.getString("description");
+    /**
+     * Productos modificados desde 'since' (updated_at ISO-8601).
+     * Con since = null se pide el catálogo completo.
+     *
+     * La API compara updated_at >= since, así que los productos del borde
+     * pueden llegar dos veces: el espejo hace upsert, no importa.
+     * Si la API no informa updated_at, la marca de agua queda igual (null)
+     * y la próxima sincronización vuelve a ser completa: nunca se pierden cambios.
+     */
+    public static Changes getChangedSince(String since) throws Exception {
+
+        String endpoint = "/v1/inventory/products";
+        if (since != null) {
+            endpoint += "?updated_since=" + URLEncoder.encode(since, StandardCharsets.UTF_8);
+        }
 
-            // Expiry date (API)
-            String expiryStr = o.isNull("expiry_date") ? null : o.getString("expiry_date");
-            LocalDate expiry = (expiryStr == null) ? null : LocalDate.parse(expiryStr);
+        Response res = ApiClient.get(endpoint);
 
-            Product p = new Product(
-                    o.getInt("id"),
-                    o.getString("code"),
-                    o.getString("name"),
-                    desc,
-                    price,
-                    stock,
-                    expiry
-            );
+        if (!res.isSuccessful()) {
+            res.close();
+            throw new Exception("Error API al sincronizar inventario: " + res.code());
+        }
 
-            p.setActive(o.getBoolean("is_active"));
-            list.add(p);
+        // Misma consulta delta y el servidor respondió 304 → no hubo cambios
+        if (since != null && HttpCache.notModified(res)) {
+            res.close();
+            return new Changes(List.of(), List.of(), since);
         }
 
-        return list;
+        // Borrado lógico (deleted / deleted_at) y marca de agua: ver JsonStreams.readChanges
+        try (res) {
+            return JsonStreams.readChanges(res.body().charStream(), since);
+        }
     }
 
 
@@ -76,33 +109,11 @@ public class InventoryService {
             throw new Exception("Error API buscando por código: " + res.code());
         }
 
-        String raw = res.body().string();
-        res.close();
-
-        JSONArray arr = new JSONArray(raw);
-        if (arr.length() == 0) return null;
-
-        JSONObject o = arr.getJSONObject(0);
-
-        int price = o.isNull("sale_price") ? 0 : (int) Math.round(o.getDouble("sale_price"));
-        int stock = o.isNull("stock") ? 0 : o.getInt("stock");
-        String desc = o.isNull("description") ? "" : o.getString("description");
-
-        String expiryStr = o.isNull("expiry_date") ? null : o.getString("expiry_date");
-        LocalDate expiry = (expiryStr == null) ? null : LocalDate.parse(expiryStr);
-
-        Product p = new Product(
-                o.getInt("id"),
-                o.getString("code"),
-                o.getString("name"),
-                desc,
-                price,
-                stock,
-                expiry
-        );
-
-        p.setActive(o.getBoolean("is_active"));
-        return p;
+        List<Product> list;
+        try (res) {
+            list = JsonStreams.readProducts(res.body().charStream());
+        }
+        return list.isEmpty() ? null : list.get(0);
     }
 
 
@@ -130,7 +141,19 @@ public class InventoryService {
             throw new Exception("Error API al crear producto: " + res.code());
         }
 
-        res.close();
+        // La API devuelve el producto creado: con su ID el espejo lo agrega
+        // sin esperar al próximo sync (sin ID, llega con el sync)
+        int id = 0;
+        try (res) {
+            String raw = res.body().string();
+            if (!raw.isBlank()) id = new JSONObject(raw).optInt("id", 0);
+        } catch (JSONException e) {
+            System.err.println("[InventoryService] Respuesta de alta sin JSON: " + e.getMessage());
+        }
+        if (id > 0) {
+            p.setId(id);
+            InventoryMirror.applyLocal(p);
+        }
     }
 
 
@@ -158,6 +181,7 @@ public class InventoryService {
         }
 
         res.close();
+        InventoryMirror.applyLocal(p);   // el espejo refleja el cambio sin esperar al próximo sync
     }
 
 
@@ -180,6 +204,7 @@ public class InventoryService {
         }
 
         res.close();
+        InventoryMirror.adjustStockLocal(productId, qty);
     }
 
 
@@ -202,6 +227,7 @@ public class InventoryService {
         }
 
         res.close();
+        InventoryMirror.adjustStockLocal(productId, -qty);
     }
 
 
@@ -218,5 +244,30 @@ public class InventoryService {
         }
 
         res.close();
+        InventoryMirror.removeLocal(productId);
+    }
+
+
+    // =========================================================
+    // 7) Variantes asíncronas (hilo virtual, ver Async)
+    // =========================================================
+    public static CompletableFuture<List<Product>> getAllAsync() {
+        return Async.supply(InventoryService::getAll);
+    }
+
+    public CompletableFuture<Product> getByCodeAsync(String code) {
+        return Async.supply(() -> getByCode(code));
+    }
+
+    public CompletableFuture<Void> createProductAsync(Product p) {
+        return Async.supply(() -> { createProduct(p); return null; });
+    }
+
+    public CompletableFuture<Void> updateProductAsync(Product p) {
+        return Async.supply(() -> { updateProduct(p); return null; });
+    }
+
+    public CompletableFuture<Void> deleteProductAsync(int productId) {
+        return Async.supply(() -> { deleteProduct(productId); return null; });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,197 @@
+package pos.services;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import pos.model.CashMovement;
+import pos.model.Product;
+import pos.model.Sale;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodificadores JSON "en streaming" (Gson JsonReader).
+ *
+ * Leen directo del cuerpo de la respuesta HTTP y crean los objetos del
+ * dominio a medida que avanzan: no se arma el String completo ni el árbol
+ * JSONArray/JSONObject. En memoria queda solo la lista final.
+ *
+ * Los campos desconocidos se saltan, y los null/ausentes toman el mismo
+ * valor por defecto que usaba el parseo anterior con org.json.
+ */
+public final class JsonStreams {
+
+    // ============================================================
+    // PRODUCTOS (/v1/inventory/products)
+    // ============================================================
+
+    /** Arreglo de productos → List<Product>. */
+    public static List<Product> readProducts(Reader in) throws IOException {
+        return readChanges(in, null).getProducts();
+    }
+
+    /**
+     * Arreglo de productos con borrados y marca de agua (sincronización delta).
+     * Los objetos con deleted=true o deleted_at se informan como eliminados.
+     */
+    public static InventoryService.Changes readChanges(Reader in, String since) throws IOException {
+        List<Product> products = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        String watermark = since;
+
+        try (JsonReader r = new JsonReader(in)) {
+            r.beginArray();
+            while (r.hasNext()) {
+
+                int id = 0, stock = 0, price = 0;
+                String code = "", name = "", desc = "", expiry = null, updated = null;
+                boolean active = true, isDeleted = false;
+                List<String> barcodes = List.of();
+
+                r.beginObject();
+                while (r.hasNext()) {
+                    String field = r.nextName();
+                    if (r.peek() == JsonToken.NULL) {       // null → valor por defecto
+                        r.nextNull();
+                        continue;
+                    }
+                    switch (field) {
+                        case "id"          -> id = r.nextInt();
+                        case "code"        -> code = r.nextString();
+                        case "name"        -> name = r.nextString();
+                        case "description" -> desc = r.nextString();
+                        case "sale_price"  -> price = (int) Math.round(r.nextDouble());
+                        case "stock"       -> stock = (int) Math.round(r.nextDouble());
+                        case "is_active"   -> active = r.nextBoolean();
+                        case "expiry_date" -> expiry = r.nextString();
+                        case "updated_at"  -> updated = r.nextString();
+                        case "deleted"     -> isDeleted |= r.nextBoolean();
+                        case "deleted_at"  -> { r.skipValue(); isDeleted = true; }
+                        case "barcodes"    -> barcodes = readStrings(r);
+                        default            -> r.skipValue();
+                    }
+                }
+                r.endObject();
+
+                if (isDeleted) {
+                    deleted.add(id);
+                } else {
+                    Product p = new Product(id, code, name, desc, price, stock,
+                            expiry == null ? null : LocalDate.parse(expiry));
+                    p.setActive(active);
+                    p.setBarcodes(barcodes);
+                    products.add(p);
+                }
+
+                if (updated != null && (watermark == null || updated.compareTo(watermark) > 0)) {
+                    watermark = updated;
+                }
+            }
+            r.endArray();
+        }
+
+        return new InventoryService.Changes(products, deleted, watermark);
+    }
+
+    // ["a", "b", ...] → List<String> (ignora null)
+    private static List<String> readStrings(JsonReader r) throws IOException {
+        List<String> list = new ArrayList<>();
+        r.beginArray();
+        while (r.hasNext()) {
+            if (r.peek() == JsonToken.NULL) r.nextNull();
+            else list.add(r.nextString());
+        }
+        r.endArray();
+        return list;
+    }
+
+    // ============================================================
+    // REPORTES
+    // ============================================================
+
+    /** /v1/reports/sales-range → List<Sale> (solo cabecera: id, doc, fecha, método, total, usuario). */
+    public static List<Sale> readSales(Reader in) throws IOException {
+        List<Sale> list = new ArrayList<>();
+
+        try (JsonReader r = new JsonReader(in)) {
+            r.beginArray();
+            while (r.hasNext()) {
+
+                String id = "", docType = "BOLETA", method = "cash", user = "API", ts = null;
+                int total = 0;
+
+                r.beginObject();
+                while (r.hasNext()) {
+                    String field = r.nextName();
+                    if (r.peek() == JsonToken.NULL) {
+                        r.nextNull();
+                        continue;
+                    }
+                    switch (field) {
+                        case "id"             -> id = r.nextString();   // acepta número o texto
+                        case "doc_type"       -> docType = r.nextString();
+                        case "ts"             -> ts = r.nextString();
+                        case "payment_method" -> method = r.nextString();
+                        case "total"          -> total = (int) Math.round(r.nextDouble());
+                        case "user"           -> user = r.nextString();
+                        default               -> r.skipValue();
+                    }
+                }
+                r.endObject();
+
+                if (ts == null) throw new IOException("Venta sin 'ts' en sales-range");
+
+                list.add(new Sale(
+                        id, docType, LocalDateTime.parse(ts), List.of(), method,
+                        0, 0, 0,
+                        0, 0,
+                        total,
+                        null,
+                        user
+                ));
+            }
+            r.endArray();
+        }
+        return list;
+    }
+
+    /** /v1/reports/cash-movements → List<CashMovement>. */
+    public static List<CashMovement> readCashMovements(Reader in) throws IOException {
+        List<CashMovement> list = new ArrayList<>();
+
+        try (JsonReader r = new JsonReader(in)) {
+            r.beginArray();
+            while (r.hasNext()) {
+
+                String type = "", ts = "";
+                int amount = 0;
+
+                r.beginObject();
+                while (r.hasNext()) {
+                    String field = r.nextName();
+                    if (r.peek() == JsonToken.NULL) {
+                        r.nextNull();
+                        continue;
+                    }
+                    switch (field) {
+                        case "type"   -> type = r.nextString();
+                        case "ts"     -> ts = r.nextString();
+                        case "amount" -> amount = (int) Math.round(r.nextDouble());
+                        default       -> r.skipValue();
+                    }
+                }
+                r.endObject();
+
+                list.add(new CashMovement(type, ts, amount));
+            }
+            r.endArray();
+        }
+        return list;
+    }
+
+    private JsonStreams() {}
+}
@@ -0,0 +1,100 @@
+package pos.services;
+
+import pos.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice código → producto para el escaneo en caja.
+ *
+ * - La clave se normaliza (sin espacios, MAYÚSCULAS): "abc-1 " y "ABC-1"
+ *   encuentran el mismo producto, igual que el equalsIgnoreCase de antes
+ * - Además del código principal indexa los códigos alternativos
+ *   (Product.getBarcodes)
+ * - Se actualiza por producto (upsert / remove) a medida que cambia el
+ *   catálogo: un sync delta no reconstruye el índice completo
+ *
+ * Lo mantiene InventoryMirror (con su candado tomado); la lectura no usa
+ * candados y cuesta lo mismo con 100 o con 100.000 productos.
+ * Si dos productos comparten un código gana el último que llegó.
+ */
+public final class ProductIndex {
+
+    // Un sync completo arma mapas nuevos y los publica de una vez (volatile):
+    // un escaneo nunca ve el índice a medio vaciar
+    private volatile Map<String, Product> byKey = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Product> byId = new HashMap<>();   // solo para quitar claves viejas
+
+    /** Clave normalizada de un código (null si está vacío). */
+    public static String normalize(String code) {
+        if (code == null) return null;
+        String k = code.trim();
+        return k.isEmpty() ? null : k.toUpperCase(Locale.ROOT);
+    }
+
+    /** Producto con ese código o código alternativo, o null. */
+    public Product find(String code) {
+        String k = normalize(code);
+        return k == null ? null : byKey.get(k);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // ============================================================
+    // MANTENCIÓN (la llama InventoryMirror)
+    // ============================================================
+
+    /** Reemplaza todo el contenido (carga inicial o sync completo). */
+    void replaceAll(Collection<Product> products) {
+        Map<String, Product> keys = new ConcurrentHashMap<>(products.size() * 2);
+        Map<Integer, Product> ids = new HashMap<>(products.size() * 2);
+        for (Product p : products) upsert(keys, ids, p);
+        byId = ids;
+        byKey = keys;
+    }
+
+    /** Aplica un lote de cambios. */
+    void apply(Collection<Product> upserts, Collection<Integer> deletedIds) {
+        for (Integer id : deletedIds) remove(id);
+        for (Product p : upserts) upsert(p);
+    }
+
+    void upsert(Product p) {
+        upsert(byKey, byId, p);
+    }
+
+    void remove(int id) {
+        Product old = byId.remove(id);
+        if (old != null) unlink(byKey, old);
+    }
+
+    private static void upsert(Map<String, Product> keys, Map<Integer, Product> ids, Product p) {
+        Product old = ids.put(p.getId(), p);
+        if (old != null) unlink(keys, old);
+        for (String k : keys(p)) keys.put(k, p);
+    }
+
+    // Quita las claves del producto solo si todavía apuntan a él
+    private static void unlink(Map<String, Product> keys, Product p) {
+        for (String k : keys(p)) keys.remove(k, p);
+    }
+
+    private static List<String> keys(Product p) {
+        List<String> keys = new ArrayList<>(1 + p.getBarcodes().size());
+        String main = normalize(p.getCode());
+        if (main != null) keys.add(main);
+        for (String b : p.getBarcodes()) {
+            String k = normalize(b);
+            if (k != null) keys.add(k);
+        }
+        return keys;
+    }
+}
@@ -2,14 +2,54 @@ package pos.services;
 
 import okhttp3.Response;
 import org.json.JSONObject;
-import org.json.JSONArray;
+import pos.model.CashMovement;
+import pos.model.Sale;
 import pos.util.ApiClient;
+import pos.util.Async;
+import pos.util.HttpCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ReportApi {
 
+    // Último resultado por URL: si la caché HTTP responde "sin cambios" (acierto
+    // o 304) se reutiliza sin volver a decodificar el cuerpo. Se guardan valores
+    // inmutables (texto del dashboard, List.copyOf de los listados) y cada
+    // llamador recibe SU copia: lo que un panel modifique no le llega a otro.
+    // Los elementos de los listados (Sale, CashMovement) son de solo lectura.
+    private static final Map<String, Object> parsed = new ConcurrentHashMap<>();
+
+    private static void remember(String endpoint, Object value) {
+        if (parsed.size() > 32) parsed.clear();   // muchos rangos distintos → no acumular
+        parsed.put(endpoint, value);
+    }
+
+    // Valor guardado si la respuesta no cambió (null = hay que leer el cuerpo)
+    private static Object reuseIfNotModified(String endpoint, Response res) {
+        if (!HttpCache.notModified(res)) return null;
+        Object prev = parsed.get(endpoint);
+        if (prev != null) res.close();
+        return prev;
+    }
+
+    // Copia propia de un listado guardado
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> copyOf(Object cached) {
+        return new ArrayList<>((List<T>) cached);
+    }
+
     public static JSONObject getDashboard() {
         try {
-            Response res = ApiClient.get("/v1/reports/dashboard");
+            String endpoint = "/v1/reports/dashboard";
+            Response res = ApiClient.get(endpoint);
+
+            Object prev = reuseIfNotModified(endpoint, res);
+            if (prev != null) return new JSONObject((String) prev);
+
             String raw = res.body().string();
 
             if (!res.isSuccessful()) {
@@ -17,7 +57,9 @@ public class ReportApi {
                 return null;
             }
 
-            return new JSONObject(raw);
+            JSONObject json = new JSONObject(raw);
+            remember(endpoint, raw);
+            return json;
 
         } catch (Exception e) {
             System.err.println("❌ getDashboard: " + e.getMessage());
@@ -25,39 +67,64 @@ public class ReportApi {
         }
     }
 
-    public static JSONArray getSalesRange(String desde, String hasta) {
-        try {
-            Response res = ApiClient.get("/v1/reports/sales-range?date_from=" + desde + "&date_to=" + hasta);
-            String raw = res.body().string();
+    // Los listados (pueden ser miles de filas) se decodifican en streaming desde
+    // el cuerpo de la respuesta: no se arma el String completo ni el JSONArray
+    public static List<Sale> getSalesRange(String desde, String hasta) {
+        String endpoint = "/v1/reports/sales-range?date_from=" + desde + "&date_to=" + hasta;
+        try (Response res = ApiClient.get(endpoint)) {
+
+            Object prev = reuseIfNotModified(endpoint, res);
+            if (prev != null) return copyOf(prev);
 
             if (!res.isSuccessful()) {
-                System.err.println("❌ Error sales-range: " + raw);
-                return new JSONArray();
+                System.err.println("❌ Error sales-range: " + res.body().string());
+                return List.of();
             }
 
-            return new JSONArray(raw);
+            List<Sale> list = JsonStreams.readSales(res.body().charStream());
+            remember(endpoint, List.copyOf(list));
+            return list;
 
         } catch (Exception e) {
             System.err.println("❌ getSalesRange: " + e.getMessage());
-            return new JSONArray();
+            return List.of();
         }
     }
 
-    public static JSONArray getCashMovements(String desde, String hasta) {
-        try {
-            Response res = ApiClient.get("/v1/reports/cash-movements?date_from=" + desde + "&date_to=" + hasta);
-            String raw = res.body().string();
+    public static List<CashMovement> getCashMovements(String desde, String hasta) {
+        String endpoint = "/v1/reports/cash-movements?date_from=" + desde + "&date_to=" + hasta;
+        try (Response res = ApiClient.get(endpoint)) {
+
+            Object prev = reuseIfNotModified(endpoint, res);
+            if (prev != null) return copyOf(prev);
 
             if (!res.isSuccessful()) {
-                System.err.println("❌ Error cash-movements: " + raw);
-                return new JSONArray();
+                System.err.println("❌ Error cash-movements: " + res.body().string());
+                return List.of();
             }
 
-            return new JSONArray(raw);
+            List<CashMovement> list = JsonStreams.readCashMovements(res.body().charStream());
+            remember(endpoint, List.copyOf(list));
+            return list;
 
         } catch (Exception e) {
             System.err.println("❌ getCashMovements: " + e.getMessage());
-            return new JSONArray();
+            return List.of();
         }
     }
+
+    // ============================================================
+    // ASÍNCRONO (hilo virtual, ver Async)
+    // ============================================================
+    public static CompletableFuture<JSONObject> getDashboardAsync() {
+        return Async.supply(ReportApi::getDashboard);
+    }
+
+    public static CompletableFuture<List<Sale>> getSalesRangeAsync(String desde, String hasta) {
+        return Async.supply(() -> getSalesRange(desde, hasta));
+    }
+
+    public static CompletableFuture<List<CashMovement>> getCashMovementsAsync(String desde, String hasta) {
+        return Async.supply(() -> getCashMovements(desde, hasta));
+    }
 }
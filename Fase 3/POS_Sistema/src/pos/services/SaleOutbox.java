@@ -0,0 +1,198 @@
+package pos.services;
+
+import pos.dao.SaleOutboxDao;
+import pos.model.Sale;
+import pos.util.Async;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bandeja de salida de ventas.
+ *
+ * - enqueue() guarda la venta en SQLite (sale_outbox) y vuelve de inmediato:
+ *   el cobro ya no espera el viaje a la API ni se pierde si la red falla
+ * - El hilo "sale-outbox" envía las pendientes en orden, en pasadas de hasta
+ *   pos.outbox.batch ventas (20), reutilizando la conexión HTTP
+ * - Cada venta lleva su Idempotency-Key: si la API la recibió pero la
+ *   respuesta se perdió, el reintento no la duplica
+ * - Errores de red / 5xx / 401 / 408 / 429 → reintento con espera exponencial
+ *   (pos.outbox.backoffMs 2 s, hasta pos.outbox.maxBackoffMs 5 min).
+ *   401 se reintenta porque el token vence y se renueva al volver a entrar
+ * - Otros 4xx (incluido 403: el usuario no tiene permiso, reintentar no lo
+ *   cambia) → la API rechazó la venta: queda FAILED para revisión
+ */
+public final class SaleOutbox {
+
+    private static final int BATCH = Integer.getInteger("pos.outbox.batch", 20);
+    private static final long BACKOFF_MS = Long.getLong("pos.outbox.backoffMs", 2_000);
+    private static final long MAX_BACKOFF_MS = Long.getLong("pos.outbox.maxBackoffMs", 300_000);
+
+    private static final Object signal = new Object();
+    private static boolean wakeup = false;      // protegido por signal
+    private static Thread drainer;
+
+    // Tras un corte (red caída / 5xx) no se envía nada hasta esta hora (epoch ms),
+    // aunque haya otras ventas vencidas: se espera el backoff de la que falló
+    private static long pausedUntil = 0;        // solo lo usa el hilo sale-outbox
+
+    // ============================================================
+    // API PÚBLICA
+    // ============================================================
+
+    /**
+     * Guarda la venta para enviarla a la API.
+     * Al volver la venta ya está en disco (sobrevive a un corte de luz).
+     * @return Idempotency-Key asignada
+     */
+    public static String enqueue(Sale venta) throws SQLException {
+        String key = UUID.randomUUID().toString();
+        SaleOutboxDao.insert(key, SaleService.toJson(venta).toString(), System.currentTimeMillis());
+        wake();
+        return key;
+    }
+
+    /** Arranca el envío en segundo plano (ventas que quedaron de la sesión anterior). */
+    public static synchronized void start() {
+        if (drainer != null && drainer.isAlive()) return;
+
+        drainer = new Thread(SaleOutbox::loop, "sale-outbox");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /** Pide un intento inmediato (ej: al recuperar la conexión). */
+    public static void wake() {
+        start();
+        synchronized (signal) {
+            wakeup = true;
+            signal.notifyAll();
+        }
+    }
+
+    /** Ventas aún no confirmadas por la API. */
+    public static int pending() {
+        return SaleOutboxDao.count(SaleOutboxDao.PENDING);
+    }
+
+    /** Ventas rechazadas por la API (requieren revisión). */
+    public static int failed() {
+        return SaleOutboxDao.count(SaleOutboxDao.FAILED);
+    }
+
+    // ============================================================
+    // ENVÍO
+    // ============================================================
+    private static void loop() {
+        while (true) {
+            try {
+                int processed = drainOnce();
+
+                // ¿Quedan pendientes ya vencidas? → siguiente pasada sin esperar
+                Long next = SaleOutboxDao.nextDueAt();
+                if (next != null) next = Math.max(next, pausedUntil);
+                long wait = next == null ? 0 : next - System.currentTimeMillis();
+                if (next != null && wait <= 0) {
+                    if (processed > 0) continue;
+                    wait = BACKOFF_MS;                                // no se pudo leer la bandeja
+                }
+
+                synchronized (signal) {
+                    if (!wakeup) {
+                        if (next == null) signal.wait();          // nada pendiente → hasta enqueue()
+                        else signal.wait(wait);
+                    }
+                    if (wakeup) pausedUntil = 0;                      // venta nueva / wake(): probar ya
+                    wakeup = false;
+                }
+
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // No debe morir el hilo: se reintenta más tarde
+                System.err.println("[SaleOutbox] Error en envío: " + e.getMessage());
+                try {
+                    Thread.sleep(BACKOFF_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Una pasada: envía hasta BATCH ventas vencidas y guarda los resultados juntos.
+    // Devuelve cuántas se procesaron (enviadas, reprogramadas o rechazadas).
+    private static int drainOnce() throws SQLException {
+        List<SaleOutboxDao.Entry> due = SaleOutboxDao.due(System.currentTimeMillis(), BATCH);
+        if (due.isEmpty()) return 0;
+
+        List<Long> sent = new ArrayList<>();
+        List<SaleOutboxDao.Retry> retry = new ArrayList<>();
+        List<SaleOutboxDao.Retry> failed = new ArrayList<>();
+
+        for (SaleOutboxDao.Entry e : due) {
+            int code;
+            try {
+                code = SaleService.enviar(e.getBody(), e.getIdemKey());
+            } catch (IOException ex) {
+                // Sin red: esta y las siguientes fallarían igual → se corta la pasada
+                pausedUntil = nextAttempt(e.getAttempts());
+                retry.add(new SaleOutboxDao.Retry(e.getId(), pausedUntil, "red: " + ex.getMessage()));
+                break;
+            } catch (Exception ex) {
+                retry.add(new SaleOutboxDao.Retry(e.getId(), nextAttempt(e.getAttempts()), ex.getMessage()));
+                continue;
+            }
+
+            if ((code >= 200 && code < 300) || code == 409) {
+                sent.add(e.getId());                                  // 409: ya estaba registrada
+            } else if (retryable(code)) {
+                long at = nextAttempt(e.getAttempts());
+                retry.add(new SaleOutboxDao.Retry(e.getId(), at, "HTTP " + code));
+                if (code >= 500) {                                    // API caída → no insistir ahora
+                    pausedUntil = at;
+                    break;
+                }
+            } else {
+                failed.add(new SaleOutboxDao.Retry(e.getId(), System.currentTimeMillis(), "HTTP " + code));
+                System.err.println("[SaleOutbox] Venta rechazada por la API (HTTP " + code + "), key=" + e.getIdemKey());
+            }
+        }
+
+        SaleOutboxDao.settle(sent, retry, failed);
+
+        if (!retry.isEmpty()) {
+            System.out.println("[SaleOutbox] " + sent.size() + " enviadas, " + retry.size() + " a reintentar");
+        }
+        if (!sent.isEmpty()) refreshStock();   // el stock cambió en la API
+
+        return sent.size() + retry.size() + failed.size();
+    }
+
+    // Trae el stock nuevo al espejo local; el espejo avisa a los paneles
+    // (DataSync.ProductChanged) con los IDs que realmente cambiaron
+    private static void refreshStock() {
+        Async.supply(InventoryMirror::sync).exceptionally(e -> {
+            System.err.println("[SaleOutbox] No se pudo actualizar el stock: " + Async.unwrap(e).getMessage());
+            return 0;
+        });
+    }
+
+    private static boolean retryable(int code) {
+        return code >= 500 || code == 401 || code == 408 || code == 429;
+    }
+
+    // Espera exponencial con ±20% de azar (varias cajas no reintentan al mismo tiempo)
+    private static long nextAttempt(int attempts) {
+        long delay = BACKOFF_MS << Math.min(attempts, 20);
+        delay = Math.min(delay, MAX_BACKOFF_MS);
+        delay += (long) (delay * ThreadLocalRandom.current().nextDouble(-0.2, 0.2));
+        return System.currentTimeMillis() + delay;
+    }
+
+    private SaleOutbox() {}
+}
@@ -9,12 +9,69 @@ import pos.model.Sale;
 import pos.model.SaleItem;
 import pos.util.ApiClient;
 
+import java.util.List;
+import java.util.UUID;
+
 public class SaleService {
 
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
+    /**
+     * Cobro de la caja (sin UI): arma la venta con la sesión de caja activa
+     * y la deja en SaleOutbox. Al volver ya está guardada en disco.
+     * Puede esperar a la API si nunca se conoció una sesión: la usa el
+     * simulador de cajas (dev/pos/sim); CajeroPanel resuelve la sesión antes.
+     *
+     * @param metodoPagoPOS "Efectivo", "Tarjeta", "Transferencia" o "Mixto"
+     * @return Idempotency-Key de la venta
+     */
+    public static String registrar(List<SaleItem> items, String metodoPagoPOS) throws Exception {
+        // Sesión REAL de la API (sin red → última caja conocida)
+        return registrar(items, metodoPagoPOS, CashService.sessionIdForSale());
+    }
+
+    /**
+     * Igual, con la sesión ya resuelta (CashService.sessionIdForSaleAsync):
+     * no va a la red, se puede llamar desde el EDT.
+     */
+    public static String registrar(List<SaleItem> items, String metodoPagoPOS, int sessionId) throws Exception {
+
+        Sale venta = new Sale(sessionId, metodoApi(metodoPagoPOS), items);
+
+        // Se envía en segundo plano (con reintentos): el cajero no espera la red
+        return SaleOutbox.enqueue(venta);
+    }
+
+    /** Medio de pago del POS → valor de la API ("cash", "card", "transfer", "other"). */
+    public static String metodoApi(String posMetodo) {
+        if (posMetodo == null) return "other";
+
+        return switch (posMetodo.toLowerCase()) {
+            case "efectivo" -> "cash";
+            case "tarjeta" -> "card";
+            case "transferencia" -> "transfer";
+            default -> "other";            // la API NO soporta mixto
+        };
+    }
+
+    /**
+     * Envía la venta y espera la respuesta de la API.
+     * La caja usa SaleOutbox (no bloquea si la red falla); esto queda para
+     * quien necesite saber en el momento si la API la registró.
+     */
     public boolean enviarVenta(Sale venta) throws Exception {
 
+        int code = enviar(toJson(venta).toString(), UUID.randomUUID().toString());
+
+        if (code < 200 || code >= 300) {
+            throw new Exception("Error API al crear venta: HTTP " + code);
+        }
+        return true;
+    }
+
+    // Venta → cuerpo JSON de POST /v1/sales
+    static JSONObject toJson(Sale venta) {
+
         JSONObject body = new JSONObject();
 
         // === CAMPOS REQUERIDOS POR API ===
@@ -39,32 +96,26 @@ public class SaleService {
         }
 
         body.put("items", itemsArr);
+        return body;
+    }
 
-        // DEBUG
-        System.out.println("JSON enviado a API:");
-        System.out.println(body.toString(4));
+    /**
+     * POST /v1/sales con Idempotency-Key.
+     * @return código HTTP (los errores de red se propagan como excepción)
+     */
+    static int enviar(String json, String idemKey) throws Exception {
 
-        // === POST ===
-        RequestBody req = RequestBody.create(JSON, body.toString());
-        Response res = ApiClient.post("/v1/sales", req);
+        RequestBody req = RequestBody.create(JSON, json);
 
-        try {
-            if (!res.isSuccessful()) {
+        try (Response res = ApiClient.post("/v1/sales", req, idemKey)) {
 
+            if (!res.isSuccessful()) {
                 String errorBody = res.body() != null ? res.body().string() : "sin cuerpo";
 
-                System.out.println("❌ ERROR DETALLE API:");
+                System.out.println("❌ ERROR DETALLE API (HTTP " + res.code() + " " + res.message() + "):");
                 System.out.println(errorBody);
-
-                throw new Exception(
-                        "Error API al crear venta: HTTP " + res.code() + " → " + res.message()
-                );
             }
-
-            return true;
-
-        } finally {
-            if (res != null) res.close();
+            return res.code();
         }
     }
-}
\ No newline at end of file
+}
@@ -6,10 +6,12 @@ import org.json.JSONObject;
 import pos.model.User;
 import pos.util.ApiClient;
 import pos.util.AuthState;
+import pos.util.Async;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 public class UserService {
 
@@ -118,4 +120,11 @@ public class UserService {
             throw new Exception("Error HTTP " + res.code() + ": " + res.body().string());
         }
     }
-}
\ No newline at end of file
+
+    // ================================
+    // ASÍNCRONO (hilo virtual, ver Async)
+    // ================================
+    public static CompletableFuture<List<User>> getAllAsync() {
+        return Async.supply(UserService::getAll);
+    }
+}
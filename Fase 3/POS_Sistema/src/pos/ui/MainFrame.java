@@ -4,10 +4,18 @@ import pos.ui.views.*;
          // importa los paneles (Dashboard, Cajero, Inventario, etc.)
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import pos.login.LoginFrame;        // ventana de login
 import pos.db.DatabaseInit;         // inicializa estructura completa de BD
-import pos.dao.UserDao;             // inicializa tabla de usuarios
+import pos.services.SaleOutbox;     // bandeja de salida de ventas
+import pos.services.Bootstrap;      // arranque en paralelo tras el login
 
 /**
  * Ventana principal del sistema POS.
@@ -15,6 +23,12 @@ import pos.dao.UserDao;             // inicializa tabla de usuarios
  *  - navegación entre vistas usando CardLayout
  *  - carga inicial de la base de datos
  *  - control de acceso según rol (ADMIN o CAJERO)
+ *
+ * Las vistas se registran como fábricas y se construyen la primera vez que
+ * se muestran: un cajero nunca paga el costo de Dashboard, Reportes, etc.
+ * Con la ventana ya visible, un Timer construye en ratos libres del EDT las
+ * vistas que probablemente se abran después (pos.ui.prewarm, por defecto
+ * activo; pos.ui.prewarmMs, espera antes de cada una).
  */
 public class MainFrame extends JFrame {
 
@@ -32,7 +46,11 @@ public class MainFrame extends JFrame {
     public static final String USUARIOS    = "usuarios";
     public static final String AJUSTES     = "ajustes";
 
-    private ReportesPanel reportesPanel; // referencia para recargar datos cuando se muestra
+    private static final boolean PREWARM = Boolean.parseBoolean(System.getProperty("pos.ui.prewarm", "true"));
+    private static final int PREWARM_MS = Integer.getInteger("pos.ui.prewarmMs", 1500);
+
+    private final Map<String, Supplier<JComponent>> factories = new LinkedHashMap<>(); // vistas registradas
+    private final Map<String, JComponent> views = new HashMap<>();                    // vistas ya construidas
 
     public MainFrame(String username, String role) {
         this.roleGlobal = role;          // asigna el rol (ADMIN/CAJERO)
@@ -42,8 +60,8 @@ public class MainFrame extends JFrame {
         // 🔥 Inicialización de Base de Datos
         // =============================
         try {
-            DatabaseInit.initialize(); // crea todas las tablas (inventory, movimientos, caja, providers, sales)
-            UserDao.initTable();       // crea tabla users si no existe
+            DatabaseInit.initialize(); // aplica migraciones pendientes (schema_version)
+            SaleOutbox.start();        // envía ventas que quedaron pendientes
         } catch (Exception e) {
             // si algo falla → error fatal
             JOptionPane.showMessageDialog(this,
@@ -68,20 +86,20 @@ public class MainFrame extends JFrame {
             Sidebar sidebar = new Sidebar(this::showView, roleGlobal, usernameGlobal);
             add(sidebar, BorderLayout.WEST); // agrega menú lateral
 
-            // Añade cada panel asociado a su clave
-            content.add(new DashboardPanel(), DASHBOARD);
-            content.add(new CajeroPanel(usernameGlobal), VENTAS);
-            content.add(new ProveedoresPanel(), PROVEEDORES);
-            content.add(new InventarioPanel(), INVENTARIO);
+            // Registra cada panel con su clave (se construye al mostrarlo)
+            register(DASHBOARD, DashboardPanel::new);
+            register(VENTAS, () -> new CajeroPanel(usernameGlobal));
+            register(PROVEEDORES, ProveedoresPanel::new);
+            register(INVENTARIO, InventarioPanel::new);
 
             // Paneles administrativos
-            reportesPanel = new ReportesPanel();
-            content.add(reportesPanel, REPORTES);
-            content.add(new UsuariosPanel(), USUARIOS);
-            content.add(new AjustesPanel(), AJUSTES);
+            register(REPORTES, ReportesPanel::new);
+            register(USUARIOS, UsuariosPanel::new);
+            register(AJUSTES, AjustesPanel::new);
 
             add(content, BorderLayout.CENTER);
             showView(DASHBOARD); // vista inicial
+            prewarm(VENTAS, INVENTARIO);   // las que más se abren después del dashboard
 
         // ===========================================
         // 🔵 MODO CAJERO — Solo ventas
@@ -115,10 +133,12 @@ public class MainFrame extends JFrame {
             add(top, BorderLayout.NORTH);
 
             // --- CUERPO PRINCIPAL (solo panel ventas) ---
-            content.add(new CajeroPanel(usernameGlobal), VENTAS);
+            register(VENTAS, () -> new CajeroPanel(usernameGlobal));
             add(content, BorderLayout.CENTER);
             showView(VENTAS); // inicia directo en caja
         }
+
+        Bootstrap.mark("ventana");   // tiempo hasta tener la ventana armada (ver Bootstrap.report)
     }
 
     // ================================================
@@ -134,14 +154,60 @@ public class MainFrame extends JFrame {
             return;
         }
 
+        boolean existed = views.containsKey(key);
+        if (view(key) == null) return;  // clave no registrada para este rol
+
         card.show(content, key); // cambia la tarjeta mostrada
 
-        // Si el admin entra a REPORTES → recarga automáticamente
-        if (isAdmin() && REPORTES.equals(key) && reportesPanel != null) {
-            reportesPanel.reload(); // actualiza gráficos/tablas
+        // Si el admin vuelve a REPORTES → recarga automáticamente
+        // (recién construido ya cargó sus datos en el constructor)
+        if (existed && views.get(key) instanceof ReportesPanel reportes) {
+            reportes.reload(); // actualiza gráficos/tablas
         }
     }
 
+    // ================================================
+    // 🧱 VISTAS BAJO DEMANDA
+    // ================================================
+    private void register(String key, Supplier<JComponent> factory) {
+        factories.put(key, factory);
+    }
+
+    // Devuelve la vista, construyéndola la primera vez (siempre en el EDT)
+    private JComponent view(String key) {
+        JComponent v = views.get(key);
+        if (v != null) return v;
+
+        Supplier<JComponent> factory = factories.get(key);
+        if (factory == null) return null;
+
+        long t0 = System.nanoTime();
+        v = factory.get();
+        views.put(key, v);
+        content.add(v, key);
+        System.out.printf("[MainFrame] Vista '%s' construida en %.0f ms%n",
+                key, (System.nanoTime() - t0) / 1_000_000.0);
+        return v;
+    }
+
+    // Construye de a una las vistas indicadas, con una pausa entre cada una,
+    // para que la primera apertura sea instantánea sin trabar la ventana
+    private void prewarm(String... keys) {
+        if (!PREWARM) return;
+
+        Deque<String> pending = new ArrayDeque<>(List.of(keys));
+        Timer timer = new Timer(PREWARM_MS, null);
+        timer.addActionListener(e -> {
+            String key = pending.poll();
+            if (key == null || !isDisplayable()) {   // terminó o se cerró la ventana
+                timer.stop();
+                return;
+            }
+            view(key);
+        });
+        timer.start();
+    }
+
     // ================================================
     // 🔍 Detección de rol
     // ================================================
@@ -0,0 +1,107 @@
+package pos.ui.dialogs;
+
+import pos.util.ApiMetrics;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+
+/**
+ * Diagnóstico de las llamadas a la API (ApiMetrics), por endpoint:
+ * - Latencias p50 / p95 / p99 / máx en ms (llamada completa, cuerpo
+ *   incluido) y p50 hasta las cabeceras
+ * - Errores de red, respuestas 4xx/5xx, reintentos y respuestas de caché
+ * - KB enviados / recibidos y detalle por código HTTP
+ *
+ * Se refresca solo cada 2 s mientras está abierto. "Copiar" deja el
+ * reporte en texto en el portapapeles (para adjuntarlo a un reclamo).
+ */
+public class ApiDiagnosticsDialog extends JDialog {
+
+    private final DefaultTableModel model = new DefaultTableModel(new Object[]{
+            "Endpoint", "Llamadas", "Cabeceras p50", "p50 ms", "p95 ms", "p99 ms", "Máx ms",
+            "Err. red", "HTTP 4xx/5xx", "Reintentos", "Caché", "KB env.", "KB rec.", "Códigos"
+    }, 0) {
+        @Override public boolean isCellEditable(int r, int c) { return false; }
+        @Override public Class<?> getColumnClass(int c) {
+            return c == 0 || c == 13 ? String.class : Number.class;
+        }
+    };
+
+    private final JLabel lblResumen = new JLabel(" ");
+    private final Timer timer = new Timer(2000, e -> refrescar());
+
+    public ApiDiagnosticsDialog(Window parent) {
+        super(parent, "Diagnóstico API", ModalityType.MODELESS);
+        setLayout(new BorderLayout(8, 8));
+
+        JTable table = new JTable(model);
+        table.setRowHeight(22);
+        table.setAutoCreateRowSorter(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getColumnModel().getColumn(0).setPreferredWidth(260);
+        table.getColumnModel().getColumn(13).setPreferredWidth(160);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton btnActualizar = new JButton("Actualizar");
+        JButton btnReiniciar = new JButton("Reiniciar contadores");
+        JButton btnCopiar = new JButton("Copiar");
+        JButton btnCerrar = new JButton("Cerrar");
+
+        btnActualizar.addActionListener(e -> refrescar());
+        btnReiniciar.addActionListener(e -> {
+            ApiMetrics.reset();
+            refrescar();
+        });
+        btnCopiar.addActionListener(e -> Toolkit.getDefaultToolkit().getSystemClipboard()
+                .setContents(new StringSelection(ApiMetrics.report()), null));
+        btnCerrar.addActionListener(e -> dispose());
+
+        JPanel south = new JPanel(new BorderLayout());
+        lblResumen.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 8));
+        south.add(lblResumen, BorderLayout.WEST);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(btnActualizar);
+        buttons.add(btnReiniciar);
+        buttons.add(btnCopiar);
+        buttons.add(btnCerrar);
+        south.add(buttons, BorderLayout.EAST);
+        add(south, BorderLayout.SOUTH);
+
+        refrescar();
+        timer.start();
+
+        setSize(1100, 420);
+        setLocationRelativeTo(parent);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+        super.dispose();
+    }
+
+    // Snapshot actual → filas (los contadores se leen sin bloquear la API)
+    private void refrescar() {
+        model.setRowCount(0);
+        long llamadas = 0, errores = 0;
+        for (ApiMetrics.Stats s : ApiMetrics.snapshot()) {
+            model.addRow(new Object[]{
+                    s.endpoint(), s.calls(), round(s.headersP50()),
+                    round(s.p50()), round(s.p95()), round(s.p99()), round(s.max()),
+                    s.errors(), s.httpErrors(), s.retries(), s.cached(),
+                    round(s.bytesOut() / 1024.0), round(s.bytesIn() / 1024.0),
+                    s.statusSummary()
+            });
+            llamadas += s.calls();
+            errores += s.errors() + s.httpErrors();
+        }
+        lblResumen.setText(llamadas + " llamadas · " + errores + " con error");
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+}
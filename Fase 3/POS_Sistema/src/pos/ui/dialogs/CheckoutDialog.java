@@ -8,6 +8,8 @@ import java.awt.event.KeyEvent;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.awt.event.KeyAdapter;
+import pos.util.Money;
+import pos.util.TaxEngine;
 
 /**
  * Diálogo de cobro. Permite:
@@ -74,15 +76,24 @@ public class CheckoutDialog extends JDialog {
     private final JButton btnConfirmar = new JButton("Cobrar (Enter)");
     private final JButton btnCancelar = new JButton("Cancelar (Esc)");
 
-    // Datos base
-    private final BigDecimal subtotal;
+    // Datos base (en pesos; se calculan una sola vez, no en cada tecla)
+    private final long subtotal;
     private final BigDecimal taxRate; // porcentaje en decimal (ej: 0.19)
+    private final long tax;           // impuesto (TaxEngine, HALF_UP)
+    private final long total;         // subtotal + impuesto
     private Result result;            // resultado final
 
+    /** Impuesto que el diálogo suma al subtotal (lo usa también el simulador de caja). */
+    public static long taxFor(long subtotal, BigDecimal taxRate) {
+        return TaxEngine.taxFromNeto(subtotal, TaxEngine.bp(taxRate));
+    }
+
     public CheckoutDialog(Window parent, BigDecimal subtotal, BigDecimal taxRate) {
         super(parent, "Cobro", ModalityType.APPLICATION_MODAL);
-        this.subtotal = nvl(subtotal); // evita nulls
+        this.subtotal = nvl(subtotal).setScale(0, RoundingMode.HALF_UP).longValueExact(); // evita nulls
         this.taxRate  = nvl(taxRate);
+        this.tax      = taxFor(this.subtotal, this.taxRate);
+        this.total    = this.subtotal + tax;
 
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setSize(520, 430);
@@ -245,13 +256,10 @@ public class CheckoutDialog extends JDialog {
 
         // Validación automática del mixto
         Doc mixDoc = new Doc(() -> {
-            BigDecimal total = calcTotal();
-            BigDecimal ef = parseMoney(txtMixEf.getText());
-            BigDecimal tj = parseMoney(txtMixTj.getText());
-            BigDecimal tr = parseMoney(txtMixTr.getText());
-
-            BigDecimal sum = ef.add(tj).add(tr);
-            boolean ok = sum.compareTo(total) == 0;
+            long sum = parseMoney(txtMixEf.getText())
+                     + parseMoney(txtMixTj.getText())
+                     + parseMoney(txtMixTr.getText());
+            boolean ok = sum == total;
 
             lblMixHint.setForeground(ok ? new Color(0x10b981) : new Color(0xef4444));
             lblMixHint.setText(ok ? "OK: suma exacta." : "La suma debe ser EXACTA al total.");
@@ -292,23 +300,21 @@ public class CheckoutDialog extends JDialog {
 
     // Lógica para confirmar pago
     private void confirmar() {
-        BigDecimal total = calcTotal();
         String m = String.valueOf(cbMedio.getSelectedItem());
 
-        BigDecimal ef = BigDecimal.ZERO, tj = BigDecimal.ZERO,
-                   tr = BigDecimal.ZERO, change = BigDecimal.ZERO;
+        long ef = 0, tj = 0, tr = 0, change = 0;
 
         // EFECTIVO
         if (m.equals("Efectivo")) {
-            BigDecimal recibido = parseMoney(txtRecibido.getText());
+            long recibido = parseMoney(txtRecibido.getText());
 
-            if (recibido.compareTo(total) < 0) {
+            if (recibido < total) {
                 warn("El efectivo recibido es menor al total.");
                 return;
             }
 
             ef = total;
-            change = recibido.subtract(total).max(BigDecimal.ZERO);
+            change = recibido - total;
 
         // TARJETA
         } else if (m.equals("Tarjeta")) {
@@ -324,24 +330,23 @@ public class CheckoutDialog extends JDialog {
             tj = parseMoney(txtMixTj.getText());
             tr = parseMoney(txtMixTr.getText());
 
-            BigDecimal sum = ef.add(tj).add(tr);
-
-            if (sum.compareTo(total) != 0) {
+            if (ef + tj + tr != total) {
                 warn("En Mixto, la suma debe ser EXACTA al total.");
                 return;
             }
         }
 
         // Guardar resultado final
-        result = new Result(subtotal, calcTax(), total, m, ef, tj, tr, change);
+        result = new Result(BigDecimal.valueOf(subtotal), BigDecimal.valueOf(tax), BigDecimal.valueOf(total),
+                m, BigDecimal.valueOf(ef), BigDecimal.valueOf(tj), BigDecimal.valueOf(tr), BigDecimal.valueOf(change));
         dispose();
     }
 
     // Actualiza números en pantalla
     private void refreshTotals() {
         lblSubtotal.setText(formatCurrency(subtotal));
-        lblImpuesto.setText(formatCurrency(calcTax()));
-        lblTotal.setText(formatCurrency(calcTotal()));
+        lblImpuesto.setText(formatCurrency(tax));
+        lblTotal.setText(formatCurrency(total));
         refreshChange();
     }
 
@@ -353,22 +358,12 @@ public class CheckoutDialog extends JDialog {
             return;
         }
 
-        BigDecimal total = calcTotal();
-        BigDecimal recibido = parseMoney(txtRecibido.getText());
-        BigDecimal vuelto = recibido.subtract(total);
+        long vuelto = parseMoney(txtRecibido.getText()) - total;
 
-        lblVuelto.setText(vuelto.compareTo(BigDecimal.ZERO) < 0 ? "—" : formatCurrency(vuelto));
+        lblVuelto.setText(vuelto < 0 ? "—" : formatCurrency(vuelto));
     }
 
     // ---------------- helpers ----------------
-    private BigDecimal calcTax() {
-        return subtotal.multiply(taxRate).setScale(0, RoundingMode.HALF_UP);
-    }
-
-    private BigDecimal calcTotal() {
-        return subtotal.add(calcTax()).setScale(0, RoundingMode.HALF_UP);
-    }
-
     private static BigDecimal nvl(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
 
     private static String percent(BigDecimal r){
@@ -377,18 +372,17 @@ public class CheckoutDialog extends JDialog {
                 .toPlainString();
     }
 
-    private static BigDecimal parseMoney(String s) {
-        if (s == null || s.trim().isEmpty()) return BigDecimal.ZERO;
+    private static long parseMoney(String s) {
+        if (s == null || s.trim().isEmpty()) return 0;
         try {
-            String clean = s.replace(".", "").replace(",", "").replace("$", "").trim();
-            return new BigDecimal(clean);
+            return Money.parse(s);
         } catch (Exception e) {
-            return BigDecimal.ZERO;
+            return 0;
         }
     }
 
-    private static String formatCurrency(BigDecimal v) {
-        return "$" + v.setScale(0, RoundingMode.HALF_UP).toPlainString();
+    private static String formatCurrency(long v) {
+        return Money.format(v);
     }
 
     private static void showCard(Container parent, String key){
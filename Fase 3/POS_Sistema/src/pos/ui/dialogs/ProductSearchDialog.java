@@ -1,18 +1,24 @@
 package pos.ui.dialogs;
 
+import pos.util.Async;
+import pos.util.LiveSearch;
+import pos.util.Money;
+import pos.util.SearchIndex;
+
 import javax.swing.*;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Diálogo modal para buscar productos por nombre o código.
- * - Filtro en vivo mientras escribes
+ * - Filtro en vivo mientras escribes (índice de trigramas, fuera del EDT;
+ *   no distingue mayúsculas ni tildes)
  * - Tabla filtrada
  * - Doble click o Enter para seleccionar
  * - Escape o Cancelar para cerrar sin selección
@@ -47,6 +53,10 @@ public class ProductSearchDialog extends JDialog {
     private final List<Product> allProducts; // lista original de productos
     private final List<Product> filtered = new ArrayList<>(); // lista filtrada
 
+    // Índice de búsqueda: se arma en un hilo virtual al abrir el diálogo
+    private final CompletableFuture<SearchIndex<Product>> index;
+    private final LiveSearch<List<Product>> busqueda = new LiveSearch<>(this::consulta, this::mostrar);
+
     private Product selected; // producto finalmente elegido
 
     public ProductSearchDialog(Window parent, List<Product> products) {
@@ -58,6 +68,9 @@ public class ProductSearchDialog extends JDialog {
         // iniciar lista filtrada con todos
         this.filtered.addAll(this.allProducts);
 
+        List<Product> base = this.allProducts;
+        this.index = Async.supply(() -> new SearchIndex<>(base, Product::getId, Product::getName));
+
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setSize(720, 480);
         setLocationRelativeTo(parent);
@@ -100,11 +113,7 @@ public class ProductSearchDialog extends JDialog {
     private void wireEvents() {
 
         // --- Filtrar a medida que se escribe ---
-        txtBuscar.getDocument().addDocumentListener(new DocumentListener() {
-            public void insertUpdate(DocumentEvent e) { refiltrar(); }
-            public void removeUpdate(DocumentEvent e) { refiltrar(); }
-            public void changedUpdate(DocumentEvent e) { refiltrar(); }
-        });
+        busqueda.listenTo(txtBuscar);
 
         // Enter en todo el diálogo = Elegir
         getRootPane().setDefaultButton(btnAceptar);
@@ -169,23 +178,17 @@ public class ProductSearchDialog extends JDialog {
         dispose(); // cerrar diálogo
     }
 
-    // Filtro según texto escrito
-    private void refiltrar() {
-        String q = txtBuscar.getText().trim().toLowerCase();
+    // Filtro según texto escrito: se lee en el EDT y se busca en un hilo virtual
+    private Callable<List<Product>> consulta() {
+        String q = txtBuscar.getText();
+        if (q.isBlank()) return () -> allProducts; // sin filtro → todos
+        return () -> index.join().search(q, SearchIndex.LIMIT);
+    }
 
+    // Muestra el resultado (en el EDT)
+    private void mostrar(List<Product> rows) {
         filtered.clear(); // limpiar lista filtrada
-
-        if (q.isEmpty()) {
-            filtered.addAll(allProducts); // sin filtro → todos
-        } else {
-            for (Product p : allProducts) {
-                boolean match =
-                        (p.getId() != null && p.getId().toLowerCase().contains(q)) ||
-                        (p.getName() != null && p.getName().toLowerCase().contains(q));
-
-                if (match) filtered.add(p);
-            }
-        }
+        filtered.addAll(rows);
 
         // avisar a la tabla que cambió su contenido
         ((AbstractTableModel) tbl.getModel()).fireTableDataChanged();
@@ -233,7 +236,7 @@ public class ProductSearchDialog extends JDialog {
         // formato precio CLP
         private static String formatCurrency(BigDecimal v) {
             if (v == null) return "";
-            return "$" + v.setScale(0, BigDecimal.ROUND_HALF_UP).toPlainString();
+            return Money.format(Money.toInt(v));
         }
     }
 }
@@ -0,0 +1,140 @@
+package pos.ui.table;
+
+import pos.model.Product;
+import pos.model.SaleItem;
+
+import javax.swing.JOptionPane;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Carrito de la caja (CajeroPanel): fila por código (mapa código → fila)
+ * y total acumulado.
+ * Cada escaneo avisa solo la fila insertada o modificada; el total no
+ * se vuelve a sumar recorriendo todas las líneas.
+ * Columnas: Código, Nombre, Precio, Cantidad, Subtotal (montos como número,
+ * ver MoneyRenderer).
+ */
+public class CartTableModel extends AbstractTableModel {
+
+    private static final class Item {
+        final Product product;
+        int qty;
+        int subtotal;                 // precio × cantidad al último cálculo
+        Item(Product p, int q) { product = p; qty = q; subtotal = p.getPrice() * q; }
+    }
+
+    private final String[] cols = {"Código", "Nombre", "Precio", "Cantidad", "Subtotal"};
+    private final List<Item> data = new ArrayList<>();
+    private final Map<String, Integer> rowOf = new HashMap<>();    // código → fila
+    private long total;
+
+    public int getRowCount() { return data.size(); }
+    public int getColumnCount() { return cols.length; }
+    public String getColumnName(int c) { return cols[c]; }
+
+    public Object getValueAt(int r, int c) {
+        Item it = data.get(r);
+        return switch (c) {
+            case 0 -> it.product.getCode();
+            case 1 -> it.product.getName();
+            case 2 -> it.product.getPrice();
+            case 3 -> it.qty;
+            case 4 -> it.subtotal;
+            default -> "";
+        };
+    }
+
+    public boolean isCellEditable(int r, int c) { return c == 3; }
+
+    public void setValueAt(Object v, int r, int c) {
+        if (c == 3) {
+            try {
+                int q = Math.max(1, Integer.parseInt(v.toString().trim()));
+                if (q > data.get(r).product.getStock()) {
+                    JOptionPane.showMessageDialog(null, "Stock insuficiente.");
+                    return;
+                }
+                setQty(r, q);
+            } catch (Exception ignored) {}
+        }
+    }
+
+    // ==========================================================
+    //                     API PÚBLICA DEL MODELO
+    // ==========================================================
+
+    /**
+     * Suma q unidades (fila nueva si el código no estaba).
+     * @return false si supera el stock (el carrito no cambia)
+     */
+    public boolean addOrInc(Product p, int q) {
+        Integer r = rowOf.get(p.getCode());
+        if (r != null) {
+            Item it = data.get(r);
+            if (it.qty + q > p.getStock()) return false;
+            setQty(r, it.qty + q);
+            return true;
+        }
+
+        Item it = new Item(p, q);
+        data.add(it);
+        rowOf.put(p.getCode(), data.size() - 1);
+        total += it.subtotal;
+        fireTableRowsInserted(data.size() - 1, data.size() - 1);
+        return true;
+    }
+
+    public void remove(int r) {
+        Item it = data.remove(r);
+        rowOf.remove(it.product.getCode());
+        for (int i = r; i < data.size(); i++) rowOf.put(data.get(i).product.getCode(), i);
+        total -= it.subtotal;
+        fireTableRowsDeleted(r, r);
+    }
+
+    public void clear() {
+        int n = data.size();
+        data.clear();
+        rowOf.clear();
+        total = 0;
+        if (n > 0) fireTableRowsDeleted(0, n - 1);
+    }
+
+    /** Recalcula las líneas de esos productos (cambió el precio); vacío = todas. */
+    public void reprice(Set<Integer> ids) {
+        for (int r = 0; r < data.size(); r++) {
+            Item it = data.get(r);
+            if (!ids.isEmpty() && !ids.contains(it.product.getId())) continue;
+            int sub = it.product.getPrice() * it.qty;
+            if (sub != it.subtotal) {
+                total += sub - it.subtotal;
+                it.subtotal = sub;
+                fireTableRowsUpdated(r, r);
+            }
+        }
+    }
+
+    /** Líneas para registrar la venta (SaleService.registrar). */
+    public List<SaleItem> saleItems() {
+        List<SaleItem> list = new ArrayList<>(data.size());
+        for (Item it : data) list.add(new SaleItem(it.product, it.qty));
+        return list;
+    }
+
+    /** Total con IVA incluido (suma de subtotales). */
+    public int total() { return (int) total; }
+
+    private void setQty(int r, int q) {
+        Item it = data.get(r);
+        it.qty = q;
+        int sub = it.product.getPrice() * q;
+        total += sub - it.subtotal;
+        it.subtotal = sub;
+        fireTableRowsUpdated(r, r);
+    }
+}
@@ -0,0 +1,23 @@
+package pos.ui.table;
+
+import pos.util.Money;
+
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * Celda de monto CLP: el modelo entrega el número (Integer / Long) y
+ * aquí se muestra como “$1.234”, alineado a la derecha.
+ * Una instancia por tabla (los renderers se usan solo en el EDT).
+ */
+public class MoneyRenderer extends DefaultTableCellRenderer {
+
+    public MoneyRenderer() {
+        setHorizontalAlignment(SwingConstants.RIGHT);
+    }
+
+    @Override
+    protected void setValue(Object value) {
+        setText(value instanceof Number n ? Money.format(n.longValue()) : value == null ? "" : value.toString());
+    }
+}
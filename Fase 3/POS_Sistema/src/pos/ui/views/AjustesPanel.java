@@ -2,6 +2,8 @@ package pos.ui.views;                       // Paquete donde se ubica esta vista
 
 import pos.dao.UserDao;                     // DAO para usuarios (cambiar contraseña, listar)
 import pos.model.User;                      // Modelo de usuario
+import pos.ui.dialogs.ApiDiagnosticsDialog; // Métricas de la API por endpoint
+import pos.util.DataSync;                   // Diagnóstico de suscripciones
 
 import javax.swing.*;                       // Componentes Swing
 import java.awt.*;                          // Layouts y estilos
@@ -42,6 +44,13 @@ public class AjustesPanel extends JPanel {  // Panel de ajustes del sistema (sol
         infoCard.add(labelRow("Negocio", "Almacén Sonia"));  // Fila: nombre del negocio
         infoCard.add(labelRow("Fecha", DF.format(LocalDate.now()))); // Fila: fecha actual
         infoCard.add(labelRow("Versión", "v1.0 Beta"));      // Fila: versión del programa
+
+        JButton btnSubs = botonSecundario("Suscripciones activas"); // Diagnóstico de DataSync
+        btnSubs.addActionListener(e -> mostrarSuscripciones());
+        infoCard.add(wrapCenter(btnSubs));
+        JButton btnApi = botonSecundario("Diagnóstico API");       // Latencias y errores por endpoint
+        btnApi.addActionListener(e -> new ApiDiagnosticsDialog(SwingUtilities.getWindowAncestor(this)).setVisible(true));
+        infoCard.add(wrapCenter(btnApi));
         infoCard.add(Box.createVerticalGlue());              // Empuja contenido hacia arriba
         content.add(infoCard);                               // Agrega la tarjeta
 
@@ -235,6 +244,14 @@ public class AjustesPanel extends JPanel {  // Panel de ajustes del sistema (sol
         return p;
     }
 
+    private void mostrarSuscripciones() {                    // Lista de suscripciones vivas por tipo
+        JTextArea txt = new JTextArea(DataSync.report(), 14, 48);
+        txt.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        txt.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(txt),
+                "DataSync — suscripciones", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private void cargarUsuarios() {                           // Carga usuarios desde BD
         cmbUsuarios.removeAllItems();
         List<User> users = UserDao.getAll();                  // Llama al DAO
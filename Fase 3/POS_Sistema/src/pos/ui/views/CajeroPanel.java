@@ -1,19 +1,26 @@
 package pos.ui.views;
 
-import pos.services.InventoryService;
+import pos.services.Bootstrap;
+import pos.services.InventoryMirror;
 import pos.services.CashService;
 import pos.dao.MovementDao;
 
 
 import pos.model.Product;
 import pos.model.SaleItem;
-import pos.model.Sale;
 
+import pos.services.SaleOutbox;
 import pos.services.SaleService;
 
 import pos.util.DataSync;
 import pos.util.TicketPrinter;
 import pos.util.AuthState;
+import pos.util.Async;
+import pos.util.LiveSearch;
+import pos.util.SearchIndex;
+import pos.util.Money;
+import pos.ui.table.CartTableModel;
+import pos.ui.table.MoneyRenderer;
 
 import pos.ui.dialogs.CheckoutDialog;
 
@@ -24,26 +31,30 @@ import java.awt.*;
 import java.awt.event.*;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 public class CajeroPanel extends JPanel {
 
     private final JTextField txtBuscarCodigo = new JTextField(14);
     private final JTextField txtBuscarNombre = new JTextField(16);
     private final JTable tblInv = new JTable(new InvModel());
-    private final ItemsModel itemsModel = new ItemsModel();
+    private final CartTableModel itemsModel = new CartTableModel();
     private final JTable tblCarrito = new JTable(itemsModel);
     private final JLabel lblTotal = new JLabel("$0");
 
-    private final NumberFormat CLP = NumberFormat.getCurrencyInstance(new Locale("es", "CL"));
     private boolean cajaAbierta = false;
+    private boolean cajaEnCurso = false;   // apertura / cierre esperando respuesta de la API
+    private boolean cobroEnCurso = false;  // cobro esperando confirmar la sesión de caja
 
     private final String currentUser;
 
@@ -60,7 +71,7 @@ public class CajeroPanel extends JPanel {
         split.setRightComponent(buildRight());
         add(split, BorderLayout.CENTER);
 
-        ((InvModel) tblInv.getModel()).reload();
+        ((InvModel) tblInv.getModel()).load(Bootstrap.catalog());   // ya pedido por el arranque
 
         tblInv.addMouseListener(new MouseAdapter() {
             public void mouseClicked(MouseEvent e) {
@@ -77,22 +88,30 @@ public class CajeroPanel extends JPanel {
         // 🔥 IMPORTANTÍSIMO: sincroniza la caja con la API
         syncCajaDesdeAPI();
 
-        DataSync.addListener("inventory", () ->
-                SwingUtilities.invokeLater(() ->
-                        ((InvModel) tblInv.getModel()).reload()
-                )
-        );
+        // Cambios del espejo (ventas enviadas, ediciones): solo las filas afectadas.
+        // Atada al panel: se cierra al cerrar la ventana (logout) y no lo retiene.
+        DataSync.subscribe(DataSync.ProductChanged.class, Async.EDT, this,
+                (panel, ev) -> panel.productosCambiaron(ev));
     }
     
+    // Stock / precio nuevos: tabla de inventario y líneas del carrito afectadas
+    private void productosCambiaron(DataSync.ProductChanged ev) {
+        ((InvModel) tblInv.getModel()).apply(ev);
+        itemsModel.reprice(ev.ids());
+        actualizarTotal();
+    }
+
+    // Consulta en un hilo virtual; cajaAbierta se actualiza en el EDT
     private void syncCajaDesdeAPI() {
-        try {
-            int sessionId = CashService.getActiveSessionId();
-            cajaAbierta = true;
-            System.out.println("Caja activa API detectada: #" + sessionId);
-        } catch (Exception e) {
-            cajaAbierta = false;
-            System.out.println("No hay caja activa en API.");
-        }
+        Async.onEdt(CashService.getActiveSessionIdAsync(),
+                sessionId -> {
+                    cajaAbierta = true;
+                    System.out.println("Caja activa API detectada: #" + sessionId);
+                },
+                e -> {
+                    cajaAbierta = false;
+                    System.out.println("No hay caja activa en API.");
+                });
     }
 
     private void registerShortcuts() {
@@ -137,10 +156,17 @@ public class CajeroPanel extends JPanel {
         p.add(top, BorderLayout.NORTH);
 
         tblInv.setRowHeight(24);
+        tblInv.getColumnModel().getColumn(3).setCellRenderer(new MoneyRenderer());
         p.add(new JScrollPane(tblInv), BorderLayout.CENTER);
 
-        btnBuscar.addActionListener(e ->
-                ((InvModel) tblInv.getModel()).search(txtBuscarCodigo.getText(), txtBuscarNombre.getText()));
+        // Búsqueda en vivo por nombre (el campo código queda para el lector de barras)
+        InvModel model = (InvModel) tblInv.getModel();
+        LiveSearch<List<Product>> busqueda = new LiveSearch<>(
+                () -> model.search(txtBuscarCodigo.getText(), txtBuscarNombre.getText()),
+                model::show);
+        busqueda.listenTo(txtBuscarNombre);
+
+        btnBuscar.addActionListener(e -> busqueda.now());
 
         btnTodos.addActionListener(e ->
                 ((InvModel) tblInv.getModel()).reload());
@@ -162,6 +188,8 @@ public class CajeroPanel extends JPanel {
         p.add(top, BorderLayout.NORTH);
 
         tblCarrito.setRowHeight(26);
+        tblCarrito.getColumnModel().getColumn(2).setCellRenderer(new MoneyRenderer());
+        tblCarrito.getColumnModel().getColumn(4).setCellRenderer(new MoneyRenderer());
         p.add(new JScrollPane(tblCarrito), BorderLayout.CENTER);
 
         JPanel bottom = new JPanel(new BorderLayout(8, 8));
@@ -191,29 +219,30 @@ public class CajeroPanel extends JPanel {
 
     
 
+    // Abrir / cerrar caja: la API responde en un hilo virtual y el resultado
+    // se muestra en el EDT (el panel sigue respondiendo mientras tanto)
     private void abrirCaja() {
         if (cajaAbierta) {
             JOptionPane.showMessageDialog(this, "La caja ya está abierta.");
             return;
         }
-
-        try {
-            // register_id = 1, opening_amount = 0
-            int sessionId = CashService.openCash(1, 0);
-
-            cajaAbierta = true;
-
-            JOptionPane.showMessageDialog(
-                this,
-                "Caja abierta correctamente (API).\nSesión #" + sessionId
-            );
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(
-                this,
-                "Error al abrir la caja en API:\n" + ex.getMessage()
-            );
-            ex.printStackTrace();
-        }
+        if (cajaEnCurso) return;   // ya hay una apertura / cierre esperando a la API
+        cajaEnCurso = true;
+
+        // register_id = 1, opening_amount = 0
+        Async.onEdt(CashService.openCashAsync(1, 0),
+                sessionId -> {
+                    cajaEnCurso = false;
+                    cajaAbierta = true;
+                    JOptionPane.showMessageDialog(this,
+                            "Caja abierta correctamente (API).\nSesión #" + sessionId);
+                },
+                ex -> {
+                    cajaEnCurso = false;
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Error al abrir la caja en API:\n" + ex.getMessage());
+                });
     }
 
     private void cerrarCaja() {
@@ -221,56 +250,46 @@ public class CajeroPanel extends JPanel {
             JOptionPane.showMessageDialog(this, "No hay caja abierta.");
             return;
         }
-
-        try {
-            int sessionId = CashService.getActiveSessionId();
-            CashService.closeCash(sessionId);
-
-            cajaAbierta = false;
-
-            JOptionPane.showMessageDialog(this, "Caja cerrada correctamente (API).");
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(
-                this,
-                "Error al cerrar caja en API:\n" + ex.getMessage()
-            );
-            ex.printStackTrace();
-        }
+        if (cajaEnCurso) return;
+        cajaEnCurso = true;
+
+        Async.onEdt(CashService.getActiveSessionIdAsync().thenCompose(CashService::closeCashAsync),
+                v -> {
+                    cajaEnCurso = false;
+                    cajaAbierta = false;
+                    JOptionPane.showMessageDialog(this, "Caja cerrada correctamente (API).");
+                },
+                ex -> {
+                    cajaEnCurso = false;
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Error al cerrar caja en API:\n" + ex.getMessage());
+                });
     }
 
     private void limpiarCarrito() {
-        itemsModel.data.clear();
-        itemsModel.fireTableDataChanged();
+        itemsModel.clear();
         lblTotal.setText("$0");
     }
 
     private void quitarItem() {
         int r = tblCarrito.getSelectedRow();
         if (r >= 0) {
-            itemsModel.data.remove(r);
-            itemsModel.fireTableDataChanged();
+            itemsModel.remove(r);
             actualizarTotal();
         }
     }
 
     private void actualizarTotal() {
-        lblTotal.setText(CLP.format(itemsModel.total()));
+        lblTotal.setText(Money.format(itemsModel.total()));
     }
 
     private void agregarPorCodigo(String code) {
         if (!cajaAbierta) return;
 
-        Product p = null;
-
-        // Buscar en la tabla lo que ya cargó la API
-        InvModel model = (InvModel) tblInv.getModel();
-
-        for (Product pr : model.data) {
-            if (pr.getCode().equalsIgnoreCase(code)) {
-                p = pr;
-                break;
-            }
-        }
+        // Índice del espejo local: código o código alternativo, sin recorrer la tabla
+        // (que además puede estar filtrada por la búsqueda)
+        Product p = InventoryMirror.findByCode(code);
 
         if (p == null) {
             JOptionPane.showMessageDialog(this, "Producto no encontrado.");
@@ -282,7 +301,10 @@ public class CajeroPanel extends JPanel {
             return;
         }
 
-        itemsModel.addOrInc(p, 1);
+        if (!itemsModel.addOrInc(p, 1)) {
+            JOptionPane.showMessageDialog(this, "Stock insuficiente.");
+            return;
+        }
         actualizarTotal();
         txtBuscarCodigo.setText("");
     }
@@ -300,7 +322,10 @@ public class CajeroPanel extends JPanel {
             return;
         }
 
-        itemsModel.addOrInc(p, 1);
+        if (!itemsModel.addOrInc(p, 1)) {
+            JOptionPane.showMessageDialog(this, "Stock insuficiente.");
+            return;
+        }
         actualizarTotal();
     }
 
@@ -316,6 +341,25 @@ public class CajeroPanel extends JPanel {
             return;
         }
 
+        if (cobroEnCurso) return;
+        cobroEnCurso = true;
+
+        // La sesión se resuelve antes del diálogo (sin esperar si ya se conoce):
+        // el cobro no hace llamadas a la API en el EDT
+        Async.onEdt(CashService.sessionIdForSaleAsync(),
+                sessionId -> {
+                    cobroEnCurso = false;
+                    mostrarCobro(sessionId);
+                },
+                ex -> {
+                    cobroEnCurso = false;
+                    JOptionPane.showMessageDialog(this,
+                            "No se pudo confirmar la caja activa:\n" + ex.getMessage());
+                });
+    }
+
+    private void mostrarCobro(int sessionId) {
+        if (itemsModel.getRowCount() == 0) return;
         int total = itemsModel.total();
 
         CheckoutDialog dlg = new CheckoutDialog(
@@ -329,107 +373,147 @@ public class CajeroPanel extends JPanel {
 
         if (r == null) return;
 
-        cobrarVenta(total, r.paymentMethod);
+        cobrarVenta(sessionId, r.paymentMethod);
     }
 
-    private void cobrarVenta(int total, String metodoPagoPOS) {
-
-        // 1) Convertir medio POS → API
-        String metodoAPI = mapMetodoPagoAPI(metodoPagoPOS);
+    private void cobrarVenta(int sessionId, String metodoPagoPOS) {
 
         try {
 
-            // 2) Construir lista de items API
-            List<SaleItem> apiItems = new ArrayList<>();
-            for (Item it : itemsModel.data) {
-                apiItems.add(new SaleItem(it.product, it.qty));
-            }
-
-            // 3) Obtener el session_id REAL desde la API
-            int sessionId = CashService.getActiveSessionId();
-
-            // 4) Crear la venta para la API usando el session_id correcto
-            Sale ventaApi = new Sale(
-                    sessionId,   // SESIÓN REAL ENTREGADA POR LA API
-                    metodoAPI,   // "cash", "card", "transfer"
-                    apiItems
-            );
+            // 1) Construir lista de items API
+            List<SaleItem> apiItems = itemsModel.saleItems();
 
-            // 5) Enviar venta a la API
-            SaleService service = new SaleService();
-            boolean ok = service.enviarVenta(ventaApi);
-
-            if (!ok) {
-                JOptionPane.showMessageDialog(this, "⚠ La API no registró la venta.");
-                return;
-            }
+            // 2) Bandeja de salida (ver SaleService.registrar); no va a la red
+            SaleService.registrar(apiItems, metodoPagoPOS, sessionId);
 
-            // 6) Si todo fue bien → limpiar carrito
-            JOptionPane.showMessageDialog(this, "Venta realizada correctamente (API).");
+            // 3) Venta asegurada → limpiar carrito
+            int pendientes = SaleOutbox.pending();
+            JOptionPane.showMessageDialog(this, pendientes > 1
+                    ? "Venta registrada. " + pendientes + " ventas pendientes de envío a la API."
+                    : "Venta registrada correctamente.");
             limpiarCarrito();
 
         } catch (Exception ex) {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(this,
-                    "Error al enviar venta a la API: " + ex.getMessage());
+                    "Error al registrar la venta: " + ex.getMessage());
         }
     }
     
-    private String mapMetodoPagoAPI(String posMetodo) {
-        if (posMetodo == null) return "other";
-
-        switch (posMetodo.toLowerCase()) {
-            case "efectivo": return "cash";
-            case "tarjeta": return "card";
-            case "transferencia": return "transfer";
-            case "mixto": return "other"; // la API NO soporta mixto
-            default: return "other";
-        }
-    }
-
     // ======================================
     //             MODELOS
     // ======================================
 
     private class InvModel extends AbstractTableModel {
         private final String[] cols = {"Código", "Nombre", "Categoría", "Precio", "Stock"};
-        private List<Product> data = new ArrayList<>();
+        private Catalogo cat = catalogOf(List.of());                      // catálogo completo
+        private List<Product> data = cat.index().items();                // filas visibles
+        private Map<Integer, Integer> rowOf = cat.pos();                 // ID → fila visible
 
         void reload() {
-            try {
-                data = InventoryService.getAll();  // ← API
-                fireTableDataChanged();
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(null, "Error al obtener inventario desde la API");
-                data = new ArrayList<>();
-                fireTableDataChanged();
+            load(InventoryMirror.refreshAsync());   // ← espejo local (solo baja cambios)
+        }
+
+        // Sincroniza y arma el índice de búsqueda en un hilo virtual;
+        // la tabla se actualiza en el EDT
+        void load(CompletableFuture<List<Product>> consulta) {
+            Async.onEdt(consulta.thenApplyAsync(CajeroPanel::catalogOf, Async.io()),
+                    this::replace,
+                    ex -> {
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(null, "Error al obtener inventario desde la API");
+                        replace(catalogOf(List.of()));
+                    });
+        }
+
+        // Lee los filtros en el EDT; la búsqueda corre fuera (ver LiveSearch)
+        Callable<List<Product>> search(String c, String n) {
+            SearchIndex<Product> idx = cat.index();
+            if (c.isBlank() && n.isBlank()) return idx::items;
+            return () -> idx.search(c, n, SearchIndex.LIMIT);
+        }
+
+        // Resultado de una búsqueda (o el catálogo completo)
+        void show(List<Product> rows) {
+            if (rows == cat.index().items()) {
+                rowOf = cat.pos();
+            } else {
+                rowOf = new HashMap<>();
+                for (int r = 0; r < rows.size(); r++) rowOf.put(rows.get(r).getId(), r);
             }
+            data = rows;
+            fireTableDataChanged();
         }
 
-        
+        // Catálogo nuevo. Si trae los mismos productos en el mismo orden (lo normal:
+        // solo cambió stock o precio) se avisan solo las filas distintas, sin
+        // rearmar la tabla completa
+        private void replace(Catalogo nuevo) {
+            List<Product> before = data;
+            boolean full = before == cat.index().items();
+            List<Product> after = nuevo.index().items();
+            cat = nuevo;
+
+            if (!full || before.size() != after.size()) {
+                show(after);
+                return;
+            }
+            for (int r = 0; r < after.size(); r++) {
+                if (before.get(r).getId() != after.get(r).getId()) {
+                    show(after);
+                    return;
+                }
+            }
 
-        void search(String c, String n) {
-            List<Product> base = data; 
-            List<Product> filtrado = new ArrayList<>();
+            data = after;
+            rowOf = cat.pos();
+            for (int r = 0; r < after.size(); r++) {
+                if (!sameRow(before.get(r), after.get(r))) fireTableRowsUpdated(r, r);
+            }
+        }
 
-            for (Product p : base) {
-                boolean ok = true;
+        // Aplica los cambios del espejo local sin ir a la red.
+        // Precio / stock se actualizan en las mismas instancias (índice y filas);
+        // si cambió código, nombre o categoría, o hay altas / bajas, se rearma el índice.
+        void apply(DataSync.ProductChanged ev) {
+            if (ev.all()) {
+                load(Async.supply(InventoryMirror::getAll));
+                return;
+            }
+
+            List<Product> items = cat.index().items();
+            List<Product> touched = new ArrayList<>();
 
-                if (c != null && !c.isBlank())
-                    ok &= p.getCode().toLowerCase().contains(c.toLowerCase());
+            for (int id : ev.ids()) {
+                Integer pos = cat.pos().get(id);
+                Product fresh = InventoryMirror.findById(id);
 
-                if (n != null && !n.isBlank())
-                    ok &= p.getName().toLowerCase().contains(n.toLowerCase());
+                if (pos == null) {
+                    if (fresh == null) continue;                   // nunca estuvo y ya no está
+                    load(Async.supply(InventoryMirror::getAll));   // alta
+                    return;
+                }
 
-                if (ok) filtrado.add(p);
+                Product cur = items.get(pos);
+                if (fresh == null
+                        || !Objects.equals(fresh.getCode(), cur.getCode())
+                        || !Objects.equals(fresh.getName(), cur.getName())
+                        || !Objects.equals(fresh.getCategory(), cur.getCategory())) {   // la categoría puede venir null
+                    load(Async.supply(InventoryMirror::getAll));   // baja o cambio de lo indexado
+                    return;
+                }
+                cur.setPrice(fresh.getPrice());
+                cur.setStock(fresh.getStock());
+                cur.setActive(fresh.isActive());
+                touched.add(cur);
             }
 
-            data = filtrado;
-            fireTableDataChanged();
+            for (Product p : touched) {
+                Integer r = rowOf.get(p.getId());
+                if (r != null) fireTableRowsUpdated(r, r);
+            }
         }
 
-
         Product getAt(int r) { return data.get(r); }
 
         public int getRowCount() { return data.size(); }
@@ -449,69 +533,21 @@ public class CajeroPanel extends JPanel {
         }
     }
 
-    private static class Item {
-        final Product product;
-        int qty;
-        Item(Product p, int q) { product = p; qty = q; }
-    }
+    // Catálogo de la tabla: índice de búsqueda + posición de cada ID en items().
+    // Se arma fuera del EDT.
+    private record Catalogo(SearchIndex<Product> index, Map<Integer, Integer> pos) {}
 
-    private static class ItemsModel extends AbstractTableModel {
-        private final String[] cols = {"Código", "Nombre", "Precio", "Cantidad", "Subtotal"};
-        final List<Item> data = new ArrayList<>();
-
-        public int getRowCount() { return data.size(); }
-        public int getColumnCount() { return cols.length; }
-        public String getColumnName(int c) { return cols[c]; }
-
-        public Object getValueAt(int r, int c) {
-            Item it = data.get(r);
-            return switch (c) {
-                case 0 -> it.product.getCode();
-                case 1 -> it.product.getName();
-                case 2 -> it.product.getPrice();
-                case 3 -> it.qty;
-                case 4 -> it.product.getPrice() * it.qty;
-                default -> "";
-            };
-        }
-
-        public boolean isCellEditable(int r, int c) { return c == 3; }
-
-        public void setValueAt(Object v, int r, int c) {
-            if (c == 3) {
-                try {
-                    int q = Math.max(1, Integer.parseInt(v.toString().trim()));
-                    if (q > data.get(r).product.getStock()) {
-                        JOptionPane.showMessageDialog(null, "Stock insuficiente.");
-                        return;
-                    }
-                    data.get(r).qty = q;
-                    fireTableRowsUpdated(r, r);
-                } catch (Exception ignored) {}
-            }
-        }
-
-        void addOrInc(Product p, int q) {
-            for (Item it : data) {
-                if (it.product.getCode().equals(p.getCode())) {
-                    if (it.qty + q > p.getStock()) {
-                        JOptionPane.showMessageDialog(null, "Stock insuficiente.");
-                        return;
-                    }
-                    it.qty += q;
-                    fireTableDataChanged();
-                    return;
-                }
-            }
-            data.add(new Item(p, q));
-            fireTableDataChanged();
-        }
+    private static Catalogo catalogOf(List<Product> list) {
+        SearchIndex<Product> idx = new SearchIndex<>(list, Product::getCode, Product::getName);
+        Map<Integer, Integer> pos = new HashMap<>(idx.items().size() * 2);
+        for (int i = 0; i < idx.items().size(); i++) pos.put(idx.items().get(i).getId(), i);
+        return new Catalogo(idx, pos);
+    }
 
-        int total() {
-            int sum = 0;
-            for (Item it : data) sum += it.product.getPrice() * it.qty;
-            return sum;
-        }
+    // ¿Se ve igual la fila? (lo que muestra la tabla)
+    private static boolean sameRow(Product a, Product b) {
+        return a.getPrice() == b.getPrice() && a.getStock() == b.getStock()
+                && Objects.equals(a.getCode(), b.getCode()) && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCategory(), b.getCategory());
     }
 }
-
@@ -2,21 +2,24 @@ package pos.ui.views;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import pos.services.Bootstrap;
 import pos.services.ReportApi;
 import pos.model.Product;
 import pos.model.Sale;
+import pos.util.Async;
+import pos.util.Money;
+import pos.ui.table.MoneyRenderer;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Locale;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class DashboardPanel extends JPanel {
 
@@ -29,7 +32,6 @@ public class DashboardPanel extends JPanel {
     private final JTable tblExp = new JTable(new ExpModel());
     private final JTable tblVentas = new JTable(new VentasModel());
 
-    private final NumberFormat CLP = NumberFormat.getCurrencyInstance(new Locale("es", "CL"));
     private final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
     public DashboardPanel() {
@@ -67,7 +69,7 @@ public class DashboardPanel extends JPanel {
         add(center, BorderLayout.CENTER);
 
         configurarTablas();
-        recargar();
+        cargar(Bootstrap.dashboard());   // lo que ya pidió el arranque
     }
 
     private JPanel card(JLabel value, String label) {
@@ -106,6 +108,7 @@ public class DashboardPanel extends JPanel {
         tblLow.setRowHeight(22);
         tblExp.setRowHeight(22);
         tblVentas.setRowHeight(22);
+        tblVentas.getColumnModel().getColumn(2).setCellRenderer(new MoneyRenderer());
 
         DefaultTableCellRenderer right = new DefaultTableCellRenderer();
         right.setHorizontalAlignment(SwingConstants.RIGHT);
@@ -136,14 +139,24 @@ public class DashboardPanel extends JPanel {
     // 🔥 RECARGAR DESDE API
     // ============================================================
     public void recargar() {
-        JSONObject data = ReportApi.getDashboard();
+        cargar(ReportApi.getDashboardAsync());
+    }
+
+    // La consulta va en un hilo virtual; los datos se pintan en el EDT
+    private void cargar(CompletableFuture<JSONObject> consulta) {
+        Async.onEdt(consulta,
+                this::pintar,
+                ex -> System.err.println("[DashboardPanel] " + ex.getMessage()));
+    }
+
+    private void pintar(JSONObject data) {
         if (data == null) return;
 
         // ----- KPIs -----
         JSONObject kpis = data.getJSONObject("kpis");
-        lblHoy.setText(CLP.format(kpis.getDouble("sales_today")));
-        lblSemana.setText(CLP.format(kpis.getDouble("sales_7d")));
-        lblMes.setText(CLP.format(kpis.getDouble("sales_30d")));
+        lblHoy.setText(Money.format(kpis.getDouble("sales_today")));
+        lblSemana.setText(Money.format(kpis.getDouble("sales_7d")));
+        lblMes.setText(Money.format(kpis.getDouble("sales_30d")));
         lblProductos.setText(String.valueOf(kpis.getInt("products_in_inventory")));
 
         // ----- STOCK BAJO -----
@@ -251,7 +264,6 @@ public class DashboardPanel extends JPanel {
         private final String[] cols = {"ID", "Fecha", "Total"};
         private List<Sale> data = List.of();
         private final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd-MM HH:mm");
-        private final NumberFormat CLP = NumberFormat.getCurrencyInstance(new Locale("es", "CL"));
         public void set(List<Sale> rows) { data = rows; fireTableDataChanged(); }
         @Override public int getRowCount() { return data.size(); }
         @Override public int getColumnCount() { return cols.length; }
@@ -261,7 +273,7 @@ public class DashboardPanel extends JPanel {
             return switch (c) {
                 case 0 -> s.getId();
                 case 1 -> DF.format(s.getTs());
-                case 2 -> CLP.format(s.getTotal());
+                case 2 -> s.getTotal();
                 default -> "";
             };
         }
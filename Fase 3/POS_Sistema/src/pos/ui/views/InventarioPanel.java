@@ -1,9 +1,15 @@
 package pos.ui.views; // Vista del panel de inventario
 
+import pos.services.Bootstrap;
+import pos.services.InventoryMirror;
 import pos.services.InventoryService;
 import pos.dao.MovementDao; // si lo tienes
 
 import pos.model.Product; // Modelo del producto
+import pos.util.Async; // Llamadas a la API fuera del EDT
+import pos.util.LiveSearch; // Búsqueda mientras se escribe
+import pos.util.SearchIndex; // Índice de búsqueda (código + nombre)
+import pos.ui.table.MoneyRenderer; // Precio como $1.234
 
 import javax.swing.*; // Componentes UI
 import javax.swing.table.AbstractTableModel; // Modelo tabla base
@@ -13,7 +19,8 @@ import java.time.LocalDateTime; // Fecha + hora para movimientos
 import java.time.format.DateTimeFormatter; // Formateo de fecha
 import java.util.List; // Lista estándar
 import java.util.Objects; // Validaciones
-import java.util.stream.Collectors; // Para filtrar listas
+import java.util.concurrent.Callable; // Búsqueda diferida
+import java.util.concurrent.CompletableFuture; // Resultado de la sincronización
 
 /**
  * Panel principal de gestión de inventario.
@@ -36,6 +43,10 @@ public class InventarioPanel extends JPanel { // Panel de inventario
     private final JTable tabla = new JTable(new ProductosModel()); // Tabla productos
     private final ProductosModel modelo = (ProductosModel) tabla.getModel(); // Modelo casteado
 
+    // Catálogo completo indexado (la tabla puede estar mostrando solo un filtro)
+    private SearchIndex<Product> indice = indexOf(List.of());
+    private final LiveSearch<List<Product>> busqueda = new LiveSearch<>(this::consulta, modelo::set);
+
  
 
     // DAO movimientos local
@@ -61,11 +72,13 @@ public class InventarioPanel extends JPanel { // Panel de inventario
         add(top, BorderLayout.NORTH); // Añadir arriba
 
         tabla.setRowHeight(22); // Alto filas
+        tabla.getColumnModel().getColumn(3).setCellRenderer(new MoneyRenderer()); // Precio CLP
         tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // Selección única
         add(new JScrollPane(tabla), BorderLayout.CENTER); // Tabla scrollable
 
-        recargar(); // Cargar productos al inicio
+        cargar(Bootstrap.catalog()); // Cargar productos al inicio (ya pedidos por el arranque)
 
+        busqueda.listenTo(txtBuscar); // Filtra mientras se escribe
         btnBuscar.addActionListener(e -> filtrar()); // Buscar
         btnEntrada.addActionListener(e -> onEntrada()); // Entrada stock
         btnSalida.addActionListener(e -> onSalida()); // Salida stock
@@ -77,55 +90,63 @@ public class InventarioPanel extends JPanel { // Panel de inventario
     // ================== Utilidades ==================
 
     private void recargar() {
+        cargar(InventoryMirror.refreshAsync());   // espejo local + cambios
+    }
+
+    // Sincroniza (y arma el índice) en un hilo virtual y pinta en el EDT, conservando la selección
+    private void cargar(CompletableFuture<List<Product>> consulta) {
 
-        String selectedCode = null;
+        String selectedCode;
 
         int row = tabla.getSelectedRow();
         if (row >= 0 && row < modelo.data.size()) {
             selectedCode = modelo.getAt(row).getCode();
+        } else {
+            selectedCode = null;
         }
 
-        try {
-            List<Product> productos = InventoryService.getAll();
-            modelo.set(productos);
-
-            // Restaurar selección
-            if (selectedCode != null) {
-                for (int i = 0; i < modelo.data.size(); i++) {
-                    if (modelo.getAt(i).getCode().equalsIgnoreCase(selectedCode)) {
-                        tabla.setRowSelectionInterval(i, i);
-                        break;
+        Async.onEdt(consulta.thenApplyAsync(InventarioPanel::indexOf, Async.io()),
+                idx -> {
+                    indice = idx;
+                    modelo.set(idx.items());
+
+                    // Restaurar selección
+                    if (selectedCode != null) {
+                        for (int i = 0; i < modelo.data.size(); i++) {
+                            if (modelo.getAt(i).getCode().equalsIgnoreCase(selectedCode)) {
+                                tabla.setRowSelectionInterval(i, i);
+                                break;
+                            }
+                        }
                     }
-                }
-            }
-
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error cargando inventario: " + ex.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+                },
+                ex -> JOptionPane.showMessageDialog(
+                        this,
+                        "Error cargando inventario: " + ex.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE
+                ));
     }
 
 
     private void filtrar() {
-        String q = txtBuscar.getText().trim().toLowerCase();
-
-        if (q.isEmpty()) {
+        if (txtBuscar.getText().isBlank()) {
             recargar();
             return;
         }
+        busqueda.now();
+    }
 
-        List<Product> base = modelo.data; // usar datos existentes de la API
-
-        List<Product> filtrado = base.stream()
-                .filter(p -> (p.getName() != null && p.getName().toLowerCase().contains(q))
-                          || (p.getCode() != null && p.getCode().toLowerCase().contains(q)))
-                .collect(Collectors.toList());
+    // Lee el texto en el EDT; la búsqueda sobre el índice corre fuera (ver LiveSearch)
+    private Callable<List<Product>> consulta() {
+        String q = txtBuscar.getText();
+        SearchIndex<Product> idx = indice;
+        if (q.isBlank()) return idx::items;
+        return () -> idx.search(q, SearchIndex.LIMIT);
+    }
 
-        modelo.set(filtrado);
+    private static SearchIndex<Product> indexOf(List<Product> productos) {
+        return new SearchIndex<>(productos, Product::getCode, Product::getName);
     }
 
 
@@ -135,22 +156,43 @@ public class InventarioPanel extends JPanel { // Panel de inventario
         return modelo.getAt(row); // Obtener producto
     }
 
-    private Product findByCode(String code) {
+    // Siempre busca primero en la API (hilo virtual); si falla o no está, en la tabla local
+    private CompletableFuture<Product> findByCode(String code) {
 
-        if (code == null || code.isBlank()) return null;
+        if (code == null || code.isBlank()) return CompletableFuture.completedFuture(null);
 
-        try {
-            // Siempre buscar primero en API
-            Product p = inventoryService.getByCode(code);
-            if (p != null) return p;
-        } catch (Exception ignored) {}
+        List<Product> local = modelo.data;   // se lee en el EDT
+        return inventoryService.getByCodeAsync(code)
+                .exceptionally(e -> null)
+                .thenApply(p -> {
+                    if (p != null) return p;
+                    for (Product l : local) {
+                        if (l.getCode().equalsIgnoreCase(code)) return l;
+                    }
+                    return null;
+                });
+    }
 
-        // Si falla la API, intenta desde la tabla local
-        for (Product p : modelo.data) {
-            if (p.getCode().equalsIgnoreCase(code)) return p;
-        }
+    // Acciones que llaman a la API: deshabilitadas mientras hay una en curso
+    private void ocupado(boolean enCurso) {
+        btnEntrada.setEnabled(!enCurso);
+        btnSalida.setEnabled(!enCurso);
+        btnAjuste.setEnabled(!enCurso);
+        btnEliminar.setEnabled(!enCurso);
+    }
 
-        return null;
+    // Espera la llamada a la API fuera del EDT y muestra el resultado en el EDT
+    private void terminar(CompletableFuture<?> op, String okMsg, String errorMsg) {
+        Async.onEdt(op,
+                v -> {
+                    ocupado(false);
+                    info(okMsg);
+                    recargar();
+                },
+                ex -> {
+                    ocupado(false);
+                    warn(errorMsg + ex.getMessage());
+                });
     }
 
 
@@ -187,43 +229,47 @@ public class InventarioPanel extends JPanel { // Panel de inventario
         String code = txtCode.getText().trim();
         if (code.isEmpty()) { warn("El código es obligatorio."); return; }
 
-        Product prod = findByCode(code);
+        String name = txtName.getText().trim();
+        String cat = txtCat.getText().trim();
+        String priceText = txtPrice.getText().trim();
         int qty = (Integer) spQty.getValue();
 
+        ocupado(true);
+        Async.onEdt(findByCode(code),
+                prod -> aplicarEntrada(prod, code, name, cat, priceText, qty),
+                ex -> {
+                    ocupado(false);
+                    warn("Error API buscando el producto: " + ex.getMessage());
+                });
+    }
+
+    // Segunda parte de la entrada, con el producto ya buscado (en el EDT)
+    private void aplicarEntrada(Product prod, String code, String name, String cat, String priceText, int qty) {
+
         // ===============================
         // 🟢 PRODUCTO NUEVO → CREAR
         // ===============================
         if (prod == null) {
 
-            String name = txtName.getText().trim();
-            if (name.isEmpty()) { warn("El nombre es obligatorio."); return; }
+            if (name.isEmpty()) { ocupado(false); warn("El nombre es obligatorio."); return; }
 
             int price;
-            try { price = Integer.parseInt(txtPrice.getText().trim()); }
-            catch (Exception e) { warn("Precio inválido."); return; }
+            try { price = Integer.parseInt(priceText); }
+            catch (Exception e) { ocupado(false); warn("Precio inválido."); return; }
 
             prod = new Product(
                     0,
                     code,
                     name,
-                    txtCat.getText().trim(),
+                    cat,
                     price,
                     qty,
                     null
             );
             prod.setActive(true);
 
-            try {
-                inventoryService.createProduct(prod);
-
-                // Consultar ID real
-                Product apiProd = inventoryService.getByCode(code);
-                if (apiProd != null) prod.setId(apiProd.getId());
-
-            } catch (Exception ex) {
-                warn("Error API al crear producto: " + ex.getMessage());
-                return;
-            }
+            terminar(inventoryService.createProductAsync(prod),
+                    "Entrada aplicada correctamente.", "Error API al crear producto: ");
         }
 
         // ===============================
@@ -232,16 +278,9 @@ public class InventarioPanel extends JPanel { // Panel de inventario
         else {
             prod.setStock(prod.getStock() + qty);
 
-            try {
-                inventoryService.updateProduct(prod);
-            } catch (Exception ex) {
-                warn("Error API al sumar stock: " + ex.getMessage());
-                return;
-            }
+            terminar(inventoryService.updateProductAsync(prod),
+                    "Entrada aplicada correctamente.", "Error API al sumar stock: ");
         }
-
-        info("Entrada aplicada correctamente.");
-        recargar();
     }
 
     private void onSalida() {
@@ -266,15 +305,9 @@ public class InventarioPanel extends JPanel { // Panel de inventario
 
         p.setStock(p.getStock() - qty);
 
-        try {
-            inventoryService.updateProduct(p);
-        } catch (Exception ex) {
-            warn("Error API al restar stock: " + ex.getMessage());
-            return;
-        }
-
-        info("Salida aplicada correctamente.");
-        recargar();
+        ocupado(true);
+        terminar(inventoryService.updateProductAsync(p),
+                "Salida aplicada correctamente.", "Error API al restar stock: ");
     }
 
     private void onAjuste() {
@@ -306,15 +339,9 @@ public class InventarioPanel extends JPanel { // Panel de inventario
         p.setPrice((Integer) spPrice.getValue());
         p.setStock((Integer) spStock.getValue());
 
-        try {
-            inventoryService.updateProduct(p);
-        } catch (Exception ex) {
-            warn("Error API al actualizar producto: " + ex.getMessage());
-            return;
-        }
-
-        info("✔ Ajuste aplicado correctamente.");
-        recargar();
+        ocupado(true);
+        terminar(inventoryService.updateProductAsync(p),
+                "✔ Ajuste aplicado correctamente.", "Error API al actualizar producto: ");
     }
 
     private void openHistorial() {
@@ -345,32 +372,22 @@ public class InventarioPanel extends JPanel { // Panel de inventario
         if (r != JOptionPane.YES_OPTION) return;
 
         // =====================================
-        // 🔵 1) Llamar API para eliminar
-        // =====================================
-        try {
-            inventoryService.deleteProduct(p.getId());
-        } catch (Exception ex) {
-            warn("❌ Error API al eliminar producto: " + ex.getMessage());
-            ex.printStackTrace();
-            return;
-        }
-
-        // =====================================
+        // 🔵 1) Llamar API para eliminar (hilo virtual)
         // 📌 2) Registrar movimiento local DELETE
         // =====================================
-        movementDao.insert(
-                p.getCode(),
-                "DELETE",
-                p.getStock(),
-                p.getStock(),
-                0,
-                "Eliminación de producto",
-                currentUser,
-                LocalDateTime.now()
-        );
-
-        info("✔ Producto eliminado correctamente.");
-        recargar(); // recargar inventario desde API
+        ocupado(true);
+        terminar(inventoryService.deleteProductAsync(p.getId())
+                        .thenRun(() -> movementDao.insert(
+                                p.getCode(),
+                                "DELETE",
+                                p.getStock(),
+                                p.getStock(),
+                                0,
+                                "Eliminación de producto",
+                                currentUser,
+                                LocalDateTime.now()
+                        )),
+                "✔ Producto eliminado correctamente.", "❌ Error API al eliminar producto: ");
     }
 
     // ================== Modelo de tabla ==================
@@ -393,7 +410,7 @@ public class InventarioPanel extends JPanel { // Panel de inventario
                 case 0 -> p.getCode(); // Código
                 case 1 -> p.getName(); // Nombre
                 case 2 -> p.getCategory(); // Categoría
-                case 3 -> "$" + p.getPrice(); // Precio
+                case 3 -> p.getPrice(); // Precio (MoneyRenderer)
                 case 4 -> p.getStock(); // Stock
                 case 5 -> p.getStock() > 0 ? "OK" : "SIN STOCK"; // Estado visual
                 case 6 -> (p.getExpiry() == null) ? "-" : DF.format(p.getExpiry()); // Fecha vencimiento
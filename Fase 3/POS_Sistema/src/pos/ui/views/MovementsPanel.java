@@ -9,7 +9,6 @@ import java.io.FileWriter;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class MovementsPanel extends JPanel {
 
@@ -27,6 +26,19 @@ public class MovementsPanel extends JPanel {
 
     private final MovementDao dao = new MovementDao();
 
+    // ==================== Paginación ====================
+    // Se cargan páginas de PAGE_SIZE filas a medida que el usuario baja
+    // con el scroll; nunca se trae todo el historial de una vez.
+    private static final int PAGE_SIZE = 100;
+    private static final int PREFETCH_ROWS = 20;   // filas antes del final para pedir la siguiente
+
+    private String filterCode = "";
+    private String filterType = "";
+    private MovementDao.Cursor nextCursor;          // null = no hay más páginas
+    private boolean loading = false;
+    private int generation = 0;                     // invalida respuestas de filtros anteriores
+    private final JLabel lblStatus = new JLabel(" ");
+
     public MovementsPanel() {
         this("");
     }
@@ -61,7 +73,21 @@ public class MovementsPanel extends JPanel {
         table.setRowHeight(22);
         table.getTableHeader().setReorderingAllowed(false);
 
-        add(new JScrollPane(table), BorderLayout.CENTER);
+        JScrollPane scroll = new JScrollPane(table);
+        add(scroll, BorderLayout.CENTER);
+
+        // Al acercarse al final de la tabla se pide la página siguiente
+        scroll.getVerticalScrollBar().getModel().addChangeListener(e -> {
+            if (nextCursor == null || loading) return;
+            int lastVisible = table.rowAtPoint(new Point(0,
+                    scroll.getViewport().getViewRect().y + scroll.getViewport().getHeight() - 1));
+            if (lastVisible < 0 || lastVisible >= model.getRowCount() - PREFETCH_ROWS) {
+                loadNextPage();
+            }
+        });
+
+        lblStatus.setBorder(BorderFactory.createEmptyBorder(0, 8, 4, 8));
+        add(lblStatus, BorderLayout.SOUTH);
 
         if (presetCode != null && !presetCode.isBlank()) {
             txtCode.setText(presetCode);
@@ -81,29 +107,77 @@ public class MovementsPanel extends JPanel {
         loadData();
     }
 
+    /** Reinicia la tabla con los filtros actuales y carga la primera página. */
     private void loadData() {
 
         model.setRowCount(0);
 
-        String code = txtCode.getText().trim();
-        String type = Objects.toString(cboType.getSelectedItem(), "").trim();
-
-        List<String[]> rows = (!code.isEmpty())
-                ? dao.listByCode(code, 300)
-                : dao.listRecent(300);
-
-        // Filtro por tipo si corresponde
-        if (!type.isEmpty()) {
-            rows = rows.stream()
-                    .filter(r -> {
-                        // tipo está en columna 2
-                        if (r.length < 3) return false;
-                        return type.equalsIgnoreCase(r[2]);
-                    })
-                    .collect(Collectors.toList());
-        }
+        filterCode = txtCode.getText().trim();
+        filterType = Objects.toString(cboType.getSelectedItem(), "").trim();
+        nextCursor = null;
+        generation++;
+        loading = false;
+
+        fetchPage(null);
+    }
+
+    /** Pide la página siguiente (si existe y no hay otra carga en curso). */
+    private void loadNextPage() {
+        if (nextCursor != null && !loading) fetchPage(nextCursor);
+    }
+
+    // Consulta la página fuera del EDT y la agrega a la tabla al terminar
+    private void fetchPage(MovementDao.Cursor after) {
+
+        final int gen = generation;
+        final String code = filterCode;
+        final String type = filterType;
+
+        loading = true;
+        lblStatus.setText("Cargando movimientos...");
+
+        new SwingWorker<MovementDao.Page, Void>() {
+            @Override
+            protected MovementDao.Page doInBackground() {
+                return dao.page(code, type, after, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;   // cambió el filtro mientras se cargaba
+                loading = false;
+
+                MovementDao.Page page;
+                try {
+                    page = get();
+                } catch (Exception ex) {
+                    lblStatus.setText("Error al cargar movimientos: " + ex.getMessage());
+                    return;
+                }
+
+                appendRows(page.getRows());
+                nextCursor = page.getNext();
+
+                lblStatus.setText(model.getRowCount() + " movimientos"
+                        + (page.hasMore() ? " (baja para ver más)" : ""));
+
+                if (after == null && model.getRowCount() == 0) {
+                    JOptionPane.showMessageDialog(MovementsPanel.this, "No se encontraron movimientos.");
+                    return;
+                }
+
+                // Si la primera página no alcanza a llenar la vista, no habrá scroll:
+                // se pide la siguiente de inmediato
+                if (page.hasMore() && table.getPreferredSize().height <= table.getVisibleRect().height) {
+                    loadNextPage();
+                }
+            }
+        }.execute();
+    }
+
+    // Agrega filas a la tabla (sin borrar las anteriores)
+    private void appendRows(List<String[]> rows) {
 
-        // Cargar en tabla
         for (String[] r : rows) {
             try {
                 String c = safe(r, 0);
@@ -129,10 +203,6 @@ public class MovementsPanel extends JPanel {
 
             } catch (Exception ignored) {}
         }
-
-        if (model.getRowCount() == 0) {
-            JOptionPane.showMessageDialog(this, "No se encontraron movimientos.");
-        }
     }
 
     private String safe(String[] arr, int idx) {
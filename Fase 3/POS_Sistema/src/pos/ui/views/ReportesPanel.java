@@ -1,18 +1,18 @@
 package pos.ui.views;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 import pos.services.ReportApi;
+import pos.model.CashMovement;
 import pos.model.Sale;
+import pos.util.Async;
+import pos.util.Money;
+import pos.ui.table.MoneyRenderer;
 import java.util.List;
 import java.io.FileWriter;
 import java.io.IOException;
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -30,7 +30,6 @@ public class ReportesPanel extends JPanel {
     private final JTable tblVentas;
     private final JTable tblMovimientos;
 
-    private final NumberFormat CLP = NumberFormat.getCurrencyInstance(new Locale("es", "CL"));
     private final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
 
     public ReportesPanel() {
@@ -85,6 +84,7 @@ public class ReportesPanel extends JPanel {
         center.setOpaque(false);
 
         tblVentas = new JTable(new VentasModel());
+        tblVentas.getColumnModel().getColumn(3).setCellRenderer(new MoneyRenderer());
         tblMovimientos = new JTable(new MovimientosModel());
 
         center.add(wrap("Ventas en el rango", new JScrollPane(tblVentas)));
@@ -126,24 +126,43 @@ public class ReportesPanel extends JPanel {
         return p;
     }
 
+    // Cada reload() cuenta una generación: si el usuario cambia el rango
+    // antes de que llegue la respuesta anterior, esa respuesta se descarta
+    private int generation = 0;
+
     public void reload() {
 
         LocalDate desde = toLocalDate((Date) dpDesde.getValue());
         LocalDate hasta = toLocalDate((Date) dpHasta.getValue());
+        int gen = ++generation;
+
+        // Ambas consultas salen en paralelo (hilos virtuales) y cada tabla
+        // se pinta en el EDT apenas llega su respuesta
 
         // ============================================================
         // 🔥 1. VENTAS EN RANGO
         // ============================================================
-        JSONArray ventasJson = ReportApi.getSalesRange(desde.toString(), hasta.toString());
-        List<Sale> ventas = fromJsonToSales(ventasJson);
+        Async.onEdt(ReportApi.getSalesRangeAsync(desde.toString(), hasta.toString()),
+                ventas -> { if (gen == generation) pintarVentas(ventas); },
+                ex -> System.err.println("[ReportesPanel] ventas: " + ex.getMessage()));
+
+        // ============================================================
+        // 🔥 2. MOVIMIENTOS DE CAJA
+        // ============================================================
+        Async.onEdt(ReportApi.getCashMovementsAsync(desde.toString(), hasta.toString()),
+                movs -> { if (gen == generation) ((MovimientosModel) tblMovimientos.getModel()).setData(toRows(movs)); },
+                ex -> System.err.println("[ReportesPanel] movimientos: " + ex.getMessage()));
+    }
+
+    private void pintarVentas(List<Sale> ventas) {
 
         int total = ventas.stream().mapToInt(Sale::getTotal).sum();
         int cantidad = ventas.size();
         int promedio = cantidad > 0 ? total / cantidad : 0;
 
-        lblTotalVendido.setText(CLP.format(total));
+        lblTotalVendido.setText(Money.format(total));
         lblVentas.setText(String.valueOf(cantidad));
-        lblPromedio.setText(CLP.format(promedio));
+        lblPromedio.setText(Money.format(promedio));
 
         lblUltimaVenta.setText(
                 ventas.isEmpty()
@@ -152,13 +171,6 @@ public class ReportesPanel extends JPanel {
         );
 
         ((VentasModel) tblVentas.getModel()).setData(ventas);
-
-        // ============================================================
-        // 🔥 2. MOVIMIENTOS DE CAJA
-        // ============================================================
-        JSONArray movJson = ReportApi.getCashMovements(desde.toString(), hasta.toString());
-        List<Object[]> movs = fromJsonToMovements(movJson);
-        ((MovimientosModel) tblMovimientos.getModel()).setData(movs);
     }
 
     private static LocalDate toLocalDate(Date d) {
@@ -166,48 +178,17 @@ public class ReportesPanel extends JPanel {
     }
 
     // ============================================================
-    // JSON → VENTAS
-    // ============================================================
-    private List<Sale> fromJsonToSales(JSONArray arr) {
-
-        List<Sale> list = new ArrayList<>();
-
-        for (int i = 0; i < arr.length(); i++) {
-            JSONObject o = arr.getJSONObject(i);
-
-            Sale s = new Sale(
-                    o.optString("id", ""),
-                    o.optString("doc_type", "BOLETA"),
-                    LocalDateTime.parse(o.getString("ts")),
-                    List.of(),
-                    o.optString("payment_method", "cash"),
-                    0, 0, 0,
-                    0, 0,
-                    o.optInt("total", 0),
-                    null,
-                    o.optString("user", "API")
-            );
-
-            list.add(s);
-        }
-
-        return list;
-    }
-
-    // ============================================================
-    // JSON → MOVIMIENTOS CAJA
+    // MOVIMIENTOS CAJA → FILAS DE LA TABLA
     // ============================================================
-    private List<Object[]> fromJsonToMovements(JSONArray arr) {
-
-        List<Object[]> list = new ArrayList<>();
+    private List<Object[]> toRows(List<CashMovement> movs) {
 
-        for (int i = 0; i < arr.length(); i++) {
-            JSONObject o = arr.getJSONObject(i);
+        List<Object[]> list = new ArrayList<>(movs.size());
 
+        for (CashMovement m : movs) {
             list.add(new Object[]{
-                    o.getString("type"),
-                    o.getString("ts"),
-                    CLP.format(o.getInt("amount"))
+                    m.getType(),
+                    m.getTs(),
+                    Money.format(m.getAmount())
             });
         }
         return list;
@@ -261,7 +242,7 @@ public class ReportesPanel extends JPanel {
                 case 0 -> s.getId();
                 case 1 -> s.getDocType();
                 case 2 -> s.getPaymentMethod();
-                case 3 -> NumberFormat.getCurrencyInstance(new Locale("es", "CL")).format(s.getTotal());
+                case 3 -> s.getTotal();                 // MoneyRenderer
                 default -> "";
             };
         }
@@ -2,7 +2,9 @@ package pos.ui.views;
 
 import pos.model.User;
 
+import pos.services.Bootstrap;
 import pos.services.UserService;
+import pos.util.Async;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
@@ -10,6 +12,7 @@ import java.awt.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Panel conectado 100% a la API real usando UserService.
@@ -50,7 +53,7 @@ public class UsuariosPanel extends JPanel {
         tabla.setRowHeight(22);
         add(new JScrollPane(tabla), BorderLayout.CENTER);
 
-        recargar();
+        cargar(Bootstrap.users());   // lo que ya pidió el arranque
 
         btnBuscar.addActionListener(e -> buscar());
         btnNuevo.addActionListener(e -> nuevo());
@@ -62,23 +65,15 @@ public class UsuariosPanel extends JPanel {
     //        LISTAR
     // =============================
     private void recargar() {
-        new SwingWorker<List<User>, Void>() {
-            @Override
-            protected List<User> doInBackground() throws Exception {
-                return UserService.getAll();
-            }
+        cargar(UserService.getAllAsync());
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    modelo.set(get());
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(UsuariosPanel.this,
-                            "Error al cargar usuarios:\n" + e.getMessage(),
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        }.execute();
+    private void cargar(CompletableFuture<List<User>> consulta) {
+        Async.onEdt(consulta,
+                modelo::set,
+                e -> JOptionPane.showMessageDialog(UsuariosPanel.this,
+                        "Error al cargar usuarios:\n" + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     private void buscar() {
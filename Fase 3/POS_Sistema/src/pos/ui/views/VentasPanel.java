@@ -1,20 +1,21 @@
 package pos.ui.views;
 
+import pos.services.InventoryMirror;
 import pos.services.InventoryService;
 import pos.services.CashService;
-import pos.services.SaleService;
+import pos.services.SaleOutbox;
 import pos.model.Product;
 import pos.model.Sale;
 import pos.model.SaleItem;
+import pos.ui.table.MoneyRenderer;
+import pos.util.Async;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.*;
-import java.text.NumberFormat;
 import java.util.*;
 import java.util.List;
-import java.util.Locale;
 
 public class VentasPanel extends JPanel {
 
@@ -105,12 +106,10 @@ public class VentasPanel extends JPanel {
     private JTable tbl;
     private final JLabel lblInfo = new JLabel("Listo.");
     private final ItemsModel itemsModel = new ItemsModel();
+    private boolean cobroEnCurso = false;   // esperando confirmar la sesión de caja
 
-    private final NumberFormat CLP = NumberFormat.getCurrencyInstance(new Locale("es","CL"));
-    private final Map<String, Product> inventory = new HashMap<>();
 
     private final InventoryService inventoryService = new InventoryService();
-    private final SaleService saleService = new SaleService();
 
     // ============================================================
     //  CONSTRUCTOR
@@ -132,6 +131,8 @@ public class VentasPanel extends JPanel {
 
         tbl = new JTable(itemsModel);
         tbl.setRowHeight(26);
+        tbl.getColumnModel().getColumn(2).setCellRenderer(new MoneyRenderer());
+        tbl.getColumnModel().getColumn(4).setCellRenderer(new MoneyRenderer());
         add(new JScrollPane(tbl), BorderLayout.CENTER);
 
         JPanel pie = new JPanel(new BorderLayout());
@@ -157,18 +158,19 @@ public class VentasPanel extends JPanel {
     }
 
     // ============================================================
-    //  INVENTARIO DESDE API
+    //  INVENTARIO (espejo local de la API)
     // ============================================================
+    // Solo baja cambios (el escaneo usa el índice del espejo); en un hilo
+    // virtual, así el panel no espera a la red para aceptar códigos
     private void recargarInventario() {
-        try {
-            inventory.clear();
-            List<Product> productos = InventoryService.getAll();
-            for (Product p : productos) inventory.put(p.getCode(), p);
-            lblInfo.setText("Inventario cargado desde API.");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error cargando inventario desde la API\n" + e.getMessage());
-        }
+        lblInfo.setText("Sincronizando inventario...");
+        Async.onEdt(InventoryMirror.refreshAsync(),
+                list -> lblInfo.setText("Inventario sincronizado."),
+                e -> {
+                    lblInfo.setText("Inventario sin sincronizar.");
+                    JOptionPane.showMessageDialog(this,
+                            "Error cargando inventario desde la API\n" + e.getMessage());
+                });
     }
 
     // ============================================================
@@ -178,15 +180,20 @@ public class VentasPanel extends JPanel {
         String code = txtCodigo.getText().trim();
         if (code.isEmpty()) return;
 
-        Product p = inventory.get(code);
-
-        if (p == null) {
-            try {
-                p = inventoryService.getByCode(code);
-                if (p != null) inventory.put(p.getCode(), p);
-            } catch (Exception ignored) {}
+        Product p = InventoryMirror.findByCode(code);
+        if (p != null) {
+            agregar(p);
+            return;
         }
 
+        // Aún no llega al espejo: se pregunta a la API sin bloquear el panel
+        info("Buscando " + code + " en la API...");
+        Async.onEdt(inventoryService.getByCodeAsync(code),
+                this::agregar,
+                e -> agregar(null));
+    }
+
+    private void agregar(Product p) {
         if (p == null) {
             JOptionPane.showMessageDialog(this, "Código no encontrado.");
             info("Código no encontrado.");
@@ -242,11 +249,27 @@ public class VentasPanel extends JPanel {
             JOptionPane.showMessageDialog(this, "No hay ítems en la venta.");
             return;
         }
+        if (cobroEnCurso) return;
+        cobroEnCurso = true;
+
+        // 1️⃣ Obtener session_id REAL antes de los diálogos (sin bloquear el EDT)
+        Async.onEdt(CashService.sessionIdForSaleAsync(),
+                sessionId -> {
+                    cobroEnCurso = false;
+                    cobrar(sessionId);
+                },
+                ex -> {
+                    cobroEnCurso = false;
+                    JOptionPane.showMessageDialog(this,
+                            "No se pudo confirmar la caja activa:\n" + ex.getMessage());
+                });
+    }
 
-        try {
-            // 1️⃣ Obtener session_id REAL
-            int sessionId = CashService.getActiveSessionId();
+    private void cobrar(int sessionId) {
 
+        if (itemsModel.getRowCount() == 0) return;
+
+        try {
             // 2️⃣ Documentos
             String[] tipos = {"Boleta", "Factura"};
             String tipoDoc = (String) JOptionPane.showInputDialog(
@@ -275,18 +298,15 @@ public class VentasPanel extends JPanel {
             Sale venta = Sale.fromPOS(lines, tipoDoc, medioPago, rut);
             venta.setSession_id(sessionId);
 
-            // 6️⃣ Enviar venta a la API
-            boolean ok = saleService.enviarVenta(venta);
+            // 6️⃣ Bandeja de salida: se envía a la API en segundo plano
+            SaleOutbox.enqueue(venta);
 
-            if (ok) {
-                JOptionPane.showMessageDialog(this, "Venta registrada correctamente.");
-                itemsModel.clear();
-                recargarInventario();
-            }
+            JOptionPane.showMessageDialog(this, "Venta registrada correctamente.");
+            itemsModel.clear();   // el stock se actualiza al enviarse (SaleOutbox.refreshStock)
 
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this,
-                    "Error enviando venta a la API:\n" + ex.getMessage());
+                    "Error registrando la venta:\n" + ex.getMessage());
             ex.printStackTrace();
         }
     }
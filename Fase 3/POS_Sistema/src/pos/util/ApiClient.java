@@ -6,13 +6,25 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 
+import java.util.concurrent.CompletableFuture;
+
 public class ApiClient {
 
     // ⚠️ Cambia esta URL por la URL real de tu API
-	public static String BASE_URL = "http://140.84.173.136";
+    // (o usa -Dpos.api.url=http://localhost:8099 para el servidor de prueba en dev/)
+	public static String BASE_URL = System.getProperty("pos.api.url", "http://140.84.173.136");
 
 	
-	public static OkHttpClient client = new OkHttpClient();
+	// Cliente con caché HTTP en disco (ver HttpCache): revalidación con ETag /
+	// Last-Modified y políticas de frescura por endpoint.
+	// ApiMetrics mide cada llamada por endpoint (va primero: incluye la caché)
+	public static OkHttpClient client = new OkHttpClient.Builder()
+	        .cache(HttpCache.cache())
+	        .addInterceptor(ApiMetrics.interceptor())
+	        .addInterceptor(HttpCache.invalidation())
+	        .addNetworkInterceptor(HttpCache.policies())
+	        .addNetworkInterceptor(ApiMetrics.networkInterceptor())
+	        .build();
 
     private static String token = null;
 
@@ -23,6 +35,10 @@ public class ApiClient {
     // TOKEN
     // ============================================================
     public static void setToken(String t) {
+        // Otro usuario (o cierre de sesión) → no reutilizar respuestas del anterior
+        if (t == null ? token != null : !t.equals(token)) {
+            HttpCache.clear();
+        }
         token = t;
     }
 
@@ -83,6 +99,23 @@ public class ApiClient {
         return client.newCall(builder.build()).execute();
     }
 
+    // ============================================================
+    // POST IDEMPOTENTE
+    // La API guarda la Idempotency-Key: si el mismo envío llega dos veces
+    // (reintento tras un corte) no se registra dos veces.
+    // ============================================================
+    public static Response post(String endpoint, RequestBody body, String idempotencyKey) throws Exception {
+
+        Request.Builder builder = new Request.Builder()
+                .url(BASE_URL + endpoint)
+                .post(body)
+                .header("Idempotency-Key", idempotencyKey);
+
+        addHeaders(builder);
+
+        return client.newCall(builder.build()).execute();
+    }
+
     // ============================================================
     // PUT (STRING)
     // ============================================================
@@ -126,4 +159,33 @@ public class ApiClient {
 
         return client.newCall(builder.build()).execute();
     }
-}
\ No newline at end of file
+
+    // ============================================================
+    // VARIANTES ASÍNCRONAS
+    // Misma llamada, en un hilo virtual (ver Async). Para usar desde la
+    // UI sin congelar el EDT; quien recibe la Response debe cerrarla.
+    // ============================================================
+    public static CompletableFuture<Response> getAsync(String endpoint) {
+        return Async.supply(() -> get(endpoint));
+    }
+
+    public static CompletableFuture<Response> postAsync(String endpoint, String jsonBody) {
+        return Async.supply(() -> post(endpoint, jsonBody));
+    }
+
+    public static CompletableFuture<Response> postAsync(String endpoint, RequestBody body) {
+        return Async.supply(() -> post(endpoint, body));
+    }
+
+    public static CompletableFuture<Response> putAsync(String endpoint, String jsonBody) {
+        return Async.supply(() -> put(endpoint, jsonBody));
+    }
+
+    public static CompletableFuture<Response> putAsync(String endpoint, RequestBody body) {
+        return Async.supply(() -> put(endpoint, body));
+    }
+
+    public static CompletableFuture<Response> deleteAsync(String endpoint) {
+        return Async.supply(() -> delete(endpoint));
+    }
+}
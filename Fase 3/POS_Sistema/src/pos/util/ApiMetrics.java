@@ -0,0 +1,415 @@
+package pos.util;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de las llamadas a la API, por endpoint (ej: "POST /v1/sales",
+ * "GET /v1/inventory/products", "PUT /v1/inventory/products/{id}").
+ *
+ * - Latencia de cada llamada completa (desde ApiClient hasta terminar de
+ *   leer o cerrar el cuerpo, caché incluida) en un histograma:
+ *   p50 / p95 / p99 / máx. Aparte, el tiempo hasta las cabeceras: la
+ *   diferencia es la transferencia del cuerpo (catálogo, reportes en streaming)
+ * - Bytes enviados y recibidos (Content-Length, o lo leído si no viene)
+ * - Respuestas por código HTTP, errores de red (IOException) y respuestas
+ *   servidas por la caché (hit o 304)
+ * - Reintentos: la misma Idempotency-Key enviada otra vez (SaleOutbox) y
+ *   los intentos extra que hace OkHttp por su cuenta (reconexión, redirect)
+ *
+ * ApiClient registra interceptor() y networkInterceptor(). snapshot() entrega
+ * los números (AjustesPanel → "Diagnóstico API"), report() el texto y reset()
+ * vuelve a cero. Registrar una llamada no bloquea: contadores atómicos.
+ */
+public final class ApiMetrics {
+
+    // Rutas distintas como máximo (el resto se junta en OTROS)
+    private static final int MAX_ENDPOINTS = 128;
+    private static final String OTROS = "(otros)";
+
+    // Idempotency-Keys recientes para detectar reenvíos
+    private static final int RECENT_KEYS = 4096;
+
+    private static final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private static final Set<String> recentKeys = Collections.newSetFromMap(
+            Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > RECENT_KEYS;
+                }
+            }));
+
+    // Intentos de red de la llamada en curso (la cadena de interceptores de
+    // una llamada corre completa en un mismo hilo)
+    private static final ThreadLocal<int[]> attempts = new ThreadLocal<>();
+
+    private ApiMetrics() {}
+
+    // ============================================================
+    // INTERCEPTORES
+    // ============================================================
+
+    /** Interceptor de aplicación: mide la llamada completa. Va primero en ApiClient. */
+    static Interceptor interceptor() {
+        return chain -> {
+            Request req = chain.request();
+            Endpoint ep = endpoint(req.method(), req.url().encodedPath());
+
+            String key = req.header("Idempotency-Key");
+            if (key != null && !recentKeys.add(key)) ep.retries.increment();
+
+            long out = req.body() != null ? req.body().contentLength() : -1;
+            if (out > 0) ep.bytesOut.add(out);
+
+            int[] tries = {0};
+            int[] outer = attempts.get();
+            attempts.set(tries);
+            long t0 = System.nanoTime();
+            try {
+                Response resp = chain.proceed(req);
+                ep.headers.record(System.nanoTime() - t0);
+                ep.status(resp.code());
+                if (HttpCache.notModified(resp)) ep.cached.increment();
+                if (tries[0] > 1) ep.retries.add(tries[0] - 1);
+
+                long in = received(resp);
+                if (in > 0) ep.bytesIn.add(in);
+
+                // El tiempo total se anota cuando el llamador termina con el cuerpo
+                if (resp.body() == null) {
+                    ep.latency.record(System.nanoTime() - t0);
+                    return resp;
+                }
+                return resp.newBuilder().body(new TimedBody(resp.body(), ep, t0, in <= 0)).build();
+
+            } catch (IOException e) {
+                long t = System.nanoTime() - t0;
+                ep.headers.record(t);
+                ep.latency.record(t);
+                ep.errors.increment();
+                if (tries[0] > 1) ep.retries.add(tries[0] - 1);
+                throw e;
+            } finally {
+                attempts.set(outer);
+            }
+        };
+    }
+
+    // Bytes del cuerpo tal como llegaron por la red (con gzip OkHttp quita el
+    // Content-Length de la respuesta ya descomprimida)
+    private static long received(Response resp) {
+        Response net = resp.networkResponse();
+        if (net != null) {
+            String len = net.header("Content-Length");
+            if (len != null) {
+                try {
+                    return Long.parseLong(len);
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        return resp.body() != null ? resp.body().contentLength() : -1;
+    }
+
+    // Cuerpo que anota la latencia total al leerse completo o cerrarse (lo
+    // primero que ocurra, una sola vez). Un error al leerlo cuenta como error
+    // de red. Si la respuesta no traía largo, suma los bytes leídos.
+    private static final class TimedBody extends ResponseBody {
+        private final ResponseBody body;
+        private final Endpoint ep;
+        private final long t0;
+        private final boolean countBytes;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private BufferedSource source;
+
+        TimedBody(ResponseBody body, Endpoint ep, long t0, boolean countBytes) {
+            this.body = body;
+            this.ep = ep;
+            this.t0 = t0;
+            this.countBytes = countBytes;
+        }
+
+        @Override public MediaType contentType() { return body.contentType(); }
+        @Override public long contentLength() { return body.contentLength(); }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(body.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long n;
+                        try {
+                            n = super.read(sink, byteCount);
+                        } catch (IOException e) {
+                            if (finish()) ep.errors.increment();
+                            throw e;
+                        }
+                        if (n == -1) finish();
+                        else if (countBytes) ep.bytesIn.add(n);
+                        return n;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        finish();
+                        super.close();
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            finish();
+            body.close();
+        }
+
+        private boolean finish() {
+            if (!done.compareAndSet(false, true)) return false;
+            ep.latency.record(System.nanoTime() - t0);
+            return true;
+        }
+    }
+
+    /** Interceptor de red: cuenta cada intento que sale a la red. Va último en ApiClient. */
+    static Interceptor networkInterceptor() {
+        return chain -> {
+            int[] tries = attempts.get();
+            if (tries != null) tries[0]++;
+            return chain.proceed(chain.request());
+        };
+    }
+
+    // ============================================================
+    // CONSULTA
+    // ============================================================
+
+    /**
+     * Números de un endpoint en el momento de la consulta (latencias en ms).
+     * p50..max: llamada completa (cuerpo incluido); headersP50 / headersP95:
+     * hasta las cabeceras. calls cuenta también las llamadas cuyo cuerpo aún
+     * no se termina de leer.
+     */
+    public record Stats(String endpoint, long calls, long errors, long retries, long cached,
+                        long bytesOut, long bytesIn,
+                        double p50, double p95, double p99, double max,
+                        double headersP50, double headersP95,
+                        Map<Integer, Long> statuses) {
+
+        /** Respuestas 4xx / 5xx. */
+        public long httpErrors() {
+            long n = 0;
+            for (Map.Entry<Integer, Long> e : statuses.entrySet()) if (e.getKey() >= 400) n += e.getValue();
+            return n;
+        }
+
+        /** Códigos y cantidades, ej: "200×412 503×3". */
+        public String statusSummary() {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<Integer, Long> e : statuses.entrySet()) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(e.getKey()).append('×').append(e.getValue());
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Todos los endpoints con llamadas, los de más tiempo acumulado primero. */
+    public static List<Stats> snapshot() {
+        List<Stats> out = new ArrayList<>();
+        for (Endpoint ep : endpoints.values()) {
+            Stats s = ep.stats();
+            if (s.calls() > 0) out.add(s);
+        }
+        out.sort(Comparator.comparingDouble((Stats s) -> s.p50() * s.calls()).reversed());
+        return out;
+    }
+
+    /** Tabla legible (para consola o el diálogo de diagnóstico). */
+    public static String report() {
+        List<Stats> list = snapshot();
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ApiMetrics] ").append(list.size()).append(" endpoints\n");
+        sb.append(String.format("  %-38s %7s %8s %8s %8s %8s %8s %5s %5s %5s %9s %9s  %s%n",
+                "endpoint", "n", "cab p50", "p50 ms", "p95 ms", "p99 ms", "máx ms",
+                "red", "reint", "caché", "KB env", "KB rec", "códigos"));
+        for (Stats s : list) {
+            sb.append(String.format("  %-38s %7d %8.1f %8.1f %8.1f %8.1f %8.1f %5d %5d %5d %9.1f %9.1f  %s%n",
+                    s.endpoint(), s.calls(), s.headersP50(), s.p50(), s.p95(), s.p99(), s.max(),
+                    s.errors(), s.retries(), s.cached(),
+                    s.bytesOut() / 1024.0, s.bytesIn() / 1024.0, s.statusSummary()));
+        }
+        return sb.toString();
+    }
+
+    /** Vuelve todos los contadores a cero. */
+    public static void reset() {
+        endpoints.clear();
+        recentKeys.clear();
+    }
+
+    // ============================================================
+    // ENDPOINTS
+    // ============================================================
+
+    private static Endpoint endpoint(String method, String path) {
+        String name = method + " " + normalize(path);
+        Endpoint ep = endpoints.get(name);
+        if (ep != null) return ep;
+        if (endpoints.size() >= MAX_ENDPOINTS) name = OTROS;
+        return endpoints.computeIfAbsent(name, Endpoint::new);
+    }
+
+    // Los segmentos que son IDs (números, UUID, hex largos) se reemplazan por
+    // {id}: /v1/inventory/products/123 → /v1/inventory/products/{id}
+    static String normalize(String path) {
+        if (path == null || path.isEmpty()) return "/";
+        StringBuilder sb = new StringBuilder(path.length());
+        for (String seg : path.split("/")) {
+            if (seg.isEmpty()) continue;
+            sb.append('/').append(isId(seg) ? "{id}" : seg);
+        }
+        if (path.endsWith("/") && sb.length() > 0) sb.append('/');
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
+
+    private static boolean isId(String seg) {
+        boolean digit = false;
+        for (int i = 0; i < seg.length(); i++) {
+            char c = seg.charAt(i);
+            if (c >= '0' && c <= '9') digit = true;
+            else if (!(c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F' || c == '-')) return false;
+        }
+        // Solo dígitos, o hex / UUID con al menos un dígito y largo de ID
+        return digit && (seg.chars().allMatch(Character::isDigit) || seg.length() >= 16);
+    }
+
+    private static final class Endpoint {
+        final String name;
+        final Histogram latency = new Histogram();   // llamada completa
+        final Histogram headers = new Histogram();   // hasta las cabeceras
+        final LongAdder errors = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder cached = new LongAdder();
+        final LongAdder bytesOut = new LongAdder();
+        final LongAdder bytesIn = new LongAdder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        void status(int code) {
+            statuses.computeIfAbsent(code, k -> new LongAdder()).increment();
+        }
+
+        Stats stats() {
+            Map<Integer, Long> codes = new TreeMap<>();
+            statuses.forEach((k, v) -> codes.put(k, v.sum()));
+            return new Stats(name, headers.count(), errors.sum(), retries.sum(), cached.sum(),
+                    bytesOut.sum(), bytesIn.sum(),
+                    latency.percentileMs(50), latency.percentileMs(95), latency.percentileMs(99),
+                    latency.max.get() / 1e6,
+                    headers.percentileMs(50), headers.percentileMs(95),
+                    codes);
+        }
+    }
+
+    // ============================================================
+    // HISTOGRAMA
+    // ============================================================
+
+    /**
+     * Histograma log-lineal de duraciones en ns: cada potencia de 2 se divide
+     * en 8 tramos, así el percentil informado tiene a lo más ~12% de error
+     * sea la llamada de 1 ms o de 30 s. Tamaño fijo (sin guardar muestras).
+     */
+    static final class Histogram {
+
+        private static final int SUB_BITS = 3;                 // 8 tramos por potencia de 2
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB + SUB;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            buckets.incrementAndGet(index(nanos));
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        long[] counts() {
+            long[] c = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) c[i] = buckets.get(i);
+            return c;
+        }
+
+        long count() {
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) n += buckets.get(i);
+            return n;
+        }
+
+        // Percentil en ms (el tramo puede pasarse del máximo real → se recorta)
+        double percentileMs(int p) {
+            long[] c = counts();
+            long n = 0;
+            for (long x : c) n += x;
+            return Math.min(percentile(c, n, p), max.get()) / 1e6;
+        }
+
+        // Valores < 8 van directo; sobre eso: potencia de 2 + 3 bits siguientes
+        static int index(long v) {
+            if (v < SUB) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        // Límite superior del tramo (lo que se informa como percentil)
+        static long upper(int index) {
+            if (index < SUB) return index;
+            int exp = index / SUB + SUB_BITS - 1;
+            long sub = index % SUB;
+            long low = (1L << exp) + (sub << (exp - SUB_BITS));
+            return low + (1L << (exp - SUB_BITS)) - 1;
+        }
+
+        // Percentil por rango más cercano sobre los tramos
+        static long percentile(long[] counts, long n, int p) {
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return upper(i);
+            }
+            return upper(counts.length - 1);
+        }
+    }
+}
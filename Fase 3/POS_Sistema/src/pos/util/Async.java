@@ -0,0 +1,83 @@
+package pos.util;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Ejecución asíncrona de llamadas a la API.
+ *
+ * - supply() corre la tarea en un hilo virtual (uno por llamada): esperar
+ *   la red no ocupa un hilo del sistema ni, sobre todo, el EDT de Swing
+ * - onEdt() entrega el resultado (o el error) de vuelta en el EDT, donde
+ *   es seguro tocar componentes
+ *
+ * Uso típico en un panel:
+ *   Async.onEdt(ReportApi.getDashboardAsync(),
+ *           data -> pintar(data),
+ *           err  -> lblInfo.setText("Error: " + err.getMessage()));
+ */
+public final class Async {
+
+    // Un hilo virtual por tarea ("api-0", "api-1", ...)
+    private static final ExecutorService IO =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("api-", 0).factory());
+
+    /** Ejecutor que corre en el EDT de Swing. */
+    public static final Executor EDT = r -> {
+        if (SwingUtilities.isEventDispatchThread()) r.run();
+        else SwingUtilities.invokeLater(r);
+    };
+
+    /** Ejecutor de hilos virtuales para I/O (red, disco). */
+    public static Executor io() {
+        return IO;
+    }
+
+    /**
+     * Corre la tarea en un hilo virtual.
+     * Las excepciones (incluidas las verificadas) completan el futuro con error.
+     */
+    public static <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        IO.execute(() -> {
+            try {
+                f.complete(task.call());
+            } catch (Throwable e) {
+                f.completeExceptionally(e);
+            }
+        });
+        return f;
+    }
+
+    /**
+     * Entrega el resultado en el EDT.
+     * @param ok    recibe el valor si la tarea terminó bien
+     * @param error recibe la causa real (sin envoltorio CompletionException)
+     */
+    public static <T> void onEdt(CompletableFuture<T> f, Consumer<? super T> ok, Consumer<Throwable> error) {
+        f.whenCompleteAsync((v, e) -> {
+            if (e == null) {
+                ok.accept(v);
+            } else {
+                error.accept(unwrap(e));
+            }
+        }, EDT);
+    }
+
+    /** Quita los envoltorios CompletionException / ExecutionException. */
+    public static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private Async() {}
+}
@@ -1,55 +1,174 @@
 package pos.util; // Paquete de utilidades del sistema
 
-import java.util.*; // List, Map, etc.
-import java.util.concurrent.*; // ConcurrentHashMap y CopyOnWriteArrayList
+import java.awt.Component; // Suscripciones atadas a un panel
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.lang.ref.WeakReference; // El bus no mantiene vivo al dueño
+import java.util.*; // List, Set, etc.
+import java.util.concurrent.*; // ConcurrentHashMap, CopyOnWriteArrayList, Executor
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * 🔄 Clase DataSync — sistema global de sincronización.
  * Permite que varios paneles (inventario, ventas, admin) reaccionen
- * automáticamente cuando otro módulo cambia datos en BD.
+ * automáticamente cuando otro módulo cambia datos.
+ *
+ * - Eventos con tipo y con los IDs que cambiaron (ej: ProductChanged{ids}):
+ *   el panel actualiza solo esas filas en vez de recargar todo
+ * - publish() no ejecuta a nadie en el hilo que publica: cada suscriptor
+ *   recibe el evento en SU ejecutor (ej: Async.EDT para tocar la UI)
+ * - Agrupación por suscriptor: los eventos que llegan dentro de
+ *   pos.sync.coalesceMs (100 ms) se juntan en uno solo (IDs unidos)
+ *
+ * Los paneles se suscriben con un DUEÑO (subscribe(type, executor, owner, handler)):
+ * - el bus guarda al dueño con referencia débil, así que no lo mantiene vivo
+ * - si el dueño es un componente Swing, la suscripción se cierra sola cuando
+ *   su ventana se cierra (dispose), p. ej. al cerrar sesión
+ * report() lista las suscripciones vivas por tipo de evento.
  */
 public class DataSync {
 
-    // Mapa donde cada categoría tiene una lista de listeners → ej: "inventory" → listeners
-    private static final Map<String, List<Runnable>> listeners = new ConcurrentHashMap<>(); // Thread-safe
+    private static final long COALESCE_MS = Long.getLong("pos.sync.coalesceMs", 100);
+
+    // Un solo hilo para las esperas de agrupación (no ejecuta a los suscriptores)
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "datasync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Tipo de evento → suscriptores
+    private static final Map<Class<?>, List<Subscription>> subs = new ConcurrentHashMap<>(); // Thread-safe
+
+    // ============================================================
+    // EVENTOS
+    // ============================================================
+
+    /** Evento publicado en el bus. */
+    public interface Event {
+        /** Categoría (para diagnóstico), ej: "inventory". */
+        String category();
+
+        /** Une este evento con uno posterior de igual tipo y categoría (por defecto gana el último). */
+        default Event merge(Event later) {
+            return later;
+        }
+    }
 
     /**
-     * Agrega un listener que se ejecuta cuando ocurre un cambio.
-     * @param category categoría ej: "inventory", "sales", "products"
-     * @param listener código a ejecutar (Runnable)
+     * Productos creados, modificados o eliminados en el espejo local.
+     * ids vacío = cambió todo (ej: sincronización completa) → recargar.
      */
-    public static void addListener(String category, Runnable listener) {
-        listeners                          // Mapa global de categorías
-            .computeIfAbsent(category, k -> new CopyOnWriteArrayList<>()) // Si no existe, crea lista segura
-            .add(listener); // Agregar listener para esta categoría
+    public record ProductChanged(Set<Integer> ids) implements Event {
+
+        public static final ProductChanged ALL = new ProductChanged(Set.of());
+
+        public ProductChanged {
+            ids = Set.copyOf(ids);
+        }
+
+        public static ProductChanged of(Collection<Integer> ids) {
+            return ids.isEmpty() ? ALL : new ProductChanged(new HashSet<>(ids));
+        }
+
+        public boolean all() {
+            return ids.isEmpty();
+        }
+
+        public String category() {
+            return "inventory";
+        }
+
+        public Event merge(Event later) {
+            if (!(later instanceof ProductChanged p)) return later;
+            if (all() || p.all()) return ALL;
+            Set<Integer> union = new HashSet<>(ids);
+            union.addAll(p.ids);
+            return new ProductChanged(union);
+        }
     }
 
+    // ============================================================
+    // SUSCRIPCIÓN / PUBLICACIÓN
+    // ============================================================
+
     /**
-     * Quita un listener registrado.
-     * @param category categoría asociada al listener
-     * @param listener acción a eliminar
+     * Recibe los eventos del tipo indicado (y sus subtipos).
+     * @param executor dónde corre el handler (ej: Async.EDT)
+     * @return suscripción; close() la cancela
      */
-    public static void removeListener(String category, Runnable listener) {
-        List<Runnable> list = listeners.get(category); // Obtiene lista de la categoría
-        if (list != null) list.remove(listener); // Si existe, lo elimina
+    public static <E extends Event> Subscription subscribe(Class<E> type, Executor executor,
+                                                           Consumer<? super E> handler) {
+        Subscription s = new Subscription(type, executor, handler, null, "(sin dueño)");
+        subs.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(s); // Si no existe, crea lista segura
+        return s;
     }
 
     /**
-     * Ejecuta TODOS los listeners asociados a una categoría.
-     * Esto es lo que provoca que los paneles refresquen su información.
+     * Suscripción con dueño (normalmente el panel que la usa).
+     * El handler recibe al dueño como parámetro: NO debe capturarlo (this),
+     * o la referencia débil no sirve. Ej:
+     *   DataSync.subscribe(ProductChanged.class, Async.EDT, this, (panel, ev) -> panel.aplicar(ev));
+     * Se cierra sola cuando el dueño es recolectado o, si es un Component,
+     * cuando deja de ser visualizable (su ventana se cerró).
      */
-    public static void notifyChange(String category) {
-        List<Runnable> list = listeners.get(category); // Lista de listeners de la categoría
-        if (list != null) {
-            for (Runnable r : list) { // Recorre todos los listeners
-                try {
-                    r.run(); // Ejecuta callback
-                } catch (Exception e) {
-                    System.err.println("[DataSync] Error al ejecutar listener de "
-                            + category + ": " + e.getMessage()); // Evita que un error rompa todo
-                }
+    public static <O, E extends Event> Subscription subscribe(Class<E> type, Executor executor, O owner,
+                                                              BiConsumer<? super O, ? super E> handler) {
+        WeakReference<O> ref = new WeakReference<>(owner);
+        Subscription s = new Subscription(type, executor, null, ref, owner.getClass().getSimpleName());
+        s.handler = e -> {
+            O o = ref.get();
+            if (o == null) s.close();
+            else handler.accept(o, type.cast(e));
+        };
+        subs.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(s);
+
+        if (owner instanceof Component c) s.bindTo(c);
+        return s;
+    }
+
+    /** Publica un evento. Vuelve de inmediato: la entrega es asíncrona. */
+    public static void publish(Event event) {
+        for (Map.Entry<Class<?>, List<Subscription>> e : subs.entrySet()) {
+            if (!e.getKey().isInstance(event)) continue;
+            for (Subscription s : e.getValue()) s.offer(event);
+        }
+    }
+
+    // ============================================================
+    // DIAGNÓSTICO
+    // ============================================================
+
+    /** Suscripciones vivas por tipo de evento (ej: "ProductChanged" → 1). */
+    public static Map<String, Integer> counts() {
+        Map<String, Integer> out = new TreeMap<>();
+        for (Map.Entry<Class<?>, List<Subscription>> e : subs.entrySet()) {
+            int n = (int) e.getValue().stream().filter(Subscription::isActive).count();
+            if (n > 0) out.put(e.getKey().getSimpleName(), n);
+        }
+        return out;
+    }
+
+    /** Detalle legible: tipo, dueño y eventos entregados de cada suscripción. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        int total = 0;
+        for (Map.Entry<String, Integer> c : counts().entrySet()) total += c.getValue();
+        sb.append("[DataSync] ").append(total).append(" suscripciones activas\n");
+
+        List<Class<?>> types = new ArrayList<>(subs.keySet());
+        types.sort(Comparator.comparing(Class::getSimpleName));
+        for (Class<?> t : types) {
+            List<Subscription> list = subs.get(t);
+            if (list == null || list.isEmpty()) continue;
+            sb.append("  ").append(t.getSimpleName()).append(" (").append(list.size()).append(")\n");
+            for (Subscription s : list) {
+                sb.append("    - ").append(s.describe()).append('\n');
             }
         }
+        return sb.toString();
     }
 
     /**
@@ -57,6 +176,111 @@ public class DataSync {
      * Útil al cerrar sesión o recargar el sistema.
      */
     public static void clearAll() {
-        listeners.clear(); // Limpia el mapa entero
+        subs.values().forEach(list -> list.forEach(Subscription::close));
+        subs.clear(); // Limpia el mapa entero
+    }
+
+    // ============================================================
+    // SUSCRIPCIÓN
+    // ============================================================
+
+    /** Registro de un suscriptor; close() lo quita del bus. */
+    public static final class Subscription implements AutoCloseable {
+
+        private final Class<?> type;
+        private final Executor executor;
+        private Consumer<Object> handler;            // fijo tras subscribe()
+        private final WeakReference<?> owner;        // null = sin dueño
+        private final String ownerName;
+        private final AtomicLong delivered = new AtomicLong();
+
+        // Eventos agrupados aún no entregados, uno por clase y categoría (protegido por this)
+        private final Map<String, Event> pending = new LinkedHashMap<>();
+        private boolean scheduled;         // hay una entrega programada (protegido por this)
+        private volatile boolean closed;
+
+        @SuppressWarnings("unchecked")
+        private Subscription(Class<?> type, Executor executor, Consumer<?> handler,
+                             WeakReference<?> owner, String ownerName) {
+            this.type = type;
+            this.executor = executor;
+            this.handler = (Consumer<Object>) handler;
+            this.owner = owner;
+            this.ownerName = ownerName;
+        }
+
+        public boolean isActive() {
+            if (!closed && owner != null && owner.get() == null) close();   // dueño recolectado
+            return !closed;
+        }
+
+        /**
+         * Cierra la suscripción cuando el componente deja de ser visualizable
+         * (su ventana se cerró con dispose). Si nunca llegó a mostrarse, la
+         * cierra la referencia débil cuando el componente sea recolectado.
+         */
+        public Subscription bindTo(Component c) {
+            c.addHierarchyListener(new HierarchyListener() {
+                boolean shown = c.isDisplayable();
+
+                public void hierarchyChanged(HierarchyEvent e) {
+                    if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0) return;
+                    if (c.isDisplayable()) {
+                        shown = true;
+                    } else if (shown) {
+                        close();
+                        c.removeHierarchyListener(this);
+                    }
+                }
+            });
+            return this;
+        }
+
+        String describe() {
+            String state = closed ? "cerrada" : owner != null && owner.get() == null ? "dueño recolectado" : "activa";
+            return ownerName + " · " + delivered.get() + " entregas · " + state;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            List<Subscription> list = subs.get(type);
+            if (list != null) list.remove(this);
+        }
+
+        // Junta el evento con el pendiente de su misma clase y categoría, y
+        // programa UNA entrega al final de la ventana
+        private void offer(Event e) {
+            if (!isActive()) return;
+            synchronized (this) {
+                pending.merge(e.getClass().getName() + ":" + e.category(), e, Event::merge);
+                if (scheduled) return;
+                scheduled = true;
+            }
+            TIMER.schedule(this::flush, COALESCE_MS, TimeUnit.MILLISECONDS);
+        }
+
+        private void flush() {
+            List<Event> events;
+            synchronized (this) {
+                events = new ArrayList<>(pending.values());
+                pending.clear();
+                scheduled = false;
+            }
+            if (events.isEmpty() || closed) return;
+
+            executor.execute(() -> {
+                for (Event e : events) {
+                    if (closed) return;
+                    try {
+                        delivered.incrementAndGet();
+                        handler.accept(e); // Ejecuta callback
+                    } catch (Exception ex) {
+                        System.err.println("[DataSync] Error al ejecutar suscriptor de "
+                                + e.category() + ": " + ex.getMessage()); // Evita que un error rompa todo
+                    }
+                }
+            });
+        }
     }
 }
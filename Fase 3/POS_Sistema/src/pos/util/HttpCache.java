@@ -0,0 +1,174 @@
+package pos.util;
+
+import okhttp3.Cache;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché HTTP en disco para ApiClient.
+ *
+ * - OkHttp guarda las respuestas GET en ~/.pos_demo/http-cache y, cuando
+ *   la API envía ETag / Last-Modified, revalida con If-None-Match /
+ *   If-Modified-Since: si nada cambió el servidor responde 304 sin cuerpo
+ * - Si la API no envía Cache-Control, se aplica una política por endpoint
+ *   (POLICIES) para decidir cuánto tiempo se considera fresca la respuesta
+ * - Las respuestas varían por token (Vary: Authorization) y la caché se
+ *   vacía al cambiar de usuario
+ * - Después de un POST/PUT/DELETE exitoso se invalidan los GET relacionados
+ *   (ej: sumar stock invalida /v1/inventory/products)
+ */
+public final class HttpCache {
+
+    private static final long MAX_BYTES = Long.getLong("pos.http.cacheMb", 20) * 1024 * 1024;
+
+    private static final File DIR = new File(
+            System.getProperty("user.home") + File.separator + ".pos_demo" + File.separator + "http-cache");
+
+    // Política de frescura por prefijo de ruta (se usa la primera que calce).
+    //   no-cache   → se guarda, pero siempre se revalida (304 si no cambió)
+    //   max-age=N  → se usa sin preguntar durante N segundos
+    //   no-store   → nunca se guarda (estado crítico)
+    private static final Map<String, String> POLICIES = new LinkedHashMap<>();
+    static {
+        POLICIES.put("/v1/cash/",               "no-store");            // la caja activa debe ser la real
+        POLICIES.put("/v1/inventory/products",  "no-cache");            // stock cambia seguido → revalidar
+        POLICIES.put("/v1/reports/dashboard",   "private, max-age=15");
+        POLICIES.put("/v1/reports/",            "private, max-age=30");
+        POLICIES.put("/v1/auth/whoami",         "private, max-age=300");
+        POLICIES.put("/v1/admin/users",         "private, max-age=30");
+    }
+
+    // Qué GET quedan obsoletos tras una escritura en cada prefijo
+    private static final Map<String, List<String>> INVALIDATES = new LinkedHashMap<>();
+    static {
+        INVALIDATES.put("/v1/inventory/", List.of("/v1/inventory/", "/v1/reports/"));
+        INVALIDATES.put("/v1/sales",      List.of("/v1/inventory/", "/v1/reports/", "/v1/cash/"));
+        INVALIDATES.put("/v1/cash/",      List.of("/v1/cash/", "/v1/reports/"));
+        INVALIDATES.put("/v1/admin/users", List.of("/v1/admin/users"));
+    }
+
+    private static Cache cache;
+
+    /** Caché en disco compartida (se crea una sola vez). */
+    static synchronized Cache cache() {
+        if (cache == null) {
+            DIR.mkdirs();
+            cache = new Cache(DIR, MAX_BYTES);
+        }
+        return cache;
+    }
+
+    /** Vacía la caché completa (al cambiar de usuario / cerrar sesión). */
+    public static void clear() {
+        try {
+            cache().evictAll();
+        } catch (IOException e) {
+            System.err.println("[HttpCache] Error al vaciar caché: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ¿La respuesta salió de la caché sin cambios (hit o 304)?
+     * Permite a los servicios reutilizar lo que ya parsearon.
+     */
+    public static boolean notModified(Response res) {
+        if (res.cacheResponse() == null) return false;
+        Response net = res.networkResponse();
+        return net == null || net.code() == 304;
+    }
+
+    /** Resumen: peticiones, aciertos y revalidaciones (304). */
+    public static String stats() {
+        Cache c = cache();
+        return String.format("HttpCache[peticiones=%d red=%d aciertos=%d]",
+                c.requestCount(), c.networkCount(), c.hitCount());
+    }
+
+    // ============================================================
+    // INTERCEPTORES
+    // ============================================================
+
+    /**
+     * Interceptor de RED: completa Cache-Control según POLICIES cuando la
+     * API no lo envía, y marca Vary: Authorization.
+     */
+    static Interceptor policies() {
+        return chain -> {
+            Request req = chain.request();
+            Response res = chain.proceed(req);
+
+            if (!"GET".equals(req.method())) return res;
+
+            Response.Builder b = res.newBuilder();
+
+            if (res.header("Cache-Control") == null) {
+                String policy = policyFor(req.url().encodedPath());
+                if (policy != null) {
+                    b.header("Cache-Control", policy).removeHeader("Pragma");
+                }
+            }
+
+            String vary = res.header("Vary");
+            if (vary == null) {
+                b.header("Vary", "Authorization");
+            } else if (!vary.toLowerCase().contains("authorization")) {
+                b.header("Vary", vary + ", Authorization");
+            }
+
+            return b.build();
+        };
+    }
+
+    /** Interceptor de APLICACIÓN: tras una escritura exitosa, invalida los GET relacionados. */
+    static Interceptor invalidation() {
+        return chain -> {
+            Request req = chain.request();
+            Response res = chain.proceed(req);
+
+            if (!"GET".equals(req.method()) && res.isSuccessful()) {
+                String path = req.url().encodedPath();
+                for (Map.Entry<String, List<String>> e : INVALIDATES.entrySet()) {
+                    if (path.startsWith(e.getKey())) invalidate(e.getValue());
+                }
+            }
+            return res;
+        };
+    }
+
+    // Borra de la caché las URLs cuya ruta empieza con alguno de los prefijos
+    private static void invalidate(List<String> prefixes) {
+        String base = ApiClient.BASE_URL;
+        try {
+            Iterator<String> it = cache().urls();
+            while (it.hasNext()) {
+                String url = it.next();
+                String path = url.startsWith(base) ? url.substring(base.length()) : url;
+                for (String p : prefixes) {
+                    if (path.startsWith(p)) {
+                        it.remove();
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[HttpCache] Error al invalidar: " + e.getMessage());
+        }
+    }
+
+    private static String policyFor(String path) {
+        for (Map.Entry<String, String> e : POLICIES.entrySet()) {
+            if (path.startsWith(e.getKey())) return e.getValue();
+        }
+        return null;
+    }
+
+    private HttpCache() {}
+}
@@ -0,0 +1,70 @@
+package pos.util;
+
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Búsqueda "mientras escribes" sin trabar el EDT.
+ *
+ * - Espera pos.search.debounceMs (150 ms) sin teclas antes de buscar
+ * - query se evalúa en el EDT (lee los campos) y devuelve la tarea que
+ *   corre en un hilo virtual (ver Async)
+ * - Solo se muestra el resultado de la ÚLTIMA búsqueda: si una anterior
+ *   llega tarde, se descarta
+ *
+ * Uso típico:
+ *   LiveSearch<List<Product>> ls = new LiveSearch<>(
+ *           () -> { String q = txt.getText(); return () -> index.search(q, SearchIndex.LIMIT); },
+ *           rows -> modelo.set(rows));
+ *   ls.listenTo(txt);
+ *
+ * Todos los métodos se llaman desde el EDT.
+ */
+public final class LiveSearch<R> {
+
+    public static final int DELAY_MS = Integer.getInteger("pos.search.debounceMs", 150);
+
+    private final Supplier<Callable<R>> query;
+    private final Consumer<R> show;
+    private final Timer timer;
+    private int generation;
+
+    public LiveSearch(Supplier<Callable<R>> query, Consumer<R> show) {
+        this.query = query;
+        this.show = show;
+        this.timer = new Timer(DELAY_MS, e -> now());
+        this.timer.setRepeats(false);
+    }
+
+    /** Busca cada vez que cambia el texto de estos campos. */
+    public void listenTo(JTextComponent... fields) {
+        DocumentListener l = new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { trigger(); }
+            public void removeUpdate(DocumentEvent e) { trigger(); }
+            public void changedUpdate(DocumentEvent e) { trigger(); }
+        };
+        for (JTextComponent f : fields) f.getDocument().addDocumentListener(l);
+    }
+
+    /** Programa una búsqueda (reinicia la espera si ya había una). */
+    public void trigger() {
+        timer.restart();
+    }
+
+    /** Busca ya (ej: botón Buscar / Enter). */
+    public void now() {
+        timer.stop();
+        int gen = ++generation;
+
+        Async.onEdt(Async.supply(query.get()),
+                r -> {
+                    if (gen == generation) show.accept(r);
+                },
+                e -> System.err.println("[LiveSearch] " + e.getMessage()));
+    }
+}
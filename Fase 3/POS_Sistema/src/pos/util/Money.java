@@ -2,45 +2,100 @@ package pos.util; // Paquete utilidades POS
 
 import java.math.BigDecimal; // Para cálculos seguros
 import java.math.RoundingMode; // Para redondeo
-import java.text.DecimalFormat; // Formateo CLP
-import java.text.DecimalFormatSymbols; // Símbolos de formato
-import java.util.Locale; // Locale chileno
 
+/**
+ * Pesos chilenos: formato "$1.234.567" y parseo, sin DecimalFormat.
+ *
+ * - Sin estado compartido: se puede usar desde cualquier hilo
+ *   (DecimalFormat / NumberFormat no son thread-safe)
+ * - appendTo() escribe en un StringBuilder que se reutiliza (tickets,
+ *   reportes); format() crea solo el String final
+ * - Negativos como "-$1.500"
+ */
 public final class Money { // Clase final (no heredable)
 
-    private static final Locale CLP_LOCALE = new Locale("es", "CL"); // Locale de Chile
-    private static final DecimalFormatSymbols DFS; // Símbolos de formato
-    private static final DecimalFormat CLP_FMT; // Formateador CLP
+    private Money(){} // Constructor privado, evita instancias
 
-    static {
-        DFS = new DecimalFormatSymbols(CLP_LOCALE); // Usa locale chileno
-        DFS.setDecimalSeparator(','); // Configura coma como decimal
-        DFS.setGroupingSeparator('.'); // Agrupación con punto
-        CLP_FMT = new DecimalFormat("$#,##0", DFS); // Formato: $1.234.567
-        CLP_FMT.setParseBigDecimal(true); // Permitir parseo seguro
+    /** Formatea pesos CLP a “$1.234.567”. */
+    public static String format(long amount) {
+        return appendTo(new StringBuilder(16), amount).toString();
     }
 
-    private Money(){} // Constructor privado, evita instancias
+    /**
+     * Formatea un monto con decimales (ej: KPIs de la API), redondeo comercial
+     * HALF_UP: la mitad se aleja del cero (-2,5 → -3). Math.round solo sirve
+     * para positivos (redondea -2,5 a -2).
+     */
+    public static String format(double amount) {
+        return format(amount < 0 ? -Math.round(-amount) : Math.round(amount));
+    }
+
+    /** Agrega “$1.234.567” al final de sb (sin crear objetos intermedios). */
+    public static StringBuilder appendTo(StringBuilder sb, long amount) {
+        if (amount < 0) sb.append('-');
+        sb.append('$');
 
-    /** Formatea entero CLP a “$1.234.567”. */
-    public static String format(int amount) {
-        return CLP_FMT.format(amount); // Formateo directo
+        // Dígitos de derecha a izquierda sobre el valor negativo (cubre Long.MIN_VALUE)
+        long v = amount < 0 ? amount : -amount;
+        int digits = 1;
+        for (long t = v / 10; t != 0; t /= 10) digits++;
+
+        int start = sb.length();
+        int len = digits + (digits - 1) / 3;                 // dígitos + puntos de miles
+        sb.setLength(start + len);
+        int pos = start + len - 1;
+        for (int d = 0; d < digits; d++) {
+            if (d > 0 && d % 3 == 0) sb.setCharAt(pos--, '.');
+            sb.setCharAt(pos--, (char) ('0' - (v % 10)));
+            v /= 10;
+        }
+        return sb;
+    }
+
+    /** Como appendTo, alineado a la derecha en width columnas (tickets). */
+    public static StringBuilder appendPadded(StringBuilder sb, long amount, int width) {
+        int start = sb.length();
+        appendTo(sb, amount);
+        int pad = width - (sb.length() - start);
+        if (pad > 0) sb.insert(start, " ".repeat(pad));
+        return sb;
+    }
+
+    /**
+     * Parsea texto tipo “$1.234”, “1 234” o “-$500” → pesos.
+     * Ignora $, puntos, comas y espacios (CLP no usa decimales).
+     * @throws NumberFormatException si no hay dígitos, hay otros caracteres o no cabe en long
+     */
+    public static long parse(CharSequence raw) {
+        if (raw == null) throw new NumberFormatException("null");
+        boolean neg = false, any = false;
+        long v = 0;   // acumulado en negativo: así cabe también Long.MIN_VALUE
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (v < Long.MIN_VALUE / 10 || v * 10 < Long.MIN_VALUE + (c - '0')) {
+                    throw new NumberFormatException("Monto fuera de rango: " + raw);
+                }
+                v = v * 10 - (c - '0');
+                any = true;
+            } else if (c == '-' && !any && !neg) {
+                neg = true;
+            } else if (c != '$' && c != '.' && c != ',' && c != ' ' && c != '\u00A0' && c != '+') {
+                throw new NumberFormatException("Monto inválido: " + raw);
+            }
+        }
+        if (!any) throw new NumberFormatException("Monto vacío: " + raw);
+        if (neg) return v;
+        if (v == Long.MIN_VALUE) throw new NumberFormatException("Monto fuera de rango: " + raw);
+        return -v;
     }
 
     /** Parsea texto tipo “$1.234” → 1234. Si falla, 0. */
     public static int parseOrZero(String raw) {
-        if (raw == null) return 0; // Si viene null → 0
-        String clean = raw.trim() // Limpia espacios y formatos
-                .replace("$","") // Saca $
-                .replace(".", "") // Saca puntos
-                .replace(" ", "") // Saca espacios normales
-                .replace("\u00A0","") // Saca "espacio no separable"
-                .replace(",", ""); // Saca coma decimal (CLP no usa)
-        if (clean.isEmpty()) return 0; // Cadena vacía → 0
         try {
-            BigDecimal bd = new BigDecimal(clean); // Convierte a BigDecimal
-            return bd.setScale(0, RoundingMode.HALF_UP).intValueExact(); // Redondeo correcto
-        } catch (Exception e) {
+            return Math.toIntExact(parse(raw)); // Fuera de rango int → 0
+        } catch (ArithmeticException | NumberFormatException e) {
             return 0; // Si no se puede parsear → 0
         }
     }
@@ -64,4 +119,3 @@ public final class Money { // Clase final (no heredable)
         return bd.setScale(0, RoundingMode.HALF_UP).intValue(); // Convierte BD → entero con redondeo
     }
 }
-
@@ -0,0 +1,292 @@
+package pos.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Índice en memoria para la búsqueda "mientras escribes" (código + nombre).
+ *
+ * - Texto plegado una sola vez al construir: minúsculas y sin tildes,
+ *   así "cafe" encuentra "Café" y "PAN" encuentra "pan"
+ * - Trigramas: cada secuencia de 3 letras apunta a la lista ordenada de
+ *   elementos que la contienen. Una consulta de 3+ letras intersecta esas
+ *   listas y solo compara contra los candidatos, no contra todo el catálogo
+ * - Códigos ordenados: los que EMPIEZAN con lo buscado (búsqueda binaria de
+ *   prefijo) aparecen primero
+ * - Se corta al llegar al límite de resultados
+ *
+ * Es inmutable: se construye fuera del EDT cada vez que llega una lista
+ * nueva y se consulta desde cualquier hilo (ver LiveSearch).
+ * Los resultados conservan el orden de la lista original.
+ */
+public final class SearchIndex<T> {
+
+    /** Máximo de filas que devuelve una búsqueda (pos.search.limit). */
+    public static final int LIMIT = Integer.getInteger("pos.search.limit", 500);
+
+    private final List<T> items;
+    private final String[] codes;                // plegados
+    private final String[] names;                // plegados
+    private final int[] byCode;                  // posiciones ordenadas por código
+    private final GramIds ids = new GramIds();   // trigrama → número correlativo
+    private final int[][] postings;              // número de trigrama → posiciones (ascendentes)
+
+    public SearchIndex(List<T> items, Function<T, String> code, Function<T, String> name) {
+        this.items = List.copyOf(items);
+        int n = this.items.size();
+
+        codes = new String[n];
+        names = new String[n];
+
+        // 1ª pasada: plegar, numerar trigramas y contar elementos por trigrama
+        int[] occ = new int[Math.max(16, n * 8)];    // trigramas de cada elemento, seguidos
+        int[] start = new int[n + 1];                // occ[start[i] .. start[i+1]) = elemento i
+        int[] count = new int[64];
+        int[] last = new int[64];                    // último elemento contado (+1) por trigrama
+        int size = 0;
+
+        for (int i = 0; i < n; i++) {
+            T it = this.items.get(i);
+            codes[i] = fold(code.apply(it));
+            names[i] = fold(name.apply(it));
+            start[i] = size;
+
+            for (String f : new String[]{codes[i], names[i]}) {
+                for (int k = 0; k + 3 <= f.length(); k++) {
+                    int id = ids.add(gram(f, k));
+                    if (id >= count.length) {
+                        count = Arrays.copyOf(count, count.length * 2);
+                        last = Arrays.copyOf(last, last.length * 2);
+                    }
+                    if (last[id] == i + 1) continue;      // una vez por elemento
+                    last[id] = i + 1;
+                    count[id]++;
+                    if (size == occ.length) occ = Arrays.copyOf(occ, size * 2);
+                    occ[size++] = id;
+                }
+            }
+        }
+        start[n] = size;
+
+        // 2ª pasada: llenar las listas (quedan ordenadas porque i crece)
+        postings = new int[ids.size()][];
+        for (int id = 0; id < postings.length; id++) postings[id] = new int[count[id]];
+        int[] fill = new int[postings.length];
+        for (int i = 0; i < n; i++) {
+            for (int k = start[i]; k < start[i + 1]; k++) {
+                int id = occ[k];
+                postings[id][fill[id]++] = i;
+            }
+        }
+
+        byCode = IntStream.range(0, n).boxed()
+                .sorted((a, b) -> codes[a].compareTo(codes[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /** Lista completa (en el orden original). */
+    public List<T> items() {
+        return items;
+    }
+
+    // Plegado de Latin-1 (todo el español) precalculado: el Normalizer es lento
+    // y se usaría en cada nombre con tilde
+    private static final char[] LATIN1 = new char[256];
+    static {
+        for (char c = 0; c < 256; c++) {
+            String f = slowFold(String.valueOf(c));
+            LATIN1[c] = f.length() == 1 ? f.charAt(0) : Character.toLowerCase(c);
+        }
+    }
+
+    /** Texto en minúsculas y sin tildes / diéresis (á→a, Ñ→n, ü→u). */
+    public static String fold(String s) {
+        if (s == null || s.isEmpty()) return "";
+
+        char[] out = new char[s.length()];
+        for (int i = 0; i < out.length; i++) {
+            char c = s.charAt(i);
+            if (c >= 256) return slowFold(s);   // fuera de Latin-1 (raro en el catálogo)
+            out[i] = LATIN1[c];
+        }
+        return new String(out);
+    }
+
+    private static String slowFold(String s) {
+        String d = Normalizer.normalize(s, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(d.length());
+        for (int i = 0; i < d.length(); i++) {
+            char c = d.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // ============================================================
+    // CONSULTAS
+    // ============================================================
+
+    /** Cada palabra de la consulta debe aparecer en el código o en el nombre. */
+    public List<T> search(String query, int limit) {
+        String[] words = words(query);
+        return run("", words, true, words.length == 1 ? words[0] : null, limit);
+    }
+
+    /**
+     * Búsqueda por campos: el código debe contener codeQuery y el nombre
+     * cada palabra de nameQuery (los vacíos no filtran).
+     */
+    public List<T> search(String codeQuery, String nameQuery, int limit) {
+        String cq = fold(codeQuery).trim();
+        return run(cq, words(nameQuery), false, cq.isEmpty() ? null : cq, limit);
+    }
+
+    private List<T> run(String cq, String[] words, boolean anyField, String prefix, int limit) {
+        List<T> out = new ArrayList<>();
+        BitSet added = new BitSet();
+
+        // 1) Códigos que empiezan con lo buscado
+        if (prefix != null) {
+            for (int k = lowerBound(prefix); k < byCode.length && out.size() < limit; k++) {
+                int i = byCode[k];
+                if (!codes[i].startsWith(prefix)) break;
+                if (matches(i, cq, words, anyField)) {
+                    out.add(items.get(i));
+                    added.set(i);
+                }
+            }
+        }
+
+        // 2) El resto, solo entre los candidatos de los trigramas
+        int[] cand = candidates(cq, words);       // null = sin trigramas → todos
+        int n = cand == null ? items.size() : cand.length;
+        for (int k = 0; k < n && out.size() < limit; k++) {
+            int i = cand == null ? k : cand[k];
+            if (!added.get(i) && matches(i, cq, words, anyField)) out.add(items.get(i));
+        }
+        return out;
+    }
+
+    // Los trigramas solo descartan: el contains() confirma
+    private boolean matches(int i, String cq, String[] words, boolean anyField) {
+        if (!cq.isEmpty() && !codes[i].contains(cq)) return false;
+        for (String w : words) {
+            boolean ok = names[i].contains(w) || (anyField && codes[i].contains(w));
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    // Intersección de las listas de todos los trigramas de la consulta
+    private int[] candidates(String cq, String[] words) {
+        List<int[]> lists = new ArrayList<>();
+        if (!collect(cq, lists)) return new int[0];
+        for (String w : words) {
+            if (!collect(w, lists)) return new int[0];
+        }
+        if (lists.isEmpty()) return null;
+
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+        int[] base = lists.get(0);
+        int[] out = new int[base.length];
+        int n = 0;
+
+        next:
+        for (int pos : base) {
+            for (int j = 1; j < lists.size(); j++) {
+                if (Arrays.binarySearch(lists.get(j), pos) < 0) continue next;
+            }
+            out[n++] = pos;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Agrega las listas de los trigramas de term; false si alguno no existe
+    private boolean collect(String term, List<int[]> lists) {
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            int id = ids.get(gram(term, i));
+            if (id < 0) return false;
+            lists.add(postings[id]);
+        }
+        return true;
+    }
+
+    private int lowerBound(String prefix) {
+        int lo = 0, hi = byCode.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (codes[byCode[mid]].compareTo(prefix) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static String[] words(String q) {
+        String f = fold(q).trim();
+        return f.isEmpty() ? new String[0] : f.split("\\s+");
+    }
+
+    // ============================================================
+    // CONSTRUCCIÓN
+    // ============================================================
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    // Tabla hash trigrama → número correlativo (0, 1, 2...), sin cajas (Long);
+    // direccionamiento abierto, la mitad de la tabla siempre libre
+    private static final class GramIds {
+        long[] keys = new long[1024];
+        int[] vals = new int[1024];                  // número + 1 (0 = casilla libre)
+        int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int h = hash(key) & mask; vals[h] != 0; h = (h + 1) & mask) {
+                if (keys[h] == key) return vals[h] - 1;
+            }
+            return -1;
+        }
+
+        int add(long key) {
+            int mask = keys.length - 1;
+            int h = hash(key) & mask;
+            for (; vals[h] != 0; h = (h + 1) & mask) {
+                if (keys[h] == key) return vals[h] - 1;
+            }
+            keys[h] = key;
+            vals[h] = ++size;
+            if (size * 2 > keys.length) grow();
+            return size - 1;
+        }
+
+        int size() { return size; }
+
+        private void grow() {
+            long[] k = keys;
+            int[] v = vals;
+            keys = new long[k.length * 2];
+            vals = new int[k.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < k.length; i++) {
+                if (v[i] == 0) continue;
+                int h = hash(k[i]) & mask;
+                while (vals[h] != 0) h = (h + 1) & mask;
+                keys[h] = k[i];
+                vals[h] = v[i];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
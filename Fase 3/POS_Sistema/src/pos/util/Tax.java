@@ -1,9 +1,11 @@
 package pos.util; // Paquete de utilidades del sistema POS
 
-import java.math.BigDecimal; // Para cálculos exactos
-import java.math.RoundingMode; // Para redondeo comercial
+import java.math.BigDecimal; // Tasa expuesta como decimal
 
-/** Utilidad de IVA (Chile) con 19% y resultados enteros (CLP). */
+/**
+ * Utilidad de IVA (Chile) con 19% y resultados enteros (CLP).
+ * Los cálculos usan TaxEngine (enteros + HALF_UP), sin crear BigDecimal.
+ */
 public final class Tax { // Clase final (no se hereda, solo utilidades)
 
     /** 19% IVA Chile */
@@ -13,9 +15,7 @@ public final class Tax { // Clase final (no se hereda, solo utilidades)
 
     /** IVA desde neto (ej: neto 1000 -> 190). */
     public static int ivaFromNeto(int neto) {
-        BigDecimal n = new BigDecimal(neto); // Convierte neto a BigDecimal
-        BigDecimal iva = n.multiply(IVA_RATE).setScale(0, RoundingMode.HALF_UP); // Multiplica por 0.19 y redondea
-        return Money.toInt(iva); // Vuelve a int usando método seguro
+        return (int) TaxEngine.taxFromNeto(neto, TaxEngine.IVA_BP); // neto × 1900 / 10000, redondeo comercial
     }
 
     /** Total desde neto (neto + IVA). */
@@ -25,9 +25,7 @@ public final class Tax { // Clase final (no se hereda, solo utilidades)
 
     /** Neto desde total (divide por 1.19, redondeo comercial). */
     public static int netoFromTotal(int total) {
-        BigDecimal t = new BigDecimal(total); // Total como BigDecimal
-        BigDecimal factor = BigDecimal.ONE.add(IVA_RATE); // 1.19 (1 + 0.19)
-        return Money.toInt(t.divide(factor, 0, RoundingMode.HALF_UP)); // Divide y redondea a entero
+        return (int) TaxEngine.netoFromBruto(total, TaxEngine.IVA_BP); // total × 10000 / 11900
     }
 
     /** IVA desde total (total - neto). */
@@ -0,0 +1,187 @@
+package pos.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Cálculo de impuestos en pesos enteros (long), sin BigDecimal.
+ *
+ * - Tasas en puntos base: 19% = 1900 (BP = 10.000 = 100%)
+ * - Redondeo comercial HALF_UP exacto con aritmética entera
+ *   (igual que BigDecimal.setScale(0, HALF_UP), también en negativos)
+ * - Varias tasas por carrito: IVA normal, exento (IVA 0) e impuestos
+ *   adicionales (ej: ILA bebidas 1000 / 1800, licores 3150)
+ * - Redondeo por línea o por documento (una vez por tasa al final)
+ *
+ * Cart es reutilizable (reset) y no crea objetos al agregar líneas:
+ * se puede recalcular el carrito completo en cada tecla.
+ */
+public final class TaxEngine {
+
+    /** 100% en puntos base. */
+    public static final int BP = 10_000;
+
+    /** IVA Chile (19%). */
+    public static final int IVA_BP = 1900;
+
+    /** Los precios de las líneas ya incluyen impuestos (BRUTO) o no (NETO). */
+    public enum Prices { NETO, BRUTO }
+
+    /** Dónde se redondea: en cada línea o una vez por tasa en el documento. */
+    public enum Rounding { LINE, DOCUMENT }
+
+    private TaxEngine() {}
+
+    // ============================================================
+    // OPERACIONES SUELTAS
+    // ============================================================
+
+    /** num / den redondeado HALF_UP (den > 0). */
+    public static long divHalfUp(long num, long den) {
+        long q = num / den;
+        long r = num % den;
+        if (Math.abs(r) * 2 >= den) q += num < 0 ? -1 : 1;
+        return q;
+    }
+
+    /** Impuesto sobre un neto (ej: 1000 al 1900 → 190). */
+    public static long taxFromNeto(long neto, int rateBp) {
+        return divHalfUp(Math.multiplyExact(neto, (long) rateBp), BP);
+    }
+
+    /** Neto contenido en un bruto (ej: 1190 al 1900 → 1000). */
+    public static long netoFromBruto(long bruto, int rateBp) {
+        return divHalfUp(Math.multiplyExact(bruto, (long) BP), BP + rateBp);
+    }
+
+    /** Tasa decimal → puntos base (0.19 → 1900). */
+    public static int bp(BigDecimal rate) {
+        if (rate == null) return 0;
+        return rate.movePointRight(4).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    // ============================================================
+    // CARRITO
+    // ============================================================
+
+    /**
+     * Totales de un documento en una pasada.
+     *   Cart c = new Cart(Prices.BRUTO, Rounding.DOCUMENT);
+     *   for (...) c.add(precio, cantidad, TaxEngine.IVA_BP, 0);
+     *   c.neto(); c.iva(); c.total();
+     * No es thread-safe (uno por diálogo / hilo).
+     */
+    public static final class Cart {
+
+        private final Prices prices;
+        private final Rounding rounding;
+
+        // Totales ya redondeados (líneas, o grupos al cerrar el documento)
+        private long neto, exento, iva, extra, total;
+
+        // Documento: base acumulada por combinación de tasas (pocas: búsqueda lineal)
+        private int[] groupIva = new int[4];
+        private int[] groupExtra = new int[4];
+        private long[] groupBase = new long[4];
+        private int groups;
+        private boolean settled = true;
+
+        // Resultado de split() (evita devolver un objeto)
+        private long sNeto, sIva, sExtra;
+
+        public Cart(Prices prices, Rounding rounding) {
+            this.prices = prices;
+            this.rounding = rounding;
+        }
+
+        /** Vacía el carrito para reutilizarlo. */
+        public Cart reset() {
+            neto = exento = iva = extra = total = 0;
+            groups = 0;
+            settled = true;
+            return this;
+        }
+
+        /**
+         * Agrega una línea.
+         * @param ivaBp   IVA de la línea (0 = exento)
+         * @param extraBp impuesto adicional sobre el neto (0 = sin)
+         */
+        public Cart add(long unitPrice, int qty, int ivaBp, int extraBp) {
+            long amount = Math.multiplyExact(unitPrice, (long) qty);
+
+            if (rounding == Rounding.LINE) {
+                accumulate(amount, ivaBp, extraBp);
+                return this;
+            }
+
+            int g = 0;
+            while (g < groups && (groupIva[g] != ivaBp || groupExtra[g] != extraBp)) g++;
+            if (g == groups) {
+                if (g == groupBase.length) grow();
+                groupIva[g] = ivaBp;
+                groupExtra[g] = extraBp;
+                groupBase[g] = 0;
+                groups++;
+            }
+            groupBase[g] = Math.addExact(groupBase[g], amount);
+            settled = false;
+            return this;
+        }
+
+        /** Neto afecto a IVA. */
+        public long neto()   { settle(); return neto; }
+        /** Monto exento (líneas con IVA 0). */
+        public long exento() { settle(); return exento; }
+        public long iva()    { settle(); return iva; }
+        /** Impuestos adicionales. */
+        public long extra()  { settle(); return extra; }
+        public long total()  { settle(); return total; }
+
+        // Documento: redondea una vez por grupo de tasas
+        private void settle() {
+            if (settled) return;
+            neto = exento = iva = extra = total = 0;
+            for (int g = 0; g < groups; g++) accumulate(groupBase[g], groupIva[g], groupExtra[g]);
+            settled = true;
+        }
+
+        private void accumulate(long amount, int ivaBp, int extraBp) {
+            split(amount, ivaBp, extraBp);
+            if (ivaBp == 0) exento += sNeto;
+            else neto += sNeto;
+            iva += sIva;
+            extra += sExtra;
+            total += sNeto + sIva + sExtra;
+        }
+
+        // Separa un monto en neto / IVA / adicional.
+        // En BRUTO la suma de las partes es exactamente el monto: el último
+        // impuesto absorbe el peso de diferencia del redondeo
+        private void split(long amount, int ivaBp, int extraBp) {
+            if (prices == Prices.NETO) {
+                sNeto = amount;
+                sIva = taxFromNeto(amount, ivaBp);
+                sExtra = taxFromNeto(amount, extraBp);
+                return;
+            }
+
+            sNeto = netoFromBruto(amount, ivaBp + extraBp);
+            if (extraBp == 0) {
+                sIva = amount - sNeto;
+                sExtra = 0;
+            } else {
+                sIva = taxFromNeto(sNeto, ivaBp);
+                sExtra = amount - sNeto - sIva;
+            }
+        }
+
+        private void grow() {
+            int n = groupBase.length * 2;
+            groupIva = Arrays.copyOf(groupIva, n);
+            groupExtra = Arrays.copyOf(groupExtra, n);
+            groupBase = Arrays.copyOf(groupBase, n);
+        }
+    }
+}
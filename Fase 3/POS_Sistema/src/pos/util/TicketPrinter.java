@@ -4,11 +4,9 @@ import javax.print.*; // 🖨️ API de impresión
 import javax.print.attribute.*; // Atributos de impresión
 import javax.print.attribute.standard.Copies; // Cantidad de copias
 import java.io.*; // Manejo de archivos
-import java.text.NumberFormat; // Formato de moneda
 import java.time.LocalDateTime; // Fecha/hora actual
 import java.time.format.DateTimeFormatter; // Formateo fecha/hora
 import java.util.List; // Listas
-import java.util.Locale; // Locale CLP
 
 import pos.model.Product; // Modelo Producto
 import pos.model.SaleItem; // Modelo Ítem de Venta
@@ -20,7 +18,6 @@ import pos.model.SaleItem; // Modelo Ítem de Venta
 public class TicketPrinter {
 
     private static final int WIDTH = 40; // 📏 Ancho del ticket en caracteres
-    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "CL")); // Formato CLP
 
     /**
      * Genera el contenido del ticket en texto formateado.
@@ -51,16 +48,13 @@ public class TicketPrinter {
             String nombre = p.getName().length() > 18 ? p.getName().substring(0, 18) + "." : p.getName(); // Ajusta nombre largo
             int subtotal = p.getPrice() * item.getQuantity(); // Calcula subtotal
 
-            sb.append(String.format(
-                    "%-20s %6d %12s\n", // Alineaciones de columnas
-                    nombre,
-                    item.getQuantity(),
-                    currencyFormat.format(subtotal) // Formato CLP
-            ));
+            sb.append(String.format("%-20s %6d ", nombre, item.getQuantity())); // Alineaciones de columnas
+            Money.appendPadded(sb, subtotal, 12).append("\n"); // Formato CLP, sin String intermedio
         }
 
         sb.append(repeat("-", WIDTH)).append("\n");
-        sb.append(String.format("%-26s %12s\n", "TOTAL:", currencyFormat.format(total))); // Total final formateado
+        sb.append(String.format("%-26s ", "TOTAL:"));
+        Money.appendPadded(sb, total, 12).append("\n"); // Total final formateado
         sb.append(repeat("-", WIDTH)).append("\n");
 
         // === PIE ===
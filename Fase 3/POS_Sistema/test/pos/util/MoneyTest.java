@@ -0,0 +1,114 @@
+package pos.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Formato y parseo de CLP sin DecimalFormat: mismos textos que el formato
+ * anterior, extremos de long y entradas que parse() debe rechazar.
+ */
+class MoneyTest {
+
+    // ============================================================
+    // FORMATO
+    // ============================================================
+
+    @Test
+    void formatsThousandsWithDots() {
+        assertEquals("$0", Money.format(0));
+        assertEquals("$5", Money.format(5));
+        assertEquals("$999", Money.format(999));
+        assertEquals("$1.000", Money.format(1000));
+        assertEquals("$1.234.567", Money.format(1_234_567));
+        assertEquals("-$1.500", Money.format(-1500));
+    }
+
+    @Test
+    void formatsLongExtremes() {
+        assertEquals("$9.223.372.036.854.775.807", Money.format(Long.MAX_VALUE));
+        assertEquals("-$9.223.372.036.854.775.808", Money.format(Long.MIN_VALUE));
+    }
+
+    // Igual que el DecimalFormat("$#,##0") con puntos que se usaba antes
+    @Test
+    void matchesPreviousDecimalFormat() {
+        DecimalFormatSymbols sym = new DecimalFormatSymbols();
+        sym.setGroupingSeparator('.');
+        DecimalFormat df = new DecimalFormat("$#,##0", sym);
+        df.setNegativePrefix("-$");
+
+        SplittableRandom rnd = new SplittableRandom(3);
+        for (int i = 0; i < 100_000; i++) {
+            long v = rnd.nextLong(-10_000_000_000L, 10_000_000_000L);
+            assertEquals(df.format(v), Money.format(v));
+        }
+    }
+
+    @Test
+    void formatDoubleRoundsHalfUp() {
+        assertEquals("$3", Money.format(2.5));
+        assertEquals("-$3", Money.format(-2.5));
+        assertEquals("-$2", Money.format(-2.4));
+        assertEquals("$1.235", Money.format(1234.5));
+        assertEquals("-$1.235", Money.format(-1234.5));
+        assertEquals("$0", Money.format(0.49));
+        assertEquals("$0", Money.format(-0.49));
+    }
+
+    @Test
+    void appendPaddedAlignsRight() {
+        assertEquals("   $1.500", Money.appendPadded(new StringBuilder(), 1500, 9).toString());
+        assertEquals("x-$1.500", Money.appendPadded(new StringBuilder("x"), -1500, 3).toString());
+        assertEquals("$1.234.567", Money.appendPadded(new StringBuilder(), 1_234_567, 4).toString());
+    }
+
+    // ============================================================
+    // PARSEO
+    // ============================================================
+
+    @Test
+    void parsesFormattedText() {
+        assertEquals(1234, Money.parse("$1.234"));
+        assertEquals(1234, Money.parse("1 234"));
+        assertEquals(1234, Money.parse("1 234"));
+        assertEquals(1234, Money.parse("1,234"));
+        assertEquals(-500, Money.parse("-$500"));
+        assertEquals(500, Money.parse("+500"));
+        assertEquals(0, Money.parse("$0"));
+    }
+
+    @Test
+    void parseRoundTripsFormat() {
+        long[] values = {0, 1, -1, 999, 1000, -1_234_567, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long v : values) assertEquals(v, Money.parse(Money.format(v)), Money.format(v));
+    }
+
+    @Test
+    void parseRejectsInvalidInput() {
+        String[] invalid = {"", "   ", "$", "-", "abc", "12a", "1.2e3", "--5", "5-", "-$-5", "$1,5x"};
+        for (String s : invalid) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(s), s);
+        }
+        assertThrows(NumberFormatException.class, () -> Money.parse(null));
+    }
+
+    @Test
+    void parseRejectsValuesOutsideLong() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("9223372036854775808"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-9223372036854775809"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("$99.999.999.999.999.999.999"));
+    }
+
+    @Test
+    void parseOrZeroFallsBackToZero() {
+        assertEquals(1234, Money.parseOrZero("$1.234"));
+        assertEquals(0, Money.parseOrZero("abc"));
+        assertEquals(0, Money.parseOrZero(null));
+        assertEquals(0, Money.parseOrZero("$3.000.000.000"));   // no cabe en int
+    }
+}
@@ -0,0 +1,177 @@
+package pos.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaxEngine contra BigDecimal (la implementación anterior de Tax) y las
+ * propiedades del carrito: HALF_UP en negativos y en la mitad exacta, y
+ * en precios con IVA las partes suman exactamente el monto.
+ */
+class TaxEngineTest {
+
+    private static final BigDecimal IVA = new BigDecimal("0.19");
+
+    // ============================================================
+    // REDONDEO
+    // ============================================================
+
+    @Test
+    void divHalfUpRoundsHalvesAwayFromZero() {
+        assertEquals(3, TaxEngine.divHalfUp(5, 2));       //  2,5 →  3
+        assertEquals(-3, TaxEngine.divHalfUp(-5, 2));     // -2,5 → -3
+        assertEquals(2, TaxEngine.divHalfUp(15, 10));     //  1,5 →  2
+        assertEquals(-2, TaxEngine.divHalfUp(-15, 10));   // -1,5 → -2
+        assertEquals(1, TaxEngine.divHalfUp(14, 10));
+        assertEquals(-1, TaxEngine.divHalfUp(-14, 10));
+        assertEquals(0, TaxEngine.divHalfUp(4, 10));
+        assertEquals(0, TaxEngine.divHalfUp(-4, 10));
+        assertEquals(0, TaxEngine.divHalfUp(0, 7));
+    }
+
+    @Test
+    void divHalfUpMatchesBigDecimal() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        for (int i = 0; i < 200_000; i++) {
+            long num = rnd.nextLong(-1_000_000_000L, 1_000_000_000L);
+            long den = rnd.nextLong(1, 100_000);
+            long expected = BigDecimal.valueOf(num).divide(BigDecimal.valueOf(den), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertEquals(expected, TaxEngine.divHalfUp(num, den), num + " / " + den);
+        }
+    }
+
+    @Test
+    void taxFromNetoOnHalfBoundaries() {
+        assertEquals(1, TaxEngine.taxFromNeto(5, 1000));      //  0,5 →  1
+        assertEquals(-1, TaxEngine.taxFromNeto(-5, 1000));    // -0,5 → -1
+        assertEquals(95, TaxEngine.taxFromNeto(500, TaxEngine.IVA_BP));
+        assertEquals(-95, TaxEngine.taxFromNeto(-500, TaxEngine.IVA_BP));
+        assertEquals(190, TaxEngine.taxFromNeto(1000, TaxEngine.IVA_BP));
+        assertEquals(1000, TaxEngine.netoFromBruto(1190, TaxEngine.IVA_BP));
+        assertEquals(-1000, TaxEngine.netoFromBruto(-1190, TaxEngine.IVA_BP));
+    }
+
+    // Mismo resultado que Tax con BigDecimal (setScale / divide HALF_UP)
+    @Test
+    void ivaMatchesBigDecimalIncludingNegatives() {
+        BigDecimal factor = BigDecimal.ONE.add(IVA);
+        for (int a = -300_000; a <= 300_000; a++) {
+            BigDecimal amount = new BigDecimal(a);
+            long iva = amount.multiply(IVA).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            long neto = amount.divide(factor, 0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(iva, TaxEngine.taxFromNeto(a, TaxEngine.IVA_BP), "IVA de " + a);
+            assertEquals(neto, TaxEngine.netoFromBruto(a, TaxEngine.IVA_BP), "neto de " + a);
+        }
+    }
+
+    @Test
+    void bpConvertsDecimalRates() {
+        assertEquals(1900, TaxEngine.bp(IVA));
+        assertEquals(1000, TaxEngine.bp(new BigDecimal("0.1")));
+        assertEquals(3150, TaxEngine.bp(new BigDecimal("0.315")));
+        assertEquals(0, TaxEngine.bp(BigDecimal.ZERO));
+        assertEquals(0, TaxEngine.bp(null));
+    }
+
+    // ============================================================
+    // CARRITO
+    // ============================================================
+
+    // Precios con IVA: neto + exento + IVA + adicional = suma de las líneas,
+    // sin un peso de diferencia, con y sin impuestos adicionales
+    @Test
+    void brutoSplitsSumExactly() {
+        int[][] rates = {{TaxEngine.IVA_BP, 0}, {TaxEngine.IVA_BP, 1000}, {TaxEngine.IVA_BP, 1800},
+                         {TaxEngine.IVA_BP, 3150}, {0, 0}};
+        SplittableRandom rnd = new SplittableRandom(7);
+
+        for (TaxEngine.Rounding rounding : TaxEngine.Rounding.values()) {
+            TaxEngine.Cart cart = new TaxEngine.Cart(TaxEngine.Prices.BRUTO, rounding);
+            for (int doc = 0; doc < 5_000; doc++) {
+                cart.reset();
+                long sum = 0;
+                int lines = 1 + rnd.nextInt(30);
+                for (int l = 0; l < lines; l++) {
+                    int[] r = rates[rnd.nextInt(rates.length)];
+                    long price = rnd.nextInt(1, 60_000);
+                    int qty = rnd.nextInt(1, 6);
+                    cart.add(price, qty, r[0], r[1]);
+                    sum += price * qty;
+                }
+                assertEquals(sum, cart.total(), rounding + " total");
+                assertEquals(sum, cart.neto() + cart.exento() + cart.iva() + cart.extra(), rounding + " partes");
+            }
+        }
+    }
+
+    @Test
+    void brutoLineWithExtraTax() {
+        // 2.000 con IVA 19% + ILA 10%: neto = 2000 / 1,29 = 1550,39 → 1550
+        TaxEngine.Cart cart = new TaxEngine.Cart(TaxEngine.Prices.BRUTO, TaxEngine.Rounding.LINE);
+        cart.add(2000, 1, TaxEngine.IVA_BP, 1000);
+        assertEquals(1550, cart.neto());
+        assertEquals(295, cart.iva());     // 1550 × 19% = 294,5 → 295
+        assertEquals(155, cart.extra());   // el resto: 2000 - 1550 - 295
+        assertEquals(2000, cart.total());
+    }
+
+    @Test
+    void exentoLinesCarryNoIva() {
+        TaxEngine.Cart cart = new TaxEngine.Cart(TaxEngine.Prices.BRUTO, TaxEngine.Rounding.DOCUMENT);
+        cart.add(1190, 1, TaxEngine.IVA_BP, 0);
+        cart.add(500, 2, 0, 0);
+        assertEquals(1000, cart.neto());
+        assertEquals(1000, cart.exento());
+        assertEquals(190, cart.iva());
+        assertEquals(2190, cart.total());
+    }
+
+    // Redondeo por documento: una vez por tasa, no por línea
+    @Test
+    void documentRoundingDiffersFromLineRounding() {
+        TaxEngine.Cart line = new TaxEngine.Cart(TaxEngine.Prices.NETO, TaxEngine.Rounding.LINE);
+        TaxEngine.Cart doc = new TaxEngine.Cart(TaxEngine.Prices.NETO, TaxEngine.Rounding.DOCUMENT);
+        for (int i = 0; i < 3; i++) {
+            line.add(5, 1, 1000, 0);   // 0,5 por línea → 1 cada una
+            doc.add(5, 1, 1000, 0);    // 1,5 en el documento → 2
+        }
+        assertEquals(3, line.iva());
+        assertEquals(2, doc.iva());
+        assertEquals(15 + 3, line.total());
+        assertEquals(15 + 2, doc.total());
+    }
+
+    @Test
+    void netoAddsTaxesOnTop() {
+        TaxEngine.Cart cart = new TaxEngine.Cart(TaxEngine.Prices.NETO, TaxEngine.Rounding.LINE);
+        cart.add(1000, 3, TaxEngine.IVA_BP, 1800);
+        assertEquals(3000, cart.neto());
+        assertEquals(570, cart.iva());
+        assertEquals(540, cart.extra());
+        assertEquals(4110, cart.total());
+    }
+
+    @Test
+    void resetEmptiesTheCart() {
+        TaxEngine.Cart cart = new TaxEngine.Cart(TaxEngine.Prices.BRUTO, TaxEngine.Rounding.DOCUMENT);
+        cart.add(1190, 4, TaxEngine.IVA_BP, 0);
+        assertEquals(4760, cart.total());
+        cart.reset();
+        assertEquals(0, cart.total());
+        cart.add(1190, 1, TaxEngine.IVA_BP, 0);
+        assertEquals(1190, cart.total());
+    }
+
+    @Test
+    void overflowIsReported() {
+        TaxEngine.Cart cart = new TaxEngine.Cart(TaxEngine.Prices.BRUTO, TaxEngine.Rounding.LINE);
+        assertThrows(ArithmeticException.class, () -> cart.add(Long.MAX_VALUE, 2, TaxEngine.IVA_BP, 0));
+        assertThrows(ArithmeticException.class, () -> TaxEngine.taxFromNeto(Long.MAX_VALUE, TaxEngine.IVA_BP));
+    }
+}